@@ -36,4 +36,10 @@ public @interface Table {
      * 默认为 驼峰属性 转换为 下划线字段
      */
     boolean camelToUnderline() default true;
+
+    /**
+     * 是否开启实体缓存，开启后 selectOneById 会优先从缓存中获取数据
+     * 通过 BaseMapper 的 update、delete 等方法修改数据时，会自动清除对应的缓存
+     */
+    boolean cache() default false;
 }
\ No newline at end of file
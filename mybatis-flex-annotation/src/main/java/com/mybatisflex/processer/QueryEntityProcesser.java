@@ -26,6 +26,8 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.tools.Diagnostic;
 import javax.tools.JavaFileObject;
@@ -98,6 +100,112 @@ public class QueryEntityProcesser extends AbstractProcessor {
     private static final String defaultColumnsTemplate = "\n        public QueryColumn[] DEFAULT_COLUMNS = new QueryColumn[]{@allColumns};\n";
     private static final String allColumnsTemplate = "        public QueryColumn[] ALL_COLUMNS = new QueryColumn[]{@allColumns};\n\n";
 
+
+    /**
+     * 可以直接通过 ResultSet 读取的类型，与 EntityResultMapperFactory 中的类型保持一致
+     * 其他类型通过 TypeHandler 读取
+     */
+    private static final Map<String, String> directReadTemplates = new HashMap<>();
+
+    static {
+        directReadTemplates.put(int.class.getName(), "rs.getInt(@index)");
+        directReadTemplates.put(Integer.class.getName(), "rs.getInt(@index)");
+        directReadTemplates.put(long.class.getName(), "rs.getLong(@index)");
+        directReadTemplates.put(Long.class.getName(), "rs.getLong(@index)");
+        directReadTemplates.put(short.class.getName(), "rs.getShort(@index)");
+        directReadTemplates.put(Short.class.getName(), "rs.getShort(@index)");
+        directReadTemplates.put(float.class.getName(), "rs.getFloat(@index)");
+        directReadTemplates.put(Float.class.getName(), "rs.getFloat(@index)");
+        directReadTemplates.put(double.class.getName(), "rs.getDouble(@index)");
+        directReadTemplates.put(Double.class.getName(), "rs.getDouble(@index)");
+        directReadTemplates.put(boolean.class.getName(), "rs.getBoolean(@index)");
+        directReadTemplates.put(Boolean.class.getName(), "rs.getBoolean(@index)");
+        directReadTemplates.put(String.class.getName(), "rs.getString(@index)");
+        directReadTemplates.put(BigDecimal.class.getName(), "rs.getBigDecimal(@index)");
+        directReadTemplates.put(byte[].class.getCanonicalName(), "rs.getBytes(@index)");
+        directReadTemplates.put(Timestamp.class.getName(), "rs.getTimestamp(@index)");
+        directReadTemplates.put(java.sql.Date.class.getName(), "rs.getDate(@index)");
+        directReadTemplates.put(Time.class.getName(), "rs.getTime(@index)");
+        directReadTemplates.put(Date.class.getName(), "toDate(rs.getTimestamp(@index))");
+        directReadTemplates.put(LocalDateTime.class.getName(), "rs.getObject(@index, java.time.LocalDateTime.class)");
+        directReadTemplates.put(LocalDate.class.getName(), "rs.getObject(@index, java.time.LocalDate.class)");
+        directReadTemplates.put(LocalTime.class.getName(), "rs.getObject(@index, java.time.LocalTime.class)");
+        directReadTemplates.put(OffsetDateTime.class.getName(), "rs.getObject(@index, java.time.OffsetDateTime.class)");
+        directReadTemplates.put(ZonedDateTime.class.getName(), "rs.getObject(@index, java.time.ZonedDateTime.class)");
+    }
+
+    private static final Map<String, String> primitiveWrappers = new HashMap<>();
+
+    static {
+        primitiveWrappers.put("int", Integer.class.getName());
+        primitiveWrappers.put("long", Long.class.getName());
+        primitiveWrappers.put("short", Short.class.getName());
+        primitiveWrappers.put("float", Float.class.getName());
+        primitiveWrappers.put("double", Double.class.getName());
+        primitiveWrappers.put("boolean", Boolean.class.getName());
+        primitiveWrappers.put("byte", Byte.class.getName());
+        primitiveWrappers.put("char", Character.class.getName());
+    }
+
+
+    private static final String resultMapperTemplate = "package @package;\n" +
+            "\n" +
+            "import com.mybatisflex.core.mybatis.EntityResultMapper;\n" +
+            "import org.apache.ibatis.type.TypeHandler;\n" +
+            "\n" +
+            "import java.sql.ResultSet;\n" +
+            "import java.sql.SQLException;\n" +
+            "\n" +
+            "// Auto generate by mybatis-flex, do not modify it.\n" +
+            "public class @mapperClassName implements EntityResultMapper<@entityName> {\n" +
+            "\n" +
+            "    private static final String[] COLUMNS = new String[]{@columns};\n" +
+            "\n" +
+            "    @Override\n" +
+            "    public String[] getColumns() {\n" +
+            "        return COLUMNS;\n" +
+            "    }\n" +
+            "\n" +
+            "    @Override\n" +
+            "    @SuppressWarnings(\"unchecked\")\n" +
+            "    public @entityName map(ResultSet rs, int[] indexes, TypeHandler<?>[] typeHandlers) throws SQLException {\n" +
+            "        @entityName entity = new @entityName();\n" +
+            "        boolean found = false;\n" +
+            "@mappings" +
+            "        return found ? entity : null;\n" +
+            "    }\n" +
+            "\n" +
+            "    private static java.util.Date toDate(java.sql.Timestamp timestamp) {\n" +
+            "        return timestamp == null ? null : new java.util.Date(timestamp.getTime());\n" +
+            "    }\n" +
+            "}\n";
+
+    private static final String directMappingTemplate = "        if (indexes[@i] > 0) {\n" +
+            "            @type v@i;\n" +
+            "            if (typeHandlers[@i] != null) {\n" +
+            "                v@i = (@type) typeHandlers[@i].getResult(rs, indexes[@i]);\n" +
+            "            } else {\n" +
+            "                v@i = @read;\n" +
+            "@wasNull" +
+            "            }\n" +
+            "            if (v@i != null) {\n" +
+            "                @setter;\n" +
+            "                found = true;\n" +
+            "            }\n" +
+            "        }\n";
+
+    private static final String wasNullTemplate = "                if (rs.wasNull()) {\n" +
+            "                    v@i = null;\n" +
+            "                }\n";
+
+    private static final String typeHandlerMappingTemplate = "        if (indexes[@i] > 0) {\n" +
+            "            @type v@i = (@type) typeHandlers[@i].getResult(rs, indexes[@i]);\n" +
+            "            if (v@i != null) {\n" +
+            "                @setter;\n" +
+            "                found = true;\n" +
+            "            }\n" +
+            "        }\n";
+
     private Filer filer;
 //    private Elements elementUtils;
 //    private Types typeUtils;
@@ -126,6 +234,7 @@ public class QueryEntityProcesser extends AbstractProcessor {
             String mappersGenerateEnable = props.getProperties().getProperty("processer.mappersGenerateEnable");
             String genMappersPackage = props.getProperties().getProperty("processer.mappersPackage");
             String className = props.getProperties().getProperty("processer.tablesClassName", "Tables");
+            String resultMappersGenerateEnable = props.getProperties().getProperty("processer.resultMappersGenerateEnable");
 
             StringBuilder guessPackage = new StringBuilder();
 
@@ -155,33 +264,18 @@ public class QueryEntityProcesser extends AbstractProcessor {
                 List<String> defaultColumns = new ArrayList<>();
 
                 TypeElement classElement = (TypeElement) entityClassElement;
+
                 for (Element fieldElement : classElement.getEnclosedElements()) {
 
                     //all fields
                     if (ElementKind.FIELD == fieldElement.getKind()) {
 
-                        TypeMirror typeMirror = fieldElement.asType();
-
                         Column column = fieldElement.getAnnotation(Column.class);
                         if (column != null && column.ignore()) {
                             continue;
                         }
 
-                        //获取 typeHandlerClass 的名称，通过 column.typeHandler() 获取会抛出异常：MirroredTypeException:
-                        //参考 https://stackoverflow.com/questions/7687829/java-6-annotation-processing-getting-a-class-from-an-annotation
-                        final String[] typeHandlerClass = {""};
-                        List<? extends AnnotationMirror> annotationMirrors = fieldElement.getAnnotationMirrors();
-                        for (AnnotationMirror annotationMirror : annotationMirrors) {
-                            annotationMirror.getElementValues().forEach((BiConsumer<ExecutableElement, AnnotationValue>) (executableElement, annotationValue) -> {
-                                if (executableElement.getSimpleName().equals("typeHandler")) {
-                                    typeHandlerClass[0] = annotationValue.toString();
-                                }
-                            });
-                        }
-
-                        //未配置 typeHandler 的情况下，只支持基本数据类型，不支持比如 list set 或者自定义的类等
-                        if ((column == null || typeHandlerClass[0].equals(UnknownTypeHandler.class.getName()))
-                                && !defaultSupportColumnTypes.contains(typeMirror.toString())) {
+                        if (!isSupportColumnType(fieldElement, column)) {
                             continue;
                         }
 
@@ -199,6 +293,16 @@ public class QueryEntityProcesser extends AbstractProcessor {
                 tablesContent.append(buildTablesClass(entityClassName, tableName, propertyAndColumns, defaultColumns));
 
 
+                //是否开启 ResultSet 映射器生成功能
+                if (!"false".equalsIgnoreCase(resultMappersGenerateEnable)) {
+                    List<String> resultColumns = new ArrayList<>();
+                    String resultMappings = buildResultMappings(classElement, table, resultColumns);
+                    if (resultMappings != null && resultMappings.length() > 0) {
+                        genResultMapperClass(classElement, resultColumns, resultMappings);
+                    }
+                }
+
+
                 //是否开启 mapper 生成功能
                 if (!"false".equalsIgnoreCase(mappersGenerateEnable)) {
                     String realMapperPackage = genMappersPackage == null || genMappersPackage.trim().length() == 0
@@ -402,6 +506,231 @@ public class QueryEntityProcesser extends AbstractProcessor {
     }
 
 
+    /**
+     * 只为顶层的、非抽象的、并且可以通过无参构造方法创建的 entity 生成映射器
+     */
+    private boolean canGenResultMapper(TypeElement classElement) {
+        if (classElement.getModifiers().contains(Modifier.ABSTRACT)
+                || classElement.getEnclosingElement().getKind() != ElementKind.PACKAGE
+                || ((PackageElement) classElement.getEnclosingElement()).isUnnamed()) {
+            return false;
+        }
+
+        //lombok 的这些注解会生成有参的构造方法，此时没有无参构造方法
+        if (!hasAnnotation(classElement, "lombok.NoArgsConstructor")
+                && hasAnnotation(classElement, "lombok.AllArgsConstructor", "lombok.RequiredArgsConstructor", "lombok.Builder", "lombok.Value")) {
+            return false;
+        }
+
+        boolean hasConstructor = false;
+        for (Element element : classElement.getEnclosedElements()) {
+            if (element.getKind() == ElementKind.CONSTRUCTOR) {
+                hasConstructor = true;
+                if (((ExecutableElement) element).getParameters().isEmpty() && !element.getModifiers().contains(Modifier.PRIVATE)) {
+                    return true;
+                }
+            }
+        }
+        return !hasConstructor || hasAnnotation(classElement, "lombok.NoArgsConstructor");
+    }
+
+
+    /**
+     * 未配置 typeHandler 的情况下，只支持基本数据类型，不支持比如 list set 或者自定义的类等
+     */
+    private boolean isSupportColumnType(Element fieldElement, Column column) {
+        //获取 typeHandlerClass 的名称，通过 column.typeHandler() 获取会抛出异常：MirroredTypeException:
+        //参考 https://stackoverflow.com/questions/7687829/java-6-annotation-processing-getting-a-class-from-an-annotation
+        final String[] typeHandlerClass = {""};
+        List<? extends AnnotationMirror> annotationMirrors = fieldElement.getAnnotationMirrors();
+        for (AnnotationMirror annotationMirror : annotationMirrors) {
+            annotationMirror.getElementValues().forEach((BiConsumer<ExecutableElement, AnnotationValue>) (executableElement, annotationValue) -> {
+                if (executableElement.getSimpleName().equals("typeHandler")) {
+                    typeHandlerClass[0] = annotationValue.toString();
+                }
+            });
+        }
+
+        return (column != null && !typeHandlerClass[0].equals(UnknownTypeHandler.class.getName()))
+                || defaultSupportColumnTypes.contains(fieldElement.asType().toString());
+    }
+
+
+    /**
+     * 构建映射器的映射代码，与 TableInfo 一致，包含父类中的字段
+     *
+     * @param resultColumns 用于接收映射器的列
+     * @return 存在无法生成映射代码的字段时返回 null
+     */
+    private String buildResultMappings(TypeElement classElement, Table table, List<String> resultColumns) {
+        if (!canGenResultMapper(classElement)) {
+            return null;
+        }
+
+        StringBuilder resultMappings = new StringBuilder();
+        Set<String> properties = new HashSet<>();
+        TypeElement currentElement = classElement;
+        while (currentElement != null && !Object.class.getName().equals(currentElement.getQualifiedName().toString())) {
+            for (Element fieldElement : currentElement.getEnclosedElements()) {
+                if (ElementKind.FIELD != fieldElement.getKind()
+                        || fieldElement.getModifiers().contains(Modifier.STATIC)
+                        || fieldElement.getModifiers().contains(Modifier.TRANSIENT)
+                        //子类中的同名字段会覆盖父类的字段
+                        || !properties.add(fieldElement.toString())) {
+                    continue;
+                }
+
+                Column column = fieldElement.getAnnotation(Column.class);
+                if ((column != null && column.ignore()) || !isSupportColumnType(fieldElement, column)) {
+                    continue;
+                }
+
+                String setter = buildSetter(classElement, fieldElement);
+                if (setter == null) {
+                    return null;
+                }
+
+                String resultColumn = column != null && column.value().trim().length() > 0 ? column.value()
+                        : (table == null || table.camelToUnderline() ? camelToUnderline(fieldElement.toString()) : fieldElement.toString());
+                resultMappings.append(buildResultMapping(resultColumns.size(), fieldElement.asType().toString(), setter));
+                resultColumns.add(resultColumn);
+            }
+
+            TypeMirror superclass = currentElement.getSuperclass();
+            currentElement = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return resultMappings.toString();
+    }
+
+
+    /**
+     * 构建设置属性值的代码，优先使用 setter 方法（包括 lombok 生成的），其次直接设置非私有的字段
+     * 字段或者 setter 方法在父类中时，需要映射器（与 entity 在同一个包下）可以访问
+     *
+     * @return 无法设置属性值时返回 null
+     */
+    private String buildSetter(TypeElement classElement, Element fieldElement) {
+        String property = fieldElement.getSimpleName().toString();
+        String setterName = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+
+        for (Element element : processingEnv.getElementUtils().getAllMembers(classElement)) {
+            if (element.getKind() == ElementKind.METHOD
+                    && element.getSimpleName().contentEquals(setterName)
+                    && ((ExecutableElement) element).getParameters().size() == 1
+                    && !element.getModifiers().contains(Modifier.STATIC)
+                    && isAccessible(classElement, element)) {
+                return "entity." + setterName + "(@value)";
+            }
+        }
+
+        //lombok 的 fluent 或者 prefix 配置会修改 setter 的名称
+        Element fieldClassElement = fieldElement.getEnclosingElement();
+        boolean lombokSetter = hasAnnotation(fieldClassElement, "lombok.Data", "lombok.Setter") || hasAnnotation(fieldElement, "lombok.Setter");
+        if (lombokSetter && !hasCustomAccessors(fieldClassElement) && !hasCustomAccessors(fieldElement)
+                && !(fieldElement.asType().toString().equals("boolean") && property.startsWith("is"))) {
+            return "entity." + setterName + "(@value)";
+        }
+
+        if (isAccessible(classElement, fieldElement) && !fieldElement.getModifiers().contains(Modifier.FINAL)) {
+            return "entity." + property + " = @value";
+        }
+        return null;
+    }
+
+
+    /**
+     * 映射器与 entity 在同一个包下，可以访问 public 的成员，以及同一个包下的非私有成员
+     */
+    private boolean isAccessible(TypeElement classElement, Element member) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return processingEnv.getElementUtils().getPackageOf(member).equals(processingEnv.getElementUtils().getPackageOf(classElement));
+    }
+
+
+    private String buildResultMapping(int index, String type, String setter) {
+        String valueType = primitiveWrappers.getOrDefault(type, type);
+        String readTemplate = directReadTemplates.get(type);
+        String template = readTemplate == null ? typeHandlerMappingTemplate : directMappingTemplate;
+        boolean needWasNull = readTemplate != null && (primitiveWrappers.containsKey(type) || primitiveWrappers.containsValue(type));
+
+        return template.replace("@wasNull", needWasNull ? wasNullTemplate : "")
+                .replace("@read", readTemplate == null ? "" : readTemplate.replace("@index", "indexes[@i]"))
+                .replace("@setter", setter.replace("@value", "v@i"))
+                .replace("@type", valueType)
+                .replace("@i", String.valueOf(index));
+    }
+
+
+    private boolean hasAnnotation(Element element, String... annotationClassNames) {
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            String annotationClassName = annotationMirror.getAnnotationType().toString();
+            for (String name : annotationClassNames) {
+                if (name.equals(annotationClassName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+
+    private boolean hasCustomAccessors(Element element) {
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            if ("lombok.experimental.Accessors".equals(annotationMirror.getAnnotationType().toString())) {
+                for (ExecutableElement executableElement : annotationMirror.getElementValues().keySet()) {
+                    String name = executableElement.getSimpleName().toString();
+                    if ("fluent".equals(name) || "prefix".equals(name)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+
+    private void genResultMapperClass(TypeElement classElement, List<String> columns, String mappings) {
+        String packageName = ((PackageElement) classElement.getEnclosingElement()).getQualifiedName().toString();
+        String entityName = classElement.getSimpleName().toString();
+        String mapperClassName = entityName + "$$FlexResultMapper";
+
+        StringJoiner columnsJoiner = new StringJoiner(", ");
+        columns.forEach(column -> columnsJoiner.add("\"" + column + "\""));
+
+        String genContent = resultMapperTemplate
+                .replace("@package", packageName)
+                .replace("@mapperClassName", mapperClassName)
+                .replace("@entityName", entityName)
+                .replace("@columns", columnsJoiner.toString())
+                .replace("@mappings", mappings);
+
+        Writer writer = null;
+        try {
+            JavaFileObject sourceFile = filer.createSourceFile(packageName + "." + mapperClassName, classElement);
+            writer = sourceFile.openWriter();
+            writer.write(genContent);
+            writer.flush();
+
+            printMessage(">>>>> mybatis-flex success generate result mapper class: \n" + sourceFile.toUri());
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+
     private void printMessage(String message) {
         processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message);
         System.out.println(message);
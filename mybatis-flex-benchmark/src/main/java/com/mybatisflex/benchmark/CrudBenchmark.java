@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.benchmark;
+
+import com.mybatisflex.benchmark.mapper.AccountMapper;
+import com.mybatisflex.benchmark.model.Account;
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.core.row.Row;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于内存数据库 H2 的完整 CRUD 链路：Mapper、Db + Row，以及直接使用 JDBC 作为基准，
+ * 两者的差值即为 MyBatis 与 MyBatis-Flex 的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CrudBenchmark {
+
+    private static final int ROWS = 100;
+
+    private JdbcDataSource dataSource;
+    private MybatisFlexBootstrap bootstrap;
+    private Account account;
+
+    @Setup
+    public void setup() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1");
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS tb_account");
+            statement.execute("CREATE TABLE tb_account (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "user_name VARCHAR(100), age INT, birthday TIMESTAMP)");
+            for (int i = 0; i < ROWS; i++) {
+                statement.execute("INSERT INTO tb_account (user_name, age, birthday) " +
+                        "VALUES ('user" + i + "', " + (i % 60) + ", CURRENT_TIMESTAMP)");
+            }
+        }
+
+        bootstrap = new MybatisFlexBootstrap()
+                .setDataSource(dataSource)
+                .addMapper(AccountMapper.class)
+                .start();
+
+        account = new Account();
+        account.setId(1L);
+        account.setUserName("michael");
+        account.setAge(18);
+        account.setBirthday(new Date());
+    }
+
+
+    @Benchmark
+    public Account selectOneById() {
+        return bootstrap.execute(AccountMapper.class, mapper -> mapper.selectOneById(1L));
+    }
+
+
+    @Benchmark
+    public List<Account> selectListByQuery() {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .where("age >= ?", 18)
+                .limit(20);
+        return bootstrap.execute(AccountMapper.class, mapper -> mapper.selectListByQuery(queryWrapper));
+    }
+
+
+    @Benchmark
+    public int insert() {
+        Account newAccount = new Account();
+        newAccount.setUserName("michael");
+        newAccount.setAge(18);
+        newAccount.setBirthday(new Date());
+        return bootstrap.execute(AccountMapper.class, mapper -> mapper.insert(newAccount));
+    }
+
+
+    @Benchmark
+    public int update() {
+        return bootstrap.execute(AccountMapper.class, mapper -> mapper.update(account));
+    }
+
+
+    @Benchmark
+    public Row dbSelectOneById() {
+        return Db.selectOneById("tb_account", "id", 1L);
+    }
+
+
+    @Benchmark
+    public Account jdbcSelectOneById() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT id, user_name, age, birthday FROM tb_account WHERE id = ?")) {
+            statement.setLong(1, 1L);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                Account result = new Account();
+                result.setId(resultSet.getLong(1));
+                result.setUserName(resultSet.getString(2));
+                result.setAge(resultSet.getInt(3));
+                result.setBirthday(resultSet.getTimestamp(4));
+                return result;
+            }
+        }
+    }
+
+
+    @Benchmark
+    public int jdbcUpdate() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE tb_account SET user_name = ?, age = ?, birthday = ? WHERE id = ?")) {
+            statement.setString(1, account.getUserName());
+            statement.setInt(2, account.getAge());
+            statement.setTimestamp(3, new Timestamp(account.getBirthday().getTime()));
+            statement.setLong(4, account.getId());
+            return statement.executeUpdate();
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.benchmark;
+
+import com.mybatisflex.benchmark.model.Account;
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.dialect.CommonsDialectImpl;
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.query.QueryColumn;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 方言的 sql 构建：select（包含 join、group by、order by 和 limit）以及 entity 的批量插入
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DialectBenchmark {
+
+    @Param({"10", "1000"})
+    private int entities;
+
+    private IDialect dialect;
+    private QueryWrapper queryWrapper;
+    private TableInfo tableInfo;
+    private List<Object> entityList;
+
+    @Setup
+    public void setup() {
+        FlexGlobalConfig.setDefaultConfig(new FlexGlobalConfig());
+        dialect = new CommonsDialectImpl();
+
+        QueryColumn accountId = new QueryColumn("tb_account", "id");
+        QueryColumn userName = new QueryColumn("tb_account", "user_name");
+        QueryColumn age = new QueryColumn("tb_account", "age");
+        QueryColumn articleAccountId = new QueryColumn("tb_article", "account_id");
+        queryWrapper = QueryWrapper.create()
+                .select(accountId, userName, age)
+                .from("tb_account")
+                .leftJoin("tb_article").on(articleAccountId.eq(accountId))
+                .where(age.ge(18))
+                .and(userName.like("michael").or(age.in(20, 30, 40)))
+                .groupBy(accountId)
+                .orderBy(accountId.desc())
+                .limit(10, 20);
+
+        tableInfo = TableInfos.ofEntityClass(Account.class);
+        entityList = new ArrayList<>(entities);
+        for (int i = 0; i < entities; i++) {
+            Account account = new Account();
+            account.setUserName("user_" + i);
+            account.setAge(i % 100);
+            account.setBirthday(new Date());
+            entityList.add(account);
+        }
+    }
+
+
+    @Benchmark
+    public String buildSelectSql() {
+        return dialect.buildSelectSql(queryWrapper);
+    }
+
+
+    @Benchmark
+    public String forInsertEntityBatch() {
+        return dialect.forInsertEntityBatch(tableInfo, entityList);
+    }
+
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.benchmark;
+
+import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.provider.RowSqlProvider;
+import com.mybatisflex.core.row.Row;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量插入的参数组装
+ * 参数组装是线性的，rows 每增加 10 倍，耗时也应只增加 10 倍左右
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InsertBatchArgsBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private List<Row> rowList;
+
+    @Setup
+    public void setup() {
+        FlexGlobalConfig.setDefaultConfig(new FlexGlobalConfig());
+
+        rowList = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            rowList.add(new Row()
+                    .set("user_name", "user_" + i)
+                    .set("age", i % 100)
+                    .set("birthday", new Date()));
+        }
+    }
+
+
+    @Benchmark
+    public Object insertBatchWithFirstRowColumns() {
+        Map<String, Object> params = new HashMap<>();
+        params.put(FlexConsts.TABLE_NAME, "tb_account");
+        params.put(FlexConsts.ROWS, rowList);
+        RowSqlProvider.insertBatchWithFirstRowColumns(params);
+        return params.get(FlexConsts.SQL_ARGS);
+    }
+
+}
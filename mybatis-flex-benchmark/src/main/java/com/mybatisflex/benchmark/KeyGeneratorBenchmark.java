@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.benchmark;
+
+import com.mybatisflex.core.keygen.IKeyGenerator;
+import com.mybatisflex.core.keygen.KeyGeneratorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内置主键生成器的吞吐量对比，多线程同时使用同一个生成器
+ * 运行：java -jar target/benchmarks.jar KeyGeneratorBenchmark -t 8
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class KeyGeneratorBenchmark {
+
+    @Param({"uuid", "snowflake"})
+    private String generator;
+
+    private IKeyGenerator keyGenerator;
+
+    @Setup
+    public void setup() {
+        keyGenerator = KeyGeneratorFactory.getKeyGenerator(generator);
+    }
+
+
+    @Benchmark
+    public Object generate() {
+        return keyGenerator.generate(null, "id");
+    }
+
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.benchmark;
+
+import com.mybatisflex.core.dialect.CommonsDialectImpl;
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.query.CPI;
+import com.mybatisflex.core.query.QueryColumn;
+import com.mybatisflex.core.query.QueryWrapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 条件很多的 QueryWrapper 的 sql 和参数构建
+ * 条件的构建是线性的，conditions 每增加 10 倍，耗时也应只增加 10 倍左右
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryWrapperBenchmark {
+
+    @Param({"10", "200", "2000"})
+    private int conditions;
+
+    private final QueryColumn id = new QueryColumn("tb_account", "id");
+    private final QueryColumn userName = new QueryColumn("tb_account", "user_name");
+    private final QueryColumn age = new QueryColumn("tb_account", "age");
+
+    private IDialect dialect;
+    private QueryWrapper queryWrapper;
+
+    @Setup
+    public void setup() {
+        dialect = new CommonsDialectImpl();
+        queryWrapper = newQueryWrapper();
+    }
+
+
+    private QueryWrapper newQueryWrapper() {
+        QueryWrapper queryWrapper = QueryWrapper.create().select().from("tb_account");
+        for (int i = 0; i < conditions; i++) {
+            switch (i % 4) {
+                case 0:
+                    queryWrapper.and(id.ge(i));
+                    break;
+                case 1:
+                    queryWrapper.and(userName.like("user_" + i).or(age.in(i, i + 1, i + 2)));
+                    break;
+                case 2:
+                    queryWrapper.or(age.between(i, i + 10));
+                    break;
+                default:
+                    queryWrapper.and(age.eq(i).when(i % 8 == 3));
+            }
+        }
+        return queryWrapper;
+    }
+
+
+    @Benchmark
+    public QueryWrapper createQueryWrapper() {
+        return newQueryWrapper();
+    }
+
+
+    @Benchmark
+    public String buildSelectSql() {
+        return dialect.forSelectListByQuery(queryWrapper);
+    }
+
+
+    @Benchmark
+    public Object[] buildValueArray() {
+        return CPI.getValueArray(queryWrapper);
+    }
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.benchmark;
+
+import com.mybatisflex.core.row.Row;
+import com.mybatisflex.core.row.RowSchema;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row 的常用操作：创建并设置值、读取值、获取修改的值，以及共享列结构的 SchemaRow 的对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowBenchmark {
+
+    private final Date birthday = new Date();
+    private RowSchema schema;
+    private Row row;
+
+    @Setup
+    public void setup() {
+        schema = RowSchema.of("id", "user_name", "age", "birthday");
+        row = newRow();
+    }
+
+
+    private Row newRow() {
+        return Row.ofKey("id", 1L)
+                .set("user_name", "michael")
+                .set("age", 18)
+                .set("birthday", birthday);
+    }
+
+
+    @Benchmark
+    public Row createRow() {
+        return newRow();
+    }
+
+
+    @Benchmark
+    public Row createSchemaRow() {
+        return schema.newRow(1L, "michael", 18, birthday);
+    }
+
+
+    @Benchmark
+    public Object getValues() {
+        row.get("id");
+        row.get("user_name");
+        row.get("age");
+        return row.get("birthday");
+    }
+
+
+    @Benchmark
+    public Object[] obtainModifyValues() {
+        return row.obtainModifyValues();
+    }
+
+
+    @Benchmark
+    public Object toCamelKeysMap() {
+        return row.toCamelKeysMap();
+    }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.benchmark;
+
+import com.mybatisflex.benchmark.model.Account;
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.javassist.ModifyAttrsRecordProxyFactory;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * entity 与 sql 参数的绑定：insert 参数、update 参数（普通 entity 以及只更新部分字段的代理 entity）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TableInfoBenchmark {
+
+    private TableInfo tableInfo;
+    private Account account;
+    private Account modifyAttrsAccount;
+
+    @Setup
+    public void setup() {
+        FlexGlobalConfig.setDefaultConfig(new FlexGlobalConfig());
+        tableInfo = TableInfos.ofEntityClass(Account.class);
+
+        account = new Account();
+        account.setId(1L);
+        account.setUserName("michael");
+        account.setAge(18);
+        account.setBirthday(new Date());
+
+        modifyAttrsAccount = ModifyAttrsRecordProxyFactory.getInstance().get(Account.class);
+        modifyAttrsAccount.setId(1L);
+        modifyAttrsAccount.setAge(18);
+    }
+
+
+    @Benchmark
+    public Object[] buildInsertSqlArgs() {
+        return tableInfo.buildInsertSqlArgs(account);
+    }
+
+
+    @Benchmark
+    public Object[] buildUpdateSqlArgs() {
+        return tableInfo.buildUpdateSqlArgs(account, true, false);
+    }
+
+
+    @Benchmark
+    public Object[] buildUpdateSqlArgsWithModifyAttrs() {
+        return tableInfo.buildUpdateSqlArgs(modifyAttrsAccount, true, false);
+    }
+
+
+    @Benchmark
+    public Object[] buildPkSqlArgs() {
+        return tableInfo.buildPkSqlArgs(account);
+    }
+
+}
@@ -16,13 +16,13 @@
 package com.mybatisflex.core;
 
 import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.paginate.KeysetUtil;
 import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.provider.EntitySqlProvider;
-import com.mybatisflex.core.query.QueryColumn;
 import com.mybatisflex.core.query.QueryWrapper;
-import com.mybatisflex.core.query.CPI;
 import org.apache.ibatis.annotations.*;
 import org.apache.ibatis.builder.annotation.ProviderContext;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.io.Serializable;
 import java.util.Collection;
@@ -44,15 +44,42 @@ public interface BaseMapper<T> {
 
     /**
      * 批量插入 entity 数据，只会根据第一条数据来构建插入的字段内容
+     * 数据量超过当前数据库方言的参数数量限制时，会自动分为多条 INSERT 语句执行
      *
      * @param entities 插入的数据列表
      * @return 返回影响的行数
      * @see com.mybatisflex.core.provider.EntitySqlProvider#insertBatch(Map, ProviderContext)
-     * @see com.mybatisflex.core.FlexConsts#METHOD_INSERT_BATCH
+     * @see com.mybatisflex.core.dialect.IDialect#getInsertBatchSize(int)
      */
     @InsertProvider(type = EntitySqlProvider.class, method = FlexConsts.METHOD_INSERT_BATCH)
     int insertBatch(@Param(FlexConsts.ENTITIES) List<T> entities);
 
+
+    /**
+     * 批量插入 entity 数据，每 size 条数据生成一条 INSERT 语句
+     *
+     * @param entities 插入的数据列表
+     * @param size     每条 INSERT 语句插入的数据量
+     * @return 返回影响的行数
+     */
+    default int insertBatch(List<T> entities, int size) {
+        if (entities == null || entities.isEmpty()) {
+            throw FlexExceptions.wrap("entities can not be null or empty.");
+        }
+        if (size <= 0) {
+            throw FlexExceptions.wrap("size must be greater than 0.");
+        }
+        if (entities.size() <= size) {
+            return insertBatch(entities);
+        }
+
+        int total = 0;
+        for (int i = 0; i < entities.size(); i += size) {
+            total += insertBatch(entities.subList(i, Math.min(i + size, entities.size())));
+        }
+        return total;
+    }
+
     /**
      * 根据 id 删除数据
      * 如果是多个主键的情况下，需要传入数组 new Object[]{100,101}
@@ -229,6 +256,19 @@ public interface BaseMapper<T> {
     List<T> selectListByQuery(@Param(FlexConsts.QUERY) QueryWrapper queryWrapper);
 
 
+    /**
+     * 根据 query 来构建条件，通过游标逐条读取数据，用于大数据量的导出等场景
+     * 游标需要在 SqlSession 关闭前读取完毕，在 Spring 中使用时，需要在事务中调用，使用完毕后需要关闭游标
+     *
+     * @param queryWrapper 查询条件
+     * @return 数据游标
+     * @see com.mybatisflex.core.provider.EntitySqlProvider#selectListByQuery(Map, ProviderContext)
+     * @see com.mybatisflex.core.dialect.IDialect#getCursorFetchSize()
+     */
+    @SelectProvider(type = EntitySqlProvider.class, method = "selectListByQuery")
+    Cursor<T> selectCursorByQuery(@Param(FlexConsts.QUERY) QueryWrapper queryWrapper);
+
+
     /**
      * 查询全部数据
      *
@@ -267,29 +307,30 @@ public interface BaseMapper<T> {
     /**
      * 分页查询
      *
-     * @param page         page，其包含了页码、每页的数据量，可能包含数据总量
+     * @param page         page，其包含了页码、每页的数据量，可能包含数据总量，可以通过 {@link Page#ofKeyset(int, Object...)} 使用 keyset 分页
      * @param queryWrapper 查询条件
      * @return page 数据
      */
     default Page<T> paginate(@Param("page") Page<T> page, @Param("query") QueryWrapper queryWrapper) {
-        List<QueryColumn> groupByColumns = CPI.getGroupByColumns(queryWrapper);
-
         // 只有 totalRow 小于 0 的时候才会去查询总量
         // 这样方便用户做总数缓存，而非每次都要去查询总量
         // 一般的分页场景中，只有第一页的时候有必要去查询总量，第二页以后是不需要的
+        // group by 等查询会通过子查询 count 分组后的数据量，参考 CountQueryUtil
         if (page.getTotalRow() < 0) {
-            //清除group by 去查询数据
-            CPI.setGroupByColumns(queryWrapper, null);
             long count = selectCountByQuery(queryWrapper);
             page.setTotalRow(count);
         }
 
-        if (page.getTotalRow() == 0 || page.getPageNumber() > page.getTotalPage()) {
+        if (page.getTotalRow() == 0 || (!page.isKeyset() && page.getPageNumber() > page.getTotalPage())) {
+            return page;
+        }
+
+        //keyset 分页，通过上一页最后一条数据的排序字段值定位，而不是 offset
+        if (page.isKeyset()) {
+            KeysetUtil.selectPage(page, queryWrapper, this::selectListByQuery);
             return page;
         }
 
-        //恢复数量查询清除的 groupBy
-        CPI.setGroupByColumns(queryWrapper, groupByColumns);
         int offset = page.getPageSize() * (page.getPageNumber() - 1);
         queryWrapper.limit(offset, page.getPageSize());
         List<T> rows = selectListByQuery(queryWrapper);
@@ -36,8 +36,10 @@ public class FlexConsts {
     public static final String ENTITY = "$$entity";
     public static final String ENTITIES = "$$entities";
     public static final String IGNORE_NULLS = "$$ignoreNulls";
+    public static final String DIALECT = "$$dialect";
 
     public static final String METHOD_INSERT_BATCH = "insertBatch";
+    public static final String METHOD_SELECT_CURSOR_BY_QUERY = "selectCursorByQuery";
 
     /**
      * 当 entity 使用逻辑删除时，0 为 entity 的正常状态
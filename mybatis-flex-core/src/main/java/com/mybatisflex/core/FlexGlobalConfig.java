@@ -21,6 +21,7 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * 全局配置文件
@@ -46,6 +47,16 @@ public class FlexGlobalConfig {
      */
     private KeyConfig keyConfig;
 
+    /**
+     * 全局的实体缓存配置，参考 {@link com.mybatisflex.core.cache.EntityCacheFactory}
+     */
+    private EntityCacheConfig entityCacheConfig = new EntityCacheConfig();
+
+    /**
+     * 异步执行 sql 的配置，参考 {@link com.mybatisflex.core.async.AsyncExecutor}
+     */
+    private AsyncConfig asyncConfig = new AsyncConfig();
+
 
     public DbType getDbType() {
         return dbType;
@@ -79,6 +90,22 @@ public class FlexGlobalConfig {
         this.keyConfig = keyConfig;
     }
 
+    public EntityCacheConfig getEntityCacheConfig() {
+        return entityCacheConfig;
+    }
+
+    public void setEntityCacheConfig(EntityCacheConfig entityCacheConfig) {
+        this.entityCacheConfig = entityCacheConfig;
+    }
+
+    public AsyncConfig getAsyncConfig() {
+        return asyncConfig;
+    }
+
+    public void setAsyncConfig(AsyncConfig asyncConfig) {
+        this.asyncConfig = asyncConfig;
+    }
+
     /**
      * 对应的是 注解 {@link com.mybatisflex.annotation.Id} 的配置
      */
@@ -113,6 +140,80 @@ public class FlexGlobalConfig {
     }
 
 
+    /**
+     * 实体缓存的配置，单个实体可以通过 {@link com.mybatisflex.annotation.Table#cache()} 开启
+     */
+    public static class EntityCacheConfig {
+        /**
+         * 是否为所有的实体开启缓存
+         */
+        private boolean enable = false;
+        /**
+         * 每个实体最多缓存的数据量
+         */
+        private int maxSize = 10000;
+        /**
+         * 缓存的过期时间，单位：秒
+         */
+        private long ttl = 600;
+
+        public boolean isEnable() {
+            return enable;
+        }
+
+        public void setEnable(boolean enable) {
+            this.enable = enable;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public long getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(long ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+
+    /**
+     * 异步执行 sql 的配置，需要在第一次异步执行之前设置
+     */
+    public static class AsyncConfig {
+        /**
+         * 执行 sql 的线程池，为 null 时，Java 21 及以上版本使用虚拟线程，否则使用线程数为 maxConcurrency 的线程池
+         */
+        private Executor executor;
+        /**
+         * 当前数据源最大同时执行的 sql 数量，一般不应超过连接池的大小，小于等于 0 时不限制
+         */
+        private int maxConcurrency = 16;
+
+        public Executor getExecutor() {
+            return executor;
+        }
+
+        public void setExecutor(Executor executor) {
+            this.executor = executor;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+    }
+
+
     /////static factory methods/////
     private static ConcurrentHashMap<String, FlexGlobalConfig> globalConfigs = new ConcurrentHashMap();
     private static FlexGlobalConfig defaultConfig;
@@ -15,8 +15,9 @@
  */
 package com.mybatisflex.core;
 
+import com.mybatisflex.core.async.AsyncExecutor;
+import com.mybatisflex.core.async.AsyncMapper;
 import com.mybatisflex.core.dialect.DbType;
-import com.mybatisflex.core.dialect.DialectFactory;
 import com.mybatisflex.core.mybatis.FlexConfiguration;
 import com.mybatisflex.core.mybatis.FlexSqlSessionFactoryBuilder;
 import org.apache.ibatis.logging.Log;
@@ -134,15 +135,22 @@ public class MybatisFlexBootstrap {
 
     public <R, T> R execute(Class<T> mapperClass, Function<T, R> function) {
         try (SqlSession sqlSession = openSession()) {
-            DialectFactory.setHintDbType(dbType);
             T mapper = sqlSession.getMapper(mapperClass);
             return function.apply(mapper);
-        } finally {
-            DialectFactory.clearHintDbType();
         }
     }
 
 
+    /**
+     * 获取 mapper 的异步包装，每次调用在 AsyncExecutor 中打开独立的 SqlSession 执行
+     */
+    public <T, M extends BaseMapper<T>> AsyncMapper<T> async(Class<M> mapperClass) {
+        FlexGlobalConfig globalConfig = FlexGlobalConfig.getConfig(configuration);
+        AsyncExecutor asyncExecutor = AsyncExecutor.of(globalConfig != null ? globalConfig : FlexGlobalConfig.getDefaultConfig());
+        return new AsyncMapper<>(function -> execute(mapperClass, function::apply), asyncExecutor);
+    }
+
+
     private SqlSession openSession() {
         return sqlSessionFactory.openSession(configuration.getDefaultExecutorType(), true);
     }
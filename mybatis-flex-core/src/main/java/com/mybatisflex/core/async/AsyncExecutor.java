@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.async;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 异步执行 sql 的执行器，每个数据源（FlexGlobalConfig）一个，
+ * 同一个数据源同时执行的任务数量不超过 maxConcurrency，超出的任务在队列中等待，不会阻塞调用线程，也不会占用执行线程
+ * <p>
+ * 未配置 executor 时，在 Java 21 及以上版本中使用虚拟线程，否则使用线程数为 maxConcurrency 的线程池
+ */
+public class AsyncExecutor {
+
+    private static final Map<FlexGlobalConfig, AsyncExecutor> executors = new ConcurrentHashMap<>();
+
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final Queue<Task<?>> pending = new ConcurrentLinkedQueue<>();
+
+
+    /**
+     * @param executor       执行任务的线程池
+     * @param maxConcurrency 最大同时执行的任务数量，小于等于 0 时不限制
+     */
+    public AsyncExecutor(Executor executor, int maxConcurrency) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor can not be null.");
+        }
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+    }
+
+
+    /**
+     * 获取数据源的 AsyncExecutor，根据 {@link FlexGlobalConfig.AsyncConfig} 创建
+     *
+     * @param globalConfig 数据源的配置
+     * @return AsyncExecutor
+     */
+    public static AsyncExecutor of(FlexGlobalConfig globalConfig) {
+        return executors.computeIfAbsent(globalConfig, config -> {
+            FlexGlobalConfig.AsyncConfig asyncConfig = config.getAsyncConfig() != null
+                    ? config.getAsyncConfig() : new FlexGlobalConfig.AsyncConfig();
+            int maxConcurrency = asyncConfig.getMaxConcurrency();
+            Executor executor = asyncConfig.getExecutor() != null ? asyncConfig.getExecutor() : createDefaultExecutor(maxConcurrency);
+            return new AsyncExecutor(executor, maxConcurrency);
+        });
+    }
+
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 等待执行的任务数量
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+
+    /**
+     * 异步执行
+     *
+     * @param supplier 执行的方法，在 executor 的线程中执行
+     * @return CompletableFuture，执行出错时以异常结束
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> supplier) {
+        Task<T> task = new Task<>(supplier);
+        if (permits == null) {
+            dispatch(task);
+        } else {
+            pending.offer(task);
+            drain();
+        }
+        return task.future;
+    }
+
+
+    private void drain() {
+        while (!pending.isEmpty() && permits.tryAcquire()) {
+            Task<?> task = pending.poll();
+            if (task == null) {
+                //被其他线程取走了
+                permits.release();
+                continue;
+            }
+            dispatch(task);
+        }
+    }
+
+
+    private void dispatch(Task<?> task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            //由 drain 的循环继续处理后面的任务
+            if (permits != null) {
+                permits.release();
+            }
+            task.future.completeExceptionally(e);
+        }
+    }
+
+
+    private void release() {
+        if (permits != null) {
+            permits.release();
+            drain();
+        }
+    }
+
+
+    private static Executor createDefaultExecutor(int maxConcurrency) {
+        //Java 21 的 Executors.newVirtualThreadPerTaskExecutor()，由于最低支持 Java 8，只能通过反射获取
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            //ignore
+        }
+
+        int poolSize = maxConcurrency > 0 ? maxConcurrency : Runtime.getRuntime().availableProcessors() * 2;
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS
+                , new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "mybatis-flex-async-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        threadPool.allowCoreThreadTimeOut(true);
+        return threadPool;
+    }
+
+
+    private class Task<T> implements Runnable {
+
+        private final Supplier<T> supplier;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Task(Supplier<T> supplier) {
+            this.supplier = supplier;
+        }
+
+        /**
+         * 先释放许可再结束 future，future 的回调（例如 join 之后立即提交新任务）执行时，许可已经可用
+         */
+        @Override
+        public void run() {
+            T result = null;
+            Throwable error = null;
+            try {
+                result = supplier.get();
+            } catch (Throwable e) {
+                error = e;
+            }
+
+            try {
+                release();
+            } finally {
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    future.complete(result);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.async;
+
+import com.mybatisflex.core.BaseMapper;
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.paginate.Page;
+import com.mybatisflex.core.query.QueryWrapper;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * BaseMapper 的异步包装，每个方法都在 {@link AsyncExecutor} 中执行并返回 CompletableFuture
+ * 异步执行的 sql 不在调用线程的事务中；未在 Spring 中使用时，通过 MybatisFlexBootstrap#async 获取，每次调用使用独立的 SqlSession
+ */
+public class AsyncMapper<T> {
+
+    private final Function<Function<BaseMapper<T>, ?>, ?> invoker;
+    private final AsyncExecutor asyncExecutor;
+
+    /**
+     * 包装线程安全的 mapper（例如 Spring 注入的 mapper），使用默认数据源的 AsyncExecutor
+     */
+    public static <T> AsyncMapper<T> of(BaseMapper<T> mapper) {
+        return of(mapper, AsyncExecutor.of(FlexGlobalConfig.getDefaultConfig()));
+    }
+
+    public static <T> AsyncMapper<T> of(BaseMapper<T> mapper, AsyncExecutor asyncExecutor) {
+        return new AsyncMapper<>(function -> function.apply(mapper), asyncExecutor);
+    }
+
+    /**
+     * @param invoker       执行 mapper 方法的函数，可以在其中打开和关闭 SqlSession
+     * @param asyncExecutor 异步执行器
+     */
+    public AsyncMapper(Function<Function<BaseMapper<T>, ?>, ?> invoker, AsyncExecutor asyncExecutor) {
+        this.invoker = invoker;
+        this.asyncExecutor = asyncExecutor;
+    }
+
+
+    public AsyncExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+
+    /**
+     * 异步执行任意 mapper 方法，例如：supply(mapper -> mapper.selectAll())
+     */
+    @SuppressWarnings("unchecked")
+    public <R> CompletableFuture<R> supply(Function<BaseMapper<T>, R> function) {
+        return asyncExecutor.submit(() -> (R) invoker.apply(function));
+    }
+
+
+    public CompletableFuture<Integer> insert(T entity) {
+        return supply(mapper -> mapper.insert(entity));
+    }
+
+    public CompletableFuture<Integer> deleteById(Serializable id) {
+        return supply(mapper -> mapper.deleteById(id));
+    }
+
+    public CompletableFuture<Integer> deleteByQuery(QueryWrapper queryWrapper) {
+        return supply(mapper -> mapper.deleteByQuery(queryWrapper));
+    }
+
+    public CompletableFuture<Integer> update(T entity) {
+        return supply(mapper -> mapper.update(entity));
+    }
+
+    public CompletableFuture<T> selectOneById(Serializable id) {
+        return supply(mapper -> mapper.selectOneById(id));
+    }
+
+    public CompletableFuture<T> selectOneByQuery(QueryWrapper queryWrapper) {
+        return supply(mapper -> mapper.selectOneByQuery(queryWrapper));
+    }
+
+    public CompletableFuture<List<T>> selectListByIds(Collection<? extends Serializable> ids) {
+        return supply(mapper -> mapper.selectListByIds(ids));
+    }
+
+    public CompletableFuture<List<T>> selectListByQuery(QueryWrapper queryWrapper) {
+        return supply(mapper -> mapper.selectListByQuery(queryWrapper));
+    }
+
+    public CompletableFuture<Long> selectCountByQuery(QueryWrapper queryWrapper) {
+        return supply(mapper -> mapper.selectCountByQuery(queryWrapper));
+    }
+
+    public CompletableFuture<Page<T>> paginate(int pageNumber, int pageSize, QueryWrapper queryWrapper) {
+        return supply(mapper -> mapper.paginate(pageNumber, pageSize, queryWrapper));
+    }
+}
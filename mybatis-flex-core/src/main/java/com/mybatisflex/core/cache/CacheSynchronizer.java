@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存与事务的同步
+ * <p>
+ * 1. 记录未结束的事务中正在修改的表，表在修改期间，其他线程查询到的数据不能放入缓存，避免缓存未提交或者即将过期的数据
+ * 2. 事务结束之后解除修改的标记，并再次清除缓存；在 Spring 等外部管理事务的环境中，SqlSession 的 commit 和 close
+ * 在事务真正提交之前执行，需要通过 {@link #setRegistrar(Registrar)} 注册到事务结束之后执行
+ */
+public class CacheSynchronizer {
+
+    //修改所有的表，例如无法解析表名的原生 sql
+    public static final String ALL_TABLES = "*";
+
+    private static final Map<String, Integer> modifyingTables = new ConcurrentHashMap<>();
+
+    private static volatile Registrar registrar;
+
+    private CacheSynchronizer() {
+    }
+
+
+    /**
+     * 在外部管理的事务结束之后执行回调
+     */
+    public interface Registrar {
+
+        /**
+         * @param action 事务结束（提交或回滚）之后执行的回调
+         * @return 当前没有外部管理的事务时返回 false，由调用方立即执行
+         */
+        boolean registerAfterCompletion(Runnable action);
+    }
+
+
+    public static Registrar getRegistrar() {
+        return registrar;
+    }
+
+    public static void setRegistrar(Registrar registrar) {
+        CacheSynchronizer.registrar = registrar;
+    }
+
+
+    /**
+     * 事务结束之后执行，没有外部管理的事务时立即执行
+     */
+    public static void runAfterCompletion(Runnable action) {
+        Registrar registrar = CacheSynchronizer.registrar;
+        if (registrar == null || !registrar.registerAfterCompletion(action)) {
+            action.run();
+        }
+    }
+
+
+    /**
+     * 标记表正在被修改，需要在事务结束之后调用 {@link #endModify(String)}
+     *
+     * @param table 表名，可以带有 schema，或者 {@link #ALL_TABLES}
+     */
+    public static void beginModify(String table) {
+        modifyingTables.merge(normalizeTableName(table), 1, Integer::sum);
+    }
+
+
+    /**
+     * 解除表的修改标记
+     *
+     * @param table 表名，和 {@link #beginModify(String)} 的参数相同
+     */
+    public static void endModify(String table) {
+        modifyingTables.computeIfPresent(normalizeTableName(table), (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+
+    /**
+     * 表是否正在未结束的事务中被修改
+     *
+     * @param table 经过 {@link #normalizeTableName(String)} 处理的表名，为 {@link #ALL_TABLES} 时表示是否有任意表正在被修改
+     */
+    public static boolean isModifying(String table) {
+        if (modifyingTables.isEmpty()) {
+            return false;
+        }
+        return ALL_TABLES.equals(table) || modifyingTables.containsKey(ALL_TABLES) || modifyingTables.containsKey(table);
+    }
+
+
+    /**
+     * 任意一个表是否正在未结束的事务中被修改
+     *
+     * @param tables 经过 {@link #normalizeTableName(String)} 处理的表名
+     */
+    public static boolean isModifying(Collection<String> tables) {
+        if (modifyingTables.isEmpty()) {
+            return false;
+        }
+        if (modifyingTables.containsKey(ALL_TABLES)) {
+            return true;
+        }
+        for (String table : tables) {
+            if (ALL_TABLES.equals(table) || modifyingTables.containsKey(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * 去掉表名的 schema 和引号，并转为小写
+     */
+    public static String normalizeTableName(String table) {
+        table = table.trim();
+        table = table.substring(table.lastIndexOf('.') + 1);
+        return table.replaceAll("[`\"\\[\\]\\s]", "").toLowerCase();
+    }
+}
@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.cache;
+
+import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.table.ColumnInfo;
+import com.mybatisflex.core.table.IdInfo;
+import com.mybatisflex.core.table.PropertyAccessor;
+import com.mybatisflex.core.table.TableInfo;
+import org.apache.ibatis.reflection.Reflector;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个数据源中单个实体（表）的缓存，key 为主键的值，value 为实体属性值的快照
+ * 每次获取数据时都会返回一个新的实体对象，调用方对实体的修改不会影响缓存
+ */
+public class EntityCache {
+
+    private final String environmentId;
+    private final TableInfo tableInfo;
+    private final String tableName;
+    private final Reflector reflector;
+    private final PropertyAccessor[] accessors; //主键在前
+    private final int pkCount;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    //每次清除缓存时递增，查询前记录版本号，版本号发生变化时说明查询期间数据被修改过，查询结果不能再放入缓存
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+
+    public EntityCache(String environmentId, TableInfo tableInfo, int maxSize, long ttlNanos) {
+        this.environmentId = environmentId;
+        this.tableInfo = tableInfo;
+        this.tableName = CacheSynchronizer.normalizeTableName(tableInfo.getTableName());
+        this.reflector = tableInfo.getReflector();
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+
+        List<PropertyAccessor> accessorList = new ArrayList<>();
+        for (IdInfo idInfo : tableInfo.getPrimaryKeyList()) {
+            accessorList.add(PropertyAccessor.of(tableInfo.getEntityClass(), idInfo.getProperty()));
+        }
+        this.pkCount = accessorList.size();
+        for (ColumnInfo columnInfo : tableInfo.getColumnInfoList()) {
+            accessorList.add(PropertyAccessor.of(tableInfo.getEntityClass(), columnInfo.getProperty()));
+        }
+        this.accessors = accessorList.toArray(new PropertyAccessor[0]);
+    }
+
+
+    public String getEnvironmentId() {
+        return environmentId;
+    }
+
+
+    public TableInfo getTableInfo() {
+        return tableInfo;
+    }
+
+
+    /**
+     * 经过 {@link CacheSynchronizer#normalizeTableName(String)} 处理的表名
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+
+    public long getVersion() {
+        return version.get();
+    }
+
+
+    /**
+     * 获取缓存的实体
+     *
+     * @param pkValues 主键的值
+     * @return 新的实体对象，没有缓存或者缓存已经过期时返回 null
+     */
+    public Object get(Object[] pkValues) {
+        String key = buildKey(pkValues);
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            cache.remove(key, entry);
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return newEntity(entry.values);
+    }
+
+
+    /**
+     * 缓存实体
+     *
+     * @param pkValues 主键的值
+     * @param entity   实体
+     * @param version  查询之前通过 {@link #getVersion()} 获取的版本号
+     */
+    public void put(Object[] pkValues, Object entity, long version) {
+        //表正在其他未结束的事务中被修改，查询到的数据可能马上会过期
+        if (this.version.get() != version || CacheSynchronizer.isModifying(tableName)) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (cache.size() >= maxSize) {
+            evict(now);
+        }
+
+        String key = buildKey(pkValues);
+        Entry entry = new Entry(snapshot(entity), now + ttlNanos);
+        cache.put(key, entry);
+
+        //放入缓存的同时数据被清除了
+        if (this.version.get() != version || CacheSynchronizer.isModifying(tableName)) {
+            cache.remove(key, entry);
+        }
+    }
+
+
+    /**
+     * 清除某条数据的缓存
+     *
+     * @param pkValues 主键的值
+     */
+    public void invalidate(Object[] pkValues) {
+        version.incrementAndGet();
+        cache.remove(buildKey(pkValues));
+    }
+
+
+    /**
+     * 清除所有的缓存
+     */
+    public void clear() {
+        version.incrementAndGet();
+        cache.clear();
+    }
+
+
+    public int size() {
+        return cache.size();
+    }
+
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+
+    /**
+     * 获取实体的主键值
+     *
+     * @param entity 实体
+     * @return 主键值
+     */
+    public Object[] getPkValues(Object entity) {
+        Object[] values = new Object[pkCount];
+        for (int i = 0; i < pkCount; i++) {
+            values[i] = accessors[i].get(entity);
+        }
+        return values;
+    }
+
+
+    /**
+     * 构建缓存的 key，不同类型但值相同的主键（例如 Integer 的 1 和 Long 的 1）应该对应同一条数据
+     */
+    private static String buildKey(Object[] pkValues) {
+        if (pkValues.length == 1) {
+            return String.valueOf(pkValues[0]);
+        }
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < pkValues.length; i++) {
+            if (i > 0) {
+                key.append('\u0000');
+            }
+            key.append(pkValues[i]);
+        }
+        return key.toString();
+    }
+
+
+    /**
+     * 缓存满了之后，先清除过期的数据，仍然满的时候再清除一部分数据
+     */
+    private void evict(long now) {
+        cache.values().removeIf(entry -> entry.isExpired(now));
+        int removeCount = cache.size() - maxSize + Math.max(maxSize >> 3, 1);
+        Iterator<Entry> iterator = cache.values().iterator();
+        while (removeCount-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+
+    private Object[] snapshot(Object entity) {
+        Object[] values = new Object[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            values[i] = accessors[i].get(entity);
+        }
+        return values;
+    }
+
+
+    private Object newEntity(Object[] values) {
+        try {
+            Object entity = reflector.getDefaultConstructor().newInstance();
+            for (int i = 0; i < accessors.length; i++) {
+                if (values[i] != null) {
+                    accessors[i].set(entity, values[i]);
+                }
+            }
+            return entity;
+        } catch (Exception e) {
+            throw FlexExceptions.wrap(e);
+        }
+    }
+
+
+    private static class Entry {
+        private final Object[] values;
+        private final long expireAt;
+
+        Entry(Object[] values, long expireAt) {
+            this.values = values;
+            this.expireAt = expireAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expireAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.cache;
+
+import com.mybatisflex.annotation.Table;
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实体缓存的管理，用于缓存 {@link com.mybatisflex.core.BaseMapper#selectOneById} 的查询结果
+ * 通过 {@link Table#cache()} 或者 {@link FlexGlobalConfig.EntityCacheConfig#setEnable(boolean)} 开启
+ * 缓存的读取和清除由 {@link com.mybatisflex.core.mybatis.EntityCacheExecutor} 完成
+ */
+public class EntityCacheFactory {
+
+    //environmentId -> 该数据源中每个实体的缓存，不同数据源中相同的实体使用不同的缓存
+    private static final Map<String, Map<TableInfo, Optional<EntityCache>>> caches = new ConcurrentHashMap<>();
+
+    private EntityCacheFactory() {
+    }
+
+
+    /**
+     * 获取实体的缓存
+     *
+     * @param environmentId 执行 sql 的数据源的 environmentId
+     * @param tableInfo     实体的 TableInfo
+     * @return 未开启缓存时返回 null
+     */
+    public static EntityCache getCache(String environmentId, TableInfo tableInfo) {
+        if (environmentId == null || tableInfo == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(environmentId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(tableInfo, info -> createCache(environmentId, info))
+                .orElse(null);
+    }
+
+
+    /**
+     * 根据表名获取已经创建的缓存
+     * 还未创建的缓存无需清除，其创建之后，在修改该表的事务结束之前也不能放入数据，参考 {@link CacheSynchronizer}
+     *
+     * @param environmentId 执行 sql 的数据源的 environmentId
+     * @param tableName     表名，可以带有 schema
+     * @return 未开启缓存时返回 null
+     */
+    public static EntityCache getCache(String environmentId, String tableName) {
+        Map<TableInfo, Optional<EntityCache>> environmentCaches = environmentId == null ? null : caches.get(environmentId);
+        if (tableName == null || environmentCaches == null) {
+            return null;
+        }
+        tableName = CacheSynchronizer.normalizeTableName(tableName);
+        for (Optional<EntityCache> cache : environmentCaches.values()) {
+            if (cache.isPresent() && cache.get().getTableName().equals(tableName)) {
+                return cache.get();
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * 获取所有数据源中已经创建的缓存
+     */
+    public static List<EntityCache> getCaches() {
+        List<EntityCache> result = new ArrayList<>();
+        for (Map<TableInfo, Optional<EntityCache>> environmentCaches : caches.values()) {
+            for (Optional<EntityCache> cache : environmentCaches.values()) {
+                cache.ifPresent(result::add);
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * 清除某个实体在所有数据源中的缓存，用于在 mybatis-flex 之外修改了数据的场景
+     *
+     * @param entityClass 实体类
+     */
+    public static void clear(Class<?> entityClass) {
+        TableInfo tableInfo = TableInfos.ofEntityClass(entityClass);
+        for (Map<TableInfo, Optional<EntityCache>> environmentCaches : caches.values()) {
+            Optional<EntityCache> cache = environmentCaches.get(tableInfo);
+            if (cache != null) {
+                cache.ifPresent(EntityCache::clear);
+            }
+        }
+    }
+
+
+    /**
+     * 清除所有数据源中所有实体的缓存
+     */
+    public static void clearAll() {
+        for (String environmentId : caches.keySet()) {
+            clearAll(environmentId);
+        }
+    }
+
+
+    /**
+     * 清除某个数据源中所有实体的缓存
+     *
+     * @param environmentId 数据源的 environmentId
+     */
+    public static void clearAll(String environmentId) {
+        Map<TableInfo, Optional<EntityCache>> environmentCaches = environmentId == null ? null : caches.get(environmentId);
+        if (environmentCaches != null) {
+            for (Optional<EntityCache> cache : environmentCaches.values()) {
+                cache.ifPresent(EntityCache::clear);
+            }
+        }
+    }
+
+
+    /**
+     * 实体是否通过 {@link Table#cache()} 开启了缓存
+     */
+    public static boolean isCacheEntity(TableInfo tableInfo) {
+        Table table = tableInfo.getEntityClass().getAnnotation(Table.class);
+        return table != null && table.cache();
+    }
+
+
+    /**
+     * 根据数据源自己的配置创建缓存，没有该数据源的配置时使用默认的配置
+     */
+    private static Optional<EntityCache> createCache(String environmentId, TableInfo tableInfo) {
+        FlexGlobalConfig globalConfig = FlexGlobalConfig.getConfig(environmentId);
+        if (globalConfig == null) {
+            globalConfig = FlexGlobalConfig.getDefaultConfig();
+        }
+        FlexGlobalConfig.EntityCacheConfig cacheConfig = globalConfig != null && globalConfig.getEntityCacheConfig() != null
+                ? globalConfig.getEntityCacheConfig() : new FlexGlobalConfig.EntityCacheConfig();
+
+        boolean enable = cacheConfig.isEnable() || isCacheEntity(tableInfo);
+
+        //没有主键时无法缓存
+        if (!enable || tableInfo.getPrimaryKeyList() == null || tableInfo.getPrimaryKeyList().isEmpty()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new EntityCache(environmentId, tableInfo, cacheConfig.getMaxSize(), TimeUnit.SECONDS.toNanos(cacheConfig.getTtl())));
+    }
+}
@@ -0,0 +1,401 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Row 查询结果的缓存，以 environment、sql 和参数为 key，并以 sql 中用到的表作为标签
+ * 通过 Mybatis-Flex（Db 或者 Mapper）修改某个表的数据时，由 {@link com.mybatisflex.core.mybatis.EntityCacheExecutor}
+ * 清除该表相关的所有缓存，并在事务结束之后再次清除；表在未结束的事务中被修改期间，其查询结果不会放入缓存
+ * 适用于变化较少的字典、配置等数据的查询
+ */
+public class RowQueryCache {
+
+    //无法解析出表名的 sql，任何表的修改都会清除其缓存
+    private static final String ANY_TABLE = CacheSynchronizer.ALL_TABLES;
+
+    //所有创建的缓存，用于在修改数据时清除
+    private static final Set<RowQueryCache> caches = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private static final Pattern TABLE_KEYWORD_PATTERN = Pattern.compile("\\b(FROM|JOIN|UPDATE|INTO)\\s+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TABLE_NAME_PATTERN = Pattern.compile("[`\"\\[]?[\\w$]+[`\"\\]]?(\\s*\\.\\s*[`\"\\[]?[\\w$]+[`\"\\]]?)*");
+    private static final Pattern ALIAS_PATTERN = Pattern.compile("\\s+(AS\\s+)?(?!(WHERE|JOIN|ON|LEFT|RIGHT|INNER|FULL|CROSS|GROUP|ORDER|LIMIT|HAVING|UNION|SET|VALUES|SELECT)\\b)[`\"\\[]?\\w+[`\"\\]]?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COMMA_PATTERN = Pattern.compile("\\s*,\\s*");
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+    private final Map<String, Set<Key>> tableKeys = new ConcurrentHashMap<>();
+
+    //每次清除缓存时递增，查询期间版本号发生变化时，查询结果不放入缓存
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+
+    /**
+     * @param ttl      过期时间
+     * @param timeUnit 过期时间的单位
+     * @param maxSize  最多缓存的数量
+     */
+    public RowQueryCache(long ttl, TimeUnit timeUnit, int maxSize) {
+        this.ttlNanos = timeUnit.toNanos(ttl);
+        this.maxSize = maxSize;
+        caches.add(this);
+    }
+
+
+    /**
+     * 是否存在查询缓存
+     */
+    public static boolean hasCaches() {
+        return !caches.isEmpty();
+    }
+
+
+    /**
+     * 获取所有已经创建的查询缓存
+     */
+    public static List<RowQueryCache> getCaches() {
+        synchronized (caches) {
+            return new ArrayList<>(caches);
+        }
+    }
+
+
+    /**
+     * 清除所有查询缓存中某些表相关的缓存
+     *
+     * @param environment environment id
+     * @param tables      表名，包含 {@link CacheSynchronizer#ALL_TABLES} 时清除该 environment 下的所有缓存
+     */
+    public static void evictTables(String environment, Collection<String> tables) {
+        List<RowQueryCache> cacheList;
+        synchronized (caches) {
+            if (caches.isEmpty()) {
+                return;
+            }
+            cacheList = new ArrayList<>(caches);
+        }
+        for (RowQueryCache cache : cacheList) {
+            if (tables.contains(ANY_TABLE)) {
+                cache.evictAll(environment);
+            } else {
+                for (String table : tables) {
+                    cache.evict(environment, table);
+                }
+            }
+        }
+    }
+
+
+    public long getVersion() {
+        return version.get();
+    }
+
+
+    /**
+     * 获取缓存的查询结果
+     *
+     * @return 没有缓存或已过期时返回 null
+     */
+    public Object get(String environment, String sql, Object[] args) {
+        Key key = new Key(environment, sql, args);
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            remove(key, entry);
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return entry.value;
+    }
+
+
+    /**
+     * 缓存查询结果
+     *
+     * @param tables  sql 中用到的表，为 null 时通过 sql 解析
+     * @param value   查询结果
+     * @param version 查询之前通过 {@link #getVersion()} 获取的版本号
+     */
+    public void put(String environment, String sql, Object[] args, Collection<String> tables, Object value, long version) {
+        if (value == null || this.version.get() != version) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (cache.size() >= maxSize) {
+            evict(now);
+        }
+
+        Set<String> tableNames = new LinkedHashSet<>();
+        Set<String> parsedTables = parseTables(sql);
+        tableNames.addAll(parsedTables != null ? parsedTables : Arrays.asList(ANY_TABLE));
+        if (tables != null) {
+            for (String table : tables) {
+                tableNames.add(CacheSynchronizer.normalizeTableName(table));
+            }
+        }
+
+        //表正在其他未结束的事务中被修改，查询到的数据可能马上会过期
+        if (CacheSynchronizer.isModifying(tableNames)) {
+            return;
+        }
+
+        Set<String> tableTags = new LinkedHashSet<>();
+        for (String table : tableNames) {
+            tableTags.add(buildTag(environment, table));
+        }
+
+        Key key = new Key(environment, sql, args);
+        Entry entry = new Entry(value, now + ttlNanos, tableTags);
+        for (String tag : tableTags) {
+            tableKeys.computeIfAbsent(tag, k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        cache.put(key, entry);
+
+        //放入缓存的同时数据被修改了
+        if (this.version.get() != version || CacheSynchronizer.isModifying(tableNames)) {
+            remove(key, entry);
+        }
+    }
+
+
+    /**
+     * 清除某个表相关的所有缓存
+     *
+     * @param environment environment id
+     * @param table       表名
+     */
+    public void evict(String environment, String table) {
+        version.incrementAndGet();
+        evictTag(buildTag(environment, table));
+        evictTag(buildTag(environment, ANY_TABLE));
+    }
+
+
+    /**
+     * 清除执行 sql 后受影响的表的缓存，无法解析出表名时清除该 environment 下的所有缓存
+     *
+     * @param environment environment id
+     * @param sql         insert、update 或 delete sql
+     */
+    public void evictBySql(String environment, String sql) {
+        Set<String> tables = parseTables(sql);
+        if (tables == null) {
+            evictAll(environment);
+        } else {
+            for (String table : tables) {
+                evict(environment, table);
+            }
+        }
+    }
+
+
+    /**
+     * 清除某个 environment 下的所有缓存
+     */
+    public void evictAll(String environment) {
+        version.incrementAndGet();
+        for (Map.Entry<Key, Entry> entry : cache.entrySet()) {
+            if (entry.getKey().environment.equals(environment)) {
+                remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+
+    public void clear() {
+        version.incrementAndGet();
+        evictionCount.add(cache.size());
+        cache.clear();
+        tableKeys.clear();
+    }
+
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 因为修改数据、过期或者容量不足而被清除的缓存数量
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+
+    private void evictTag(String tag) {
+        Set<Key> keys = tableKeys.remove(tag);
+        if (keys != null) {
+            for (Key key : keys) {
+                Entry entry = cache.get(key);
+                if (entry != null) {
+                    remove(key, entry);
+                }
+            }
+        }
+    }
+
+
+    private void remove(Key key, Entry entry) {
+        if (cache.remove(key, entry)) {
+            evictionCount.increment();
+            for (String tag : entry.tableTags) {
+                Set<Key> keys = tableKeys.get(tag);
+                if (keys != null) {
+                    keys.remove(key);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * 缓存满了之后，先清除过期的数据，仍然满的时候再清除一部分数据
+     */
+    private void evict(long now) {
+        cache.forEach((key, entry) -> {
+            if (entry.isExpired(now)) {
+                remove(key, entry);
+            }
+        });
+        int removeCount = cache.size() - maxSize + Math.max(maxSize >> 3, 1);
+        Iterator<Map.Entry<Key, Entry>> iterator = cache.entrySet().iterator();
+        while (removeCount-- > 0 && iterator.hasNext()) {
+            Map.Entry<Key, Entry> entry = iterator.next();
+            remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+
+    private static String buildTag(String environment, String table) {
+        return environment + ":" + CacheSynchronizer.normalizeTableName(table);
+    }
+
+
+    /**
+     * 简单的解析 sql 中 FROM、JOIN、UPDATE、INTO 之后的表名
+     *
+     * @return 没有解析到任何表名时返回 null
+     */
+    public static Set<String> parseTables(String sql) {
+        Set<String> tables = new LinkedHashSet<>();
+        Matcher keywordMatcher = TABLE_KEYWORD_PATTERN.matcher(sql);
+        Matcher tableMatcher = TABLE_NAME_PATTERN.matcher(sql);
+        Matcher aliasMatcher = ALIAS_PATTERN.matcher(sql);
+        Matcher commaMatcher = COMMA_PATTERN.matcher(sql);
+        while (keywordMatcher.find()) {
+            int pos = keywordMatcher.end();
+            //FROM a AS t1, b t2
+            while (tableMatcher.region(pos, sql.length()).lookingAt()) {
+                tables.add(CacheSynchronizer.normalizeTableName(tableMatcher.group()));
+                pos = tableMatcher.end();
+                if (aliasMatcher.region(pos, sql.length()).lookingAt()) {
+                    pos = aliasMatcher.end();
+                }
+                if (!keywordMatcher.group(1).equalsIgnoreCase("FROM")
+                        || !commaMatcher.region(pos, sql.length()).lookingAt()) {
+                    break;
+                }
+                pos = commaMatcher.end();
+            }
+        }
+        return tables.isEmpty() ? null : tables;
+    }
+
+
+    private static class Entry {
+        private final Object value;
+        private final long expireAt;
+        private final Set<String> tableTags;
+
+        Entry(Object value, long expireAt, Set<String> tableTags) {
+            this.value = value;
+            this.expireAt = expireAt;
+            this.tableTags = tableTags;
+        }
+
+        boolean isExpired(long now) {
+            return now - expireAt >= 0;
+        }
+    }
+
+
+    private static class Key {
+        private final String environment;
+        private final String sql;
+        private final Object[] args;
+        private final int hashCode;
+
+        Key(String environment, String sql, Object[] args) {
+            this.environment = environment;
+            this.sql = sql;
+            //复制一份，避免调用方修改数组后缓存的 key 发生变化
+            this.args = args != null ? args.clone() : null;
+            this.hashCode = 31 * (31 * environment.hashCode() + sql.hashCode()) + Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hashCode == key.hashCode && environment.equals(key.environment)
+                    && sql.equals(key.sql) && Arrays.deepEquals(args, key.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
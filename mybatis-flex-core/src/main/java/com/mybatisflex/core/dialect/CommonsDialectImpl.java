@@ -38,6 +38,18 @@ public class CommonsDialectImpl implements IDialect {
     protected KeywordWrap keywordWrap = KeywordWrap.BACKQUOTE;
     private LimitOffsetProcesser limitOffsetProcesser = LimitOffsetProcesser.MYSQL;
 
+    //单条 sql 允许的最大参数数量，批量插入时会根据其自动分批
+    private int maxParameterCount = 32767;
+
+    //批量插入时，单条 sql 最多插入的数据行数，用于避免 sql 过大（比如 mysql 的 max_allowed_packet）
+    private int maxInsertBatchRows = 1000;
+
+    //游标查询时设置给驱动的 fetchSize
+    private int cursorFetchSize = 1000;
+
+    //是否支持行值比较，例如：(a, b) > (?, ?)
+    private boolean supportRowValueComparison = false;
+
     public CommonsDialectImpl() {
     }
 
@@ -55,6 +67,46 @@ public class CommonsDialectImpl implements IDialect {
         return keywordWrap.wrap(keyword);
     }
 
+    @Override
+    public int getInsertBatchSize(int columnCount) {
+        int size = columnCount > 0 ? maxParameterCount / columnCount : maxInsertBatchRows;
+        return Math.max(1, Math.min(size, maxInsertBatchRows));
+    }
+
+    public int getMaxParameterCount() {
+        return maxParameterCount;
+    }
+
+    public void setMaxParameterCount(int maxParameterCount) {
+        this.maxParameterCount = maxParameterCount;
+    }
+
+    public int getMaxInsertBatchRows() {
+        return maxInsertBatchRows;
+    }
+
+    public void setMaxInsertBatchRows(int maxInsertBatchRows) {
+        this.maxInsertBatchRows = maxInsertBatchRows;
+    }
+
+    @Override
+    public int getCursorFetchSize() {
+        return cursorFetchSize;
+    }
+
+    public void setCursorFetchSize(int cursorFetchSize) {
+        this.cursorFetchSize = cursorFetchSize;
+    }
+
+    @Override
+    public boolean isSupportRowValueComparison() {
+        return supportRowValueComparison;
+    }
+
+    public void setSupportRowValueComparison(boolean supportRowValueComparison) {
+        this.supportRowValueComparison = supportRowValueComparison;
+    }
+
     @Override
     public String forInsertRow(String tableName, Row row) {
         StringBuilder fields = new StringBuilder();
@@ -173,9 +225,9 @@ public class CommonsDialectImpl implements IDialect {
 
         sql.append("UPDATE ").append(wrap(tableName)).append(" SET ");
         int index = 0;
-        for (Map.Entry<String, Object> e : row.entrySet()) {
-            String colName = e.getKey();
-            if (modifyAttrs.contains(colName) && !ArrayUtil.contains(primaryKeys, colName)) {
+        //需和 Row.obtainModifyValues 的顺序保持一致
+        for (String colName : modifyAttrs) {
+            if (!ArrayUtil.contains(primaryKeys, colName)) {
                 if (index > 0) {
                     sql.append(", ");
                 }
@@ -194,6 +246,19 @@ public class CommonsDialectImpl implements IDialect {
         return sql.toString();
     }
 
+    @Deprecated
+    @Override
+    public String forUpdateBatchById(String tableName, List<Row> rows) {
+        if (rows.size() == 1) {
+            return forUpdateById(tableName, rows.get(0));
+        }
+        StringBuilder sql = new StringBuilder();
+        for (Row row : rows) {
+            sql.append(forUpdateById(tableName, row)).append("; ");
+        }
+        return sql.toString();
+    }
+
     @Override
     public String forUpdateByQuery(String tableName, Row row, QueryWrapper queryWrapper) {
         StringBuilder sql = new StringBuilder();
@@ -218,18 +283,6 @@ public class CommonsDialectImpl implements IDialect {
         return sql.toString();
     }
 
-    @Override
-    public String forUpdateBatchById(String tableName, List<Row> rows) {
-        if (rows.size() == 1) {
-            return forUpdateById(tableName, rows.get(0));
-        }
-        StringBuilder sql = new StringBuilder();
-        for (Row row : rows) {
-            sql.append(forUpdateById(tableName, row)).append("; ");
-        }
-        return sql.toString();
-    }
-
 
     @Override
     public String forSelectOneById(String tableName, String[] primaryKeys, Object[] primaryValues) {
@@ -266,20 +319,7 @@ public class CommonsDialectImpl implements IDialect {
         List<QueryColumn> selectColumns = CPI.getSelectColumns(queryWrapper);
 
         StringBuilder sqlBuilder = new StringBuilder("SELECT ");
-        if (selectColumns == null || selectColumns.isEmpty()) {
-            sqlBuilder.append("*");
-        } else {
-            int index = 0;
-
-            for (QueryColumn selectColumn : selectColumns) {
-                String selectColumnSql = CPI.toSelectSql(selectColumn, allTables, this);
-                sqlBuilder.append(selectColumnSql);
-                if (index != selectColumns.size() - 1) {
-                    sqlBuilder.append(", ");
-                }
-                index++;
-            }
-        }
+        buildSelectColumnSql(sqlBuilder, selectColumns, allTables);
         sqlBuilder.append(" FROM ").append(StringUtil.join(", ", queryTables, queryTable -> queryTable.toSql(this)));
 
         buildJoinSql(sqlBuilder, queryWrapper, allTables);
@@ -304,19 +344,39 @@ public class CommonsDialectImpl implements IDialect {
         List<QueryTable> joinTables = CPI.getJoinTables(queryWrapper);
         List<QueryTable> allTables = CollectionUtil.merge(queryTables, joinTables);
 
+        // ignore orderBy and limit
+        // group by、having 或 distinct 的查询，count 的是分组或去重后的数据量，通过子查询进行 count
+        if (CountQueryUtil.isNeedWrapCount(queryWrapper)) {
+            List<QueryColumn> selectColumns = CountQueryUtil.getWrapCountSelectColumns(queryWrapper);
+
+            StringBuilder sqlBuilder = new StringBuilder("SELECT COUNT(*) FROM (SELECT ");
+            if (selectColumns == null) {
+                sqlBuilder.append("1");
+            } else {
+                buildSelectColumnSql(sqlBuilder, selectColumns, allTables);
+            }
+            sqlBuilder.append(" FROM ").append(StringUtil.join(", ", queryTables, queryTable -> queryTable.toSql(this)));
+
+            buildJoinSql(sqlBuilder, queryWrapper, allTables);
+            buildWhereSql(sqlBuilder, queryWrapper, allTables);
+            buildGroupBySql(sqlBuilder, queryWrapper, allTables);
+            buildHavingSql(sqlBuilder, queryWrapper, allTables);
+
+            return sqlBuilder.append(") flex_count_table").toString();
+        }
+
         //ignore selectColumns
         StringBuilder sqlBuilder = new StringBuilder("SELECT COUNT(*) FROM ");
         sqlBuilder.append(StringUtil.join(", ", queryTables, queryTable -> queryTable.toSql(this)));
 
-
-        buildJoinSql(sqlBuilder, queryWrapper, allTables);
+        //不影响数据量的 left join 无需参与 count
+        List<Join> countJoins = CountQueryUtil.getCountJoins(queryWrapper);
+        if (countJoins != null) {
+            for (Join join : countJoins) {
+                sqlBuilder.append(join.toSql(allTables, this));
+            }
+        }
         buildWhereSql(sqlBuilder, queryWrapper, allTables);
-        buildGroupBySql(sqlBuilder, queryWrapper, allTables);
-        buildHavingSql(sqlBuilder, queryWrapper, allTables);
-
-        // ignore orderBy and limit
-        // buildOrderBySql(sqlBuilder, queryWrapper);
-        // buildLimitSql(sqlBuilder, queryWrapper);
 
         return sqlBuilder.toString();
     }
@@ -389,7 +449,7 @@ public class CommonsDialectImpl implements IDialect {
         Map<String, String> onInsertColumns = tableInfo.getOnInsertColumns();
         for (int i = 0; i < entities.size(); i++) {
             StringJoiner stringJoiner = new StringJoiner(", ", "(", ")");
-            for (String insertColumn : warpedInsertColumns) {
+            for (String insertColumn : insertColumns) {
                 if (onInsertColumns != null && onInsertColumns.containsKey(insertColumn)) {
                     //直接读取 onInsert 配置的值，而不用 "?" 代替
                     stringJoiner.add(onInsertColumns.get(insertColumn));
@@ -694,6 +754,23 @@ public class CommonsDialectImpl implements IDialect {
     }
 
 
+    protected void buildSelectColumnSql(StringBuilder sqlBuilder, List<QueryColumn> selectColumns, List<QueryTable> queryTables) {
+        if (selectColumns == null || selectColumns.isEmpty()) {
+            sqlBuilder.append("*");
+        } else {
+            int index = 0;
+            for (QueryColumn selectColumn : selectColumns) {
+                String selectColumnSql = CPI.toSelectSql(selectColumn, queryTables, this);
+                sqlBuilder.append(selectColumnSql);
+                if (index != selectColumns.size() - 1) {
+                    sqlBuilder.append(", ");
+                }
+                index++;
+            }
+        }
+    }
+
+
     protected void buildJoinSql(StringBuilder sqlBuilder, QueryWrapper queryWrapper, List<QueryTable> queryTables) {
         List<Join> joins = CPI.getJoins(queryWrapper);
         if (joins != null && !joins.isEmpty()) {
@@ -17,46 +17,87 @@ package com.mybatisflex.core.dialect;
 
 
 import com.mybatisflex.core.FlexGlobalConfig;
-import com.mybatisflex.core.util.ObjectUtil;
-import org.apache.ibatis.util.MapUtil;
+import org.apache.ibatis.session.Configuration;
 
-import java.util.EnumMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * 方言工厂类，用于创建方言
+ * <p>
+ * 执行 sql 时，方言由 {@link #getDialect(Configuration)} 根据当前 Configuration 的 dbType 确定，
+ * 并由 {@link com.mybatisflex.core.mybatis.FlexProviderSqlSource} 通过参数传递给 SqlProvider，执行过程中不需要使用 ThreadLocal
  */
 public class DialectFactory {
 
     /**
-     * 数据库类型和方言的映射关系，可以通过其读取指定的方言，亦可能通过其扩展其他方言
-     * 比如，在 mybatis-flex 实现的方言中有 bug 或者 有自己的独立实现，可以添加自己的方言实现到
-     * 此 map 中，用于覆盖系统的方言实现
+     * 数据库类型和方言的映射关系，以 DbType 的 ordinal 为下标，可以通过其读取指定的方言，亦可能通过其扩展其他方言
+     * 比如，在 mybatis-flex 实现的方言中有 bug 或者 有自己的独立实现，可以通过 {@link #registerDialect(DbType, IDialect)}
+     * 添加自己的方言实现，用于覆盖系统的方言实现
      */
-    private static Map<DbType, IDialect> dialectMap = new EnumMap<>(DbType.class);
+    private static final AtomicReferenceArray<IDialect> dialects = new AtomicReferenceArray<>(DbType.values().length);
 
     /**
      * 通过设置当前线程的数据库类型，以达到在代码执行时随时切换方言的功能
+     * 只有调用过 {@link #setHintDbType(DbType)} 之后才会读取 ThreadLocal，避免每个线程（尤其是虚拟线程）都创建 ThreadLocalMap
      */
-    private static ThreadLocal<DbType> dbTypeThreadLocal = new ThreadLocal<>();
+    private static final ThreadLocal<DbType> dbTypeThreadLocal = new ThreadLocal<>();
+    private static volatile boolean hintUsed = false;
 
 
     /**
-     * 获取方言
+     * 获取全局默认配置的方言
      *
      * @return IDialect
      */
     public static IDialect getDialect() {
-        DbType dbType = ObjectUtil.requireNonNullElse(dbTypeThreadLocal.get(), FlexGlobalConfig.getDefaultConfig().getDbType());
-        return MapUtil.computeIfAbsent(dialectMap, dbType, DialectFactory::createDialect);
+        DbType dbType = getHintDbType();
+        return getDialect(dbType != null ? dbType : FlexGlobalConfig.getDefaultConfig().getDbType());
+    }
+
+    /**
+     * 获取某个 Configuration（数据源）的方言
+     *
+     * @param configuration mybatis 的 Configuration
+     * @return IDialect
+     */
+    public static IDialect getDialect(Configuration configuration) {
+        DbType dbType = getHintDbType();
+        if (dbType == null) {
+            FlexGlobalConfig globalConfig = configuration.getEnvironment() != null ? FlexGlobalConfig.getConfig(configuration) : null;
+            if (globalConfig == null) {
+                globalConfig = FlexGlobalConfig.getDefaultConfig();
+            }
+            dbType = globalConfig.getDbType();
+        }
+        return getDialect(dbType);
+    }
+
+    /**
+     * 获取指定数据库类型的方言
+     *
+     * @param dbType 数据库类型
+     * @return IDialect
+     */
+    public static IDialect getDialect(DbType dbType) {
+        int index = dbType.ordinal();
+        IDialect dialect = dialects.get(index);
+        if (dialect == null) {
+            //并发创建时以第一个设置成功的为准
+            dialects.compareAndSet(index, null, createDialect(dbType));
+            dialect = dialects.get(index);
+        }
+        return dialect;
     }
 
     /**
      * 设置当前线程的 dbType
      *
      * @param dbType
+     * @deprecated 方言已经根据 Configuration 自动确定，不再需要设置，多数据源时请使用各自的 SqlSessionFactory
      */
+    @Deprecated
     public static void setHintDbType(DbType dbType) {
+        hintUsed = true;
         dbTypeThreadLocal.set(dbType);
     }
 
@@ -66,7 +107,7 @@ public class DialectFactory {
      * @return dbType
      */
     public static DbType getHintDbType() {
-        return dbTypeThreadLocal.get();
+        return hintUsed ? dbTypeThreadLocal.get() : null;
     }
 
 
@@ -74,7 +115,9 @@ public class DialectFactory {
      * 清除当前线程的 dbType
      */
     public static void clearHintDbType() {
-        dbTypeThreadLocal.remove();
+        if (hintUsed) {
+            dbTypeThreadLocal.remove();
+        }
     }
 
 
@@ -85,11 +128,80 @@ public class DialectFactory {
      * @param dialect 方言的实现
      */
     public static void registerDialect(DbType dbType, IDialect dialect) {
-        dialectMap.put(dbType, dialect);
+        dialects.set(dbType.ordinal(), dialect);
     }
 
 
     private static IDialect createDialect(DbType dbType) {
+        CommonsDialectImpl dialect = createCommonsDialect(dbType);
+        dialect.setMaxParameterCount(getMaxParameterCount(dbType));
+        dialect.setCursorFetchSize(getCursorFetchSize(dbType));
+        dialect.setSupportRowValueComparison(isSupportRowValueComparison(dbType));
+        return dialect;
+    }
+
+
+    /**
+     * 是否支持 (a, b) > (?, ?) 的行值比较，不支持时 keyset 分页会展开为 a > ? OR (a = ? AND b > ?)
+     */
+    private static boolean isSupportRowValueComparison(DbType dbType) {
+        switch (dbType) {
+            case MYSQL:
+            case MARIADB:
+            case H2:
+            case POSTGRE_SQL:
+            case SQLITE:
+            case HSQL:
+                return true;
+            default:
+                // oracle、sql server 等不支持行值的大小比较
+                return false;
+        }
+    }
+
+
+    /**
+     * 游标查询时设置给驱动的 fetchSize
+     */
+    private static int getCursorFetchSize(DbType dbType) {
+        switch (dbType) {
+            case MYSQL:
+            case MARIADB:
+                // mysql 驱动只有在 fetchSize 为 Integer.MIN_VALUE 时才会逐行读取，否则会把结果全部加载到内存
+                return Integer.MIN_VALUE;
+            default:
+                // postgresql 等驱动需要在事务中（autoCommit = false）fetchSize 才会生效
+                return 1000;
+        }
+    }
+
+
+    /**
+     * 单条 sql 允许的最大参数数量，批量插入时会根据其自动分批
+     */
+    private static int getMaxParameterCount(DbType dbType) {
+        switch (dbType) {
+            case SQL_SERVER:
+            case SQL_SERVER2005:
+                // sql server 最多支持 2100 个参数
+                return 2000;
+            case SQLITE:
+                // sqlite 3.32 之前的版本最多支持 999 个参数
+                return 999;
+            case MYSQL:
+            case MARIADB:
+            case ORACLE:
+            case ORACLE_12C:
+            case DM:
+                return 65535;
+            default:
+                // postgresql 等驱动最多支持 32767 个参数
+                return 32767;
+        }
+    }
+
+
+    private static CommonsDialectImpl createCommonsDialect(DbType dbType) {
         switch (dbType) {
             case MYSQL:
             case H2:
@@ -104,6 +216,7 @@ public class DialectFactory {
             case CSIIDB:
                 return new CommonsDialectImpl(KeywordWrap.BACKQUOTE, LimitOffsetProcesser.MYSQL);
             case ORACLE:
+                return new OracleDialectImpl(LimitOffsetProcesser.ORACLE);
             case DM:
             case GAUSS:
                 return new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.ORACLE);
@@ -122,6 +235,7 @@ public class DialectFactory {
             case UXDB:
                 return new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.POSTGRESQL);
             case ORACLE_12C:
+                return new OracleDialectImpl(LimitOffsetProcesser.DERBY);
             case FIREBIRD:
                 return new CommonsDialectImpl(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.DERBY);
             case SQL_SERVER:
@@ -25,6 +25,36 @@ public interface IDialect {
 
     String wrap(String keyword);
 
+    /**
+     * 批量插入时，单条 sql 最多可以插入的数据量，需同时满足数据库对参数数量和数据行数的限制
+     * 默认最多 32767 个参数、1000 行，和 {@link CommonsDialectImpl} 的默认配置相同
+     *
+     * @param columnCount 每条数据的参数数量
+     * @return 数据量，最小为 1
+     */
+    default int getInsertBatchSize(int columnCount) {
+        int size = columnCount > 0 ? 32767 / columnCount : 1000;
+        return Math.max(1, Math.min(size, 1000));
+    }
+
+    /**
+     * 游标查询时设置给驱动的 fetchSize，例如 mysql 需要设置为 Integer.MIN_VALUE 才会逐行读取
+     *
+     * @return fetchSize，默认为 1000
+     */
+    default int getCursorFetchSize() {
+        return 1000;
+    }
+
+    /**
+     * 是否支持行值比较，例如：(a, b) > (?, ?)，用于 keyset 分页
+     *
+     * @return true 支持，默认不支持，使用展开的 OR 条件
+     */
+    default boolean isSupportRowValueComparison() {
+        return false;
+    }
+
     String forInsertRow(String tableName, Row row);
 
     String forInsertBatchWithFirstRowColumns(String tableName, List<Row> rows);
@@ -39,6 +69,13 @@ public interface IDialect {
 
     String forUpdateByQuery(String tableName, Row data, QueryWrapper queryWrapper);
 
+    /**
+     * 把多条 updateById 的 sql 用 "; " 拼接在一起
+     *
+     * @deprecated 需要数据库支持一次执行多条 sql（例如 mysql 的 allowMultiQueries=true），
+     * 请使用 {@link com.mybatisflex.core.row.Db#updateBatchById(String, List)}，其通过 JDBC batch 执行，将在下个版本移除
+     */
+    @Deprecated
     String forUpdateBatchById(String tableName, List<Row> rows);
 
     String forSelectOneById(String tableName, String[] primaryKeys, Object[] primaryValues);
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.dialect;
+
+import com.mybatisflex.core.row.Row;
+import com.mybatisflex.core.table.TableInfo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Oracle 方言
+ * Oracle 不支持 INSERT INTO ... VALUES (...), (...) 的批量插入语法，批量插入使用 INSERT ALL 代替
+ * INSERT ALL 中的 seq.nextval 只会计算一次，所以 entity 配置了 onInsertValue 时使用 INSERT INTO ... SELECT 代替
+ */
+public class OracleDialectImpl extends CommonsDialectImpl {
+
+    public OracleDialectImpl() {
+        super(KeywordWrap.DOUBLE_QUOTATION, LimitOffsetProcesser.ORACLE);
+    }
+
+    public OracleDialectImpl(LimitOffsetProcesser limitOffsetProcesser) {
+        super(KeywordWrap.DOUBLE_QUOTATION, limitOffsetProcesser);
+    }
+
+
+    /**
+     * sql: INSERT ALL INTO "tb_table"("name", "sex") VALUES (?, ?) INTO "tb_table"("name", "sex") VALUES (?, ?) SELECT 1 FROM DUAL
+     */
+    @Override
+    public String forInsertBatchWithFirstRowColumns(String tableName, List<Row> rows) {
+        Set<String> attrs = rows.get(0).obtainModifyAttrs();
+        StringJoiner fields = new StringJoiner(", ");
+        for (String attr : attrs) {
+            fields.add(wrap(attr));
+        }
+
+        String intoSql = " INTO " + wrap(tableName) + "(" + fields + ") VALUES " + buildQuestion(attrs.size(), true);
+        StringBuilder sql = new StringBuilder("INSERT ALL");
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(intoSql);
+        }
+        return sql.append(" SELECT 1 FROM DUAL").toString();
+    }
+
+
+    @Override
+    public String forInsertEntityBatch(TableInfo tableInfo, List<Object> entities) {
+        String[] insertColumns = tableInfo.obtainInsertColumns();
+        Map<String, String> onInsertColumns = tableInfo.getOnInsertColumns();
+        if (onInsertColumns != null && !onInsertColumns.isEmpty()) {
+            return forInsertEntityBatchBySelect(tableInfo, entities, insertColumns, onInsertColumns);
+        }
+
+        StringJoiner fields = new StringJoiner(", ");
+        for (String insertColumn : insertColumns) {
+            fields.add(wrap(insertColumn));
+        }
+
+        String intoSql = " INTO " + wrap(tableInfo.getTableName()) + "(" + fields + ") VALUES " + buildQuestion(insertColumns.length, true);
+        StringBuilder sql = new StringBuilder("INSERT ALL");
+        for (int i = 0; i < entities.size(); i++) {
+            sql.append(intoSql);
+        }
+        return sql.append(" SELECT 1 FROM DUAL").toString();
+    }
+
+
+    /**
+     * onInsertValue 的值（例如 seq.nextval）放在外层的 SELECT 中，每一行数据都会重新计算
+     * sql: INSERT INTO "tb_table"("id", "name", "sex") SELECT seq.nextval, C1, C2 FROM (SELECT ? C1, ? C2 FROM DUAL UNION ALL SELECT ?, ? FROM DUAL)
+     */
+    private String forInsertEntityBatchBySelect(TableInfo tableInfo, List<Object> entities, String[] insertColumns, Map<String, String> onInsertColumns) {
+        StringJoiner fields = new StringJoiner(", ");
+        StringJoiner selectValues = new StringJoiner(", ");
+        StringJoiner firstRowValues = new StringJoiner(", ");
+        int paramCount = 0;
+        for (String insertColumn : insertColumns) {
+            fields.add(wrap(insertColumn));
+            if (onInsertColumns.containsKey(insertColumn)) {
+                selectValues.add(onInsertColumns.get(insertColumn));
+            } else {
+                String alias = "C" + (++paramCount);
+                selectValues.add(alias);
+                firstRowValues.add("? " + alias);
+            }
+        }
+
+        String firstRowSql = paramCount == 0 ? "SELECT 1 FROM DUAL" : "SELECT " + firstRowValues + " FROM DUAL";
+        String rowSql = paramCount == 0 ? firstRowSql : "SELECT " + buildQuestion(paramCount, false) + " FROM DUAL";
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ");
+        sql.append(wrap(tableInfo.getTableName())).append("(").append(fields).append(")");
+        sql.append(" SELECT ").append(selectValues).append(" FROM (").append(firstRowSql);
+        for (int i = 1; i < entities.size(); i++) {
+            sql.append(" UNION ALL ").append(rowSql);
+        }
+        return sql.append(")").toString();
+    }
+}
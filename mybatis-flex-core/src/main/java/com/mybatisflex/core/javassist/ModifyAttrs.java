@@ -0,0 +1,280 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.javassist;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 通过位图记录被修改的属性，属性的名称及下标由同一个类的所有实例共享
+ * 不在预先定义的属性中的名称，使用额外的 Set 记录
+ */
+public class ModifyAttrs extends AbstractSet<String> implements Serializable {
+
+    private final Schema schema;
+    private final long[] words;
+    private Set<String> others;
+    private int size;
+
+
+    public ModifyAttrs(Schema schema) {
+        this.schema = schema;
+        this.words = new long[(schema.names.length + 63) >>> 6];
+    }
+
+
+    /**
+     * 标记某个下标的属性被修改了
+     *
+     * @param index 属性在 {@link Schema} 中的下标
+     */
+    public void mark(int index) {
+        long mask = 1L << index;
+        int wordIndex = index >>> 6;
+        if ((words[wordIndex] & mask) == 0) {
+            words[wordIndex] |= mask;
+            size++;
+        }
+    }
+
+
+    /**
+     * 取消某个下标的属性的修改标记
+     *
+     * @param index 属性在 {@link Schema} 中的下标
+     */
+    public void unmark(int index) {
+        long mask = 1L << index;
+        int wordIndex = index >>> 6;
+        if ((words[wordIndex] & mask) != 0) {
+            words[wordIndex] &= ~mask;
+            size--;
+        }
+    }
+
+
+    /**
+     * 是否存在不在 {@link Schema} 中的属性
+     */
+    public boolean hasOthers() {
+        return others != null && !others.isEmpty();
+    }
+
+
+    /**
+     * 某个下标的属性是否被修改了
+     */
+    public boolean isMarked(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+
+    /**
+     * 是否所有的修改都记录在位图中，且和 other 的修改完全相同
+     */
+    public boolean isSameMarks(ModifyAttrs other) {
+        return schema == other.schema && !hasOthers() && !other.hasOthers() && Arrays.equals(words, other.words);
+    }
+
+
+    /**
+     * 只保留 other 中的修改
+     */
+    public void copyMarks(ModifyAttrs other) {
+        clear();
+        if (schema == other.schema) {
+            System.arraycopy(other.words, 0, words, 0, words.length);
+            size = other.size - (other.others != null ? other.others.size() : 0);
+            if (other.others != null) {
+                addAll(other.others);
+            }
+        } else {
+            addAll(other);
+        }
+    }
+
+
+    @Override
+    public boolean add(String name) {
+        int index = schema.indexOf(name);
+        if (index >= 0) {
+            int oldSize = size;
+            mark(index);
+            return size != oldSize;
+        }
+        if (others == null) {
+            others = new LinkedHashSet<>();
+        }
+        if (others.add(name)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+
+    @Override
+    public boolean remove(Object name) {
+        int index = name instanceof String ? schema.indexOf((String) name) : -1;
+        if (index >= 0) {
+            int oldSize = size;
+            unmark(index);
+            return size != oldSize;
+        }
+        if (others != null && others.remove(name)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+
+    @Override
+    public boolean contains(Object name) {
+        int index = name instanceof String ? schema.indexOf((String) name) : -1;
+        if (index >= 0) {
+            return (words[index >>> 6] & (1L << index)) != 0;
+        }
+        return others != null && others.contains(name);
+    }
+
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = 0;
+        }
+        if (others != null) {
+            others.clear();
+        }
+        size = 0;
+    }
+
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int nextIndex = nextMarkedIndex(0);
+            private Iterator<String> othersIterator;
+            private String last;
+            private boolean lastFromOthers;
+
+            @Override
+            public boolean hasNext() {
+                if (nextIndex >= 0) {
+                    return true;
+                }
+                if (othersIterator == null) {
+                    othersIterator = others != null ? others.iterator() : null;
+                }
+                return othersIterator != null && othersIterator.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (nextIndex >= 0) {
+                    last = schema.names[nextIndex];
+                    lastFromOthers = false;
+                    nextIndex = nextMarkedIndex(nextIndex + 1);
+                } else {
+                    last = othersIterator.next();
+                    lastFromOthers = true;
+                }
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                if (lastFromOthers) {
+                    othersIterator.remove();
+                    size--;
+                } else {
+                    ModifyAttrs.this.remove(last);
+                }
+                last = null;
+            }
+        };
+    }
+
+
+    /**
+     * 获取从 fromIndex 开始（包含）的下一个被修改的属性的下标
+     *
+     * @return 没有时返回 -1
+     */
+    public int nextMarkedIndex(int fromIndex) {
+        int wordIndex = fromIndex >>> 6;
+        if (wordIndex >= words.length) {
+            return -1;
+        }
+        long word = words[wordIndex] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == words.length) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+    }
+
+
+    /**
+     * 属性的名称及其下标
+     */
+    public static class Schema implements Serializable {
+
+        private final String[] names;
+        private final Map<String, Integer> indexes;
+
+        public Schema(String[] names) {
+            this.names = names;
+            this.indexes = new HashMap<>(names.length * 2);
+            for (int i = 0; i < names.length; i++) {
+                indexes.put(names[i], i);
+            }
+        }
+
+        public String[] getNames() {
+            return names;
+        }
+
+        public int indexOf(String name) {
+            Integer index = indexes.get(name);
+            return index != null ? index : -1;
+        }
+    }
+}
@@ -26,6 +26,8 @@ public interface ModifyAttrsRecord extends Serializable {
      * 注意：
      * 对于 entity 来说，这里存放的只是 属性的名称，而非字段
      * 对于 row 来说，存放的则是 字段 名称
+     * <p>
+     * {@link ModifyAttrsRecordProxyFactory} 生成的子类会重写该方法，默认实现用于兼容通过 javassist ProxyFactory 创建的代理对象
      */
     default Set<String> getModifyAttrs(){
         ModifyAttrsRecordHandler handler = (ModifyAttrsRecordHandler) ((ProxyObject) this).getHandler();
@@ -24,6 +24,13 @@ import java.util.LinkedHashSet;
 import java.util.Set;
 
 
+/**
+ * javassist ProxyFactory 创建的代理对象使用的 MethodHandler
+ *
+ * @deprecated {@link ModifyAttrsRecordProxyFactory} 已经改为生成 entity 的子类，不再使用代理对象，
+ * 仅用于兼容自行通过 ProxyFactory 创建的代理对象
+ */
+@Deprecated
 public class ModifyAttrsRecordHandler implements MethodHandler {
 
     private Set<String>  modifyAttrs = new LinkedHashSet<>();
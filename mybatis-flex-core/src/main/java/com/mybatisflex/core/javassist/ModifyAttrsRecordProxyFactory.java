@@ -15,49 +15,154 @@
  */
 package com.mybatisflex.core.javassist;
 
-import org.apache.ibatis.javassist.util.proxy.ProxyFactory;
-import org.apache.ibatis.javassist.util.proxy.ProxyObject;
-import org.apache.ibatis.logging.LogFactory;
-
-import java.util.Arrays;
+import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.util.StringUtil;
+import org.apache.ibatis.javassist.ClassClassPath;
+import org.apache.ibatis.javassist.ClassPool;
+import org.apache.ibatis.javassist.CtClass;
+import org.apache.ibatis.javassist.CtConstructor;
+import org.apache.ibatis.javassist.CtField;
+import org.apache.ibatis.javassist.CtMethod;
+import org.apache.ibatis.javassist.CtNewConstructor;
+import org.apache.ibatis.javassist.CtNewMethod;
+import org.apache.ibatis.javassist.Modifier;
+import org.apache.ibatis.util.MapUtil;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
+/**
+ * 为 entity 生成记录修改属性的子类，每个 entity 类只会生成一次
+ * 子类重写了所有的 setter 方法，调用父类的 setter 后通过 {@link ModifyAttrs} 的位图记录被修改的属性，
+ * 其他方法不做任何处理，和普通的 entity 调用一样
+ */
 public class ModifyAttrsRecordProxyFactory {
 
+    public static final String PROXY_CLASS_SUFFIX = "$$FlexModifyAttrs";
+
+    private static final String SCHEMA_FIELD = "_flexSchema";
+    private static final String MODIFY_ATTRS_FIELD = "_flexModifyAttrs";
+
     private static ModifyAttrsRecordProxyFactory instance = new ModifyAttrsRecordProxyFactory();
 
     public static ModifyAttrsRecordProxyFactory getInstance(){
         return instance;
     }
 
+    private final Map<Class<?>, Constructor<?>> proxyConstructors = new ConcurrentHashMap<>();
+
     private ModifyAttrsRecordProxyFactory(){}
 
     public <T> T get(Class<T> target) {
-        ProxyFactory factory = new ProxyFactory();
-        factory.setSuperclass(target);
+        Constructor<?> constructor = MapUtil.computeIfAbsent(proxyConstructors, target, this::createProxyConstructor);
+        try {
+            return (T) constructor.newInstance();
+        } catch (Exception e) {
+            throw FlexExceptions.wrap(e);
+        }
+    }
 
-        Class<?>[] interfaces = Arrays.copyOf(target.getInterfaces(), target.getInterfaces().length + 1);
-        interfaces[interfaces.length - 1] = ModifyAttrsRecord.class;
-        factory.setInterfaces(interfaces);
 
+    /**
+     * 获取对象的实际 entity 类，对于代理对象返回被代理的 entity 类
+     */
+    public static Class<?> getTargetClass(Object object) {
+        Class<?> clazz = object.getClass();
+        return clazz.getName().endsWith(PROXY_CLASS_SUFFIX) ? clazz.getSuperclass() : clazz;
+    }
 
-        final Class<?> proxyClass = factory.createClass();
 
-        T proxyObject = null;
+    private Constructor<?> createProxyConstructor(Class<?> target) {
         try {
-            proxyObject = (T) proxyClass.newInstance();
-            ((ProxyObject) proxyObject).setHandler(new ModifyAttrsRecordHandler());
-        } catch (Throwable e) {
-            LogFactory.getLog(ModifyAttrsRecordProxyFactory.class).error(e.toString(),e);
+            Class<?> proxyClass = createProxyClass(target);
+            return proxyClass.getConstructor();
+        } catch (Exception e) {
+            throw FlexExceptions.wrap(e, "Can not create modify attrs proxy class for: %s", target.getName());
+        }
+    }
+
+
+    private Class<?> createProxyClass(Class<?> target) throws Exception {
+        //属性名称 -> setter 方法，同一个属性可能有多个 setter（重载）
+        Map<String, List<Method>> setterMap = new LinkedHashMap<>();
+        for (Method method : target.getMethods()) {
+            if (isSetter(method)) {
+                String property = StringUtil.firstCharToLowerCase(method.getName().substring(3));
+                setterMap.computeIfAbsent(property, k -> new ArrayList<>()).add(method);
+            }
+        }
+
+        ClassPool pool = new ClassPool(true);
+        pool.insertClassPath(new ClassClassPath(target));
+        pool.insertClassPath(new ClassClassPath(ModifyAttrsRecord.class));
+
+        CtClass ctClass = pool.makeClass(target.getName() + PROXY_CLASS_SUFFIX, pool.get(target.getName()));
+        ctClass.addInterface(pool.get(ModifyAttrsRecord.class.getName()));
+
+        String modifyAttrsClassName = ModifyAttrs.class.getName();
+        ctClass.addField(CtField.make("public static " + modifyAttrsClassName + ".Schema " + SCHEMA_FIELD + ";", ctClass));
+        ctClass.addField(CtField.make("private " + modifyAttrsClassName + " " + MODIFY_ATTRS_FIELD + ";", ctClass));
+
+        //父类构造方法中调用的 setter 不会被记录
+        CtConstructor constructor = CtNewConstructor.make("public " + ctClass.getSimpleName() + "() { super(); "
+                + MODIFY_ATTRS_FIELD + " = new " + modifyAttrsClassName + "(" + SCHEMA_FIELD + "); }", ctClass);
+        ctClass.addConstructor(constructor);
+
+        ctClass.addMethod(CtNewMethod.make("public java.util.Set getModifyAttrs() { return " + MODIFY_ATTRS_FIELD + "; }", ctClass));
+
+        int index = 0;
+        for (List<Method> setters : setterMap.values()) {
+            String mark = "if (" + MODIFY_ATTRS_FIELD + " != null) " + MODIFY_ATTRS_FIELD + ".mark(" + index + ");";
+            for (Method setter : setters) {
+                String body = setter.getReturnType() == void.class
+                        ? "{ super." + setter.getName() + "($$); " + mark + " }"
+                        : "{ " + mark + " return super." + setter.getName() + "($$); }";
+                ctClass.addMethod(CtNewMethod.make(Modifier.PUBLIC, toCtClass(pool, setter.getReturnType()), setter.getName()
+                        , toCtClasses(pool, setter.getParameterTypes()), toCtClasses(pool, setter.getExceptionTypes()), body, ctClass));
+            }
+            index++;
         }
 
-        return proxyObject;
+        Class<?> proxyClass = ctClass.toClass(target);
+        ctClass.detach();
+
+        proxyClass.getField(SCHEMA_FIELD).set(null, new ModifyAttrs.Schema(setterMap.keySet().toArray(new String[0])));
+        return proxyClass;
     }
 
 
+    private static boolean isSetter(Method method) {
+        int modifiers = method.getModifiers();
+        return method.getName().startsWith("set")
+                && method.getName().length() > 3
+                && method.getParameterCount() > 0
+                && !java.lang.reflect.Modifier.isStatic(modifiers)
+                && !java.lang.reflect.Modifier.isFinal(modifiers)
+                && !method.isBridge()
+                && !method.isSynthetic()
+                && method.getDeclaringClass() != Object.class
+                && !method.getDeclaringClass().isInterface();
+    }
+
 
+    private static CtClass toCtClass(ClassPool pool, Class<?> type) throws Exception {
+        return pool.get(type.getTypeName());
+    }
 
-}
 
+    private static CtClass[] toCtClasses(ClassPool pool, Class<?>[] types) throws Exception {
+        CtClass[] ctClasses = new CtClass[types.length];
+        for (int i = 0; i < types.length; i++) {
+            ctClasses[i] = toCtClass(pool, types[i]);
+        }
+        return ctClasses;
+    }
 
 
+}
@@ -19,15 +19,18 @@ public interface IMultiKeyGenerator {
 
     /**
      * 是否需要数据库生成主键
+     * 生成器可能被多个线程同时使用，需根据每次执行的参数来判断，而不能依赖生成器自身保存的状态
      *
+     * @param parameter 执行参数
      * @return true 需要生成主键
      */
-    boolean isNeedGeneratedKeys();
+    boolean isNeedGeneratedKeys(Object parameter);
 
     /**
      * 数据库主键的列名
      *
+     * @param parameter 执行参数
      * @return 列名数组
      */
-    String[] getKeyColumnNames();
+    String[] getKeyColumnNames(Object parameter);
 }
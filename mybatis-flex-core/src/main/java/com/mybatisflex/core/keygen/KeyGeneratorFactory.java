@@ -15,6 +15,7 @@
  */
 package com.mybatisflex.core.keygen;
 
+import com.mybatisflex.core.keygen.impl.SnowflakeKeyGenerator;
 import com.mybatisflex.core.keygen.impl.UUIDKeyGenerator;
 
 import java.util.HashMap;
@@ -22,6 +23,8 @@ import java.util.Map;
 
 public class KeyGeneratorFactory {
 
+    public static final String SNOWFLAKE = "snowflake";
+
     private static final Map<String, IKeyGenerator> KEY_GENERATOR_MAP = new HashMap<>();
     static {
         /** 内置了 uuid 的生成器，因此主键配置的时候可以直接配置为 @Id(keyType = KeyType.Generator, value = "uuid")
@@ -31,6 +34,16 @@ public class KeyGeneratorFactory {
     }
 
 
+    /**
+     * 内置了雪花算法的生成器，主键配置为 @Id(keyType = KeyType.Generator, value = "snowflake")
+     * 默认根据本机 MAC 地址和进程 id 推算 datacenterId 和 workerId，需要枚举网卡，比较耗时，因此延迟到第一次使用时创建
+     * 集群部署时可以通过 register("snowflake", new SnowflakeKeyGenerator(workerId, datacenterId)) 覆盖
+     */
+    private static class SnowflakeHolder {
+        private static final IKeyGenerator INSTANCE = new SnowflakeKeyGenerator();
+    }
+
+
     /**
      * 获取 主键生成器
      *
@@ -38,7 +51,12 @@ public class KeyGeneratorFactory {
      * @return
      */
     public static IKeyGenerator getKeyGenerator(String name) {
-        return KEY_GENERATOR_MAP.get(name.trim());
+        String key = name.trim();
+        IKeyGenerator keyGenerator = KEY_GENERATOR_MAP.get(key);
+        if (keyGenerator == null && SNOWFLAKE.equals(key)) {
+            return SnowflakeHolder.INSTANCE;
+        }
+        return keyGenerator;
     }
 
 
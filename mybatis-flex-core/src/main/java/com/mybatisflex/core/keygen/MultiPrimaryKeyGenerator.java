@@ -72,7 +72,7 @@ public class MultiPrimaryKeyGenerator implements KeyGenerator, IMultiKeyGenerato
      * @return true: need generated keys
      */
     @Override
-    public boolean isNeedGeneratedKeys() {
+    public boolean isNeedGeneratedKeys(Object parameter) {
         for (KeyGenerator keyGenerator : keyGenerators) {
             if (keyGenerator == Jdbc3KeyGenerator.INSTANCE) {
                 return true;
@@ -87,7 +87,7 @@ public class MultiPrimaryKeyGenerator implements KeyGenerator, IMultiKeyGenerato
      * @return keyColumnNames
      */
     @Override
-    public String[] getKeyColumnNames() {
+    public String[] getKeyColumnNames(Object parameter) {
         return autoGenKeyColumnNames;
     }
 
@@ -20,7 +20,6 @@ import com.mybatisflex.annotation.KeyType;
 import com.mybatisflex.core.row.Row;
 import com.mybatisflex.core.row.RowKey;
 import com.mybatisflex.core.util.ArrayUtil;
-import com.mybatisflex.core.util.CollectionUtil;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
@@ -29,21 +28,27 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.session.Configuration;
 
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 为 row 的主键生成器
+ * 当前生成器被 RowMapper.insertRow 等 MappedStatement 共享，可能会被多个线程同时调用，
+ * 因此不能保存任何执行时的状态，每次执行都根据参数中 row 的主键配置获取对应的生成器
  */
 public class RowKeyGenerator implements KeyGenerator, IMultiKeyGenerator {
-    private static KeyGenerator[] NO_KEY_GENERATORS = new KeyGenerator[0];
+    private static final RowKeyGenerators NO_KEY_GENERATORS = new RowKeyGenerators(new KeyGenerator[0], new String[0]);
 
-    private MappedStatement ms;
-    private KeyGenerator[] keyGenerators;
-    private List<String> autoKeyGeneratorNames;
+    private final MappedStatement ms;
+
+    //相同主键配置的 row 使用同一组生成器，无需每次构建
+    private final Map<List<RowKey>, RowKeyGenerators> keyGeneratorsCache = new ConcurrentHashMap<>();
 
     public RowKeyGenerator(MappedStatement methodMappedStatement) {
         this.ms = methodMappedStatement;
@@ -51,9 +56,7 @@ public class RowKeyGenerator implements KeyGenerator, IMultiKeyGenerator {
 
     @Override
     public void processBefore(Executor executor, MappedStatement ms, Statement stmt, Object parameter) {
-        Row row = (Row) ((Map) parameter).get(FlexConsts.ROW);
-        keyGenerators = buildRowKeyGenerators(row.obtainsPrimaryKeys());
-        for (KeyGenerator keyGenerator : keyGenerators) {
+        for (KeyGenerator keyGenerator : getRowKeyGenerators(parameter).keyGenerators) {
             keyGenerator.processBefore(executor, ms, stmt, parameter);
         }
     }
@@ -61,23 +64,33 @@ public class RowKeyGenerator implements KeyGenerator, IMultiKeyGenerator {
 
     @Override
     public void processAfter(Executor executor, MappedStatement ms, Statement stmt, Object parameter) {
-        for (KeyGenerator keyGenerator : keyGenerators) {
+        for (KeyGenerator keyGenerator : getRowKeyGenerators(parameter).keyGenerators) {
             keyGenerator.processAfter(executor, ms, stmt, parameter);
         }
     }
 
 
-    private KeyGenerator[] buildRowKeyGenerators(RowKey[] rowKeys) {
+    private RowKeyGenerators getRowKeyGenerators(Object parameter) {
+        Row row = (Row) ((Map) parameter).get(FlexConsts.ROW);
+        RowKey[] rowKeys = row == null ? null : row.obtainsPrimaryKeys();
         if (ArrayUtil.isEmpty(rowKeys)) {
             return NO_KEY_GENERATORS;
         }
+        return keyGeneratorsCache.computeIfAbsent(Arrays.asList(rowKeys), this::buildRowKeyGenerators);
+    }
 
-        KeyGenerator[] keyGenerators = new KeyGenerator[rowKeys.length];
-        for (int i = 0; i < rowKeys.length; i++) {
-            KeyGenerator keyGenerator = createByRowKey(rowKeys[i]);
-            keyGenerators[i] = keyGenerator;
+
+    private RowKeyGenerators buildRowKeyGenerators(List<RowKey> rowKeys) {
+        KeyGenerator[] keyGenerators = new KeyGenerator[rowKeys.size()];
+        List<String> autoKeyColumnNames = new ArrayList<>();
+        for (int i = 0; i < rowKeys.size(); i++) {
+            RowKey rowKey = rowKeys.get(i);
+            keyGenerators[i] = createByRowKey(rowKey);
+            if (keyGenerators[i] instanceof RowJdbc3KeyGenerator) {
+                autoKeyColumnNames.add(rowKey.getKeyColumn());
+            }
         }
-        return keyGenerators;
+        return new RowKeyGenerators(keyGenerators, autoKeyColumnNames.toArray(new String[0]));
     }
 
 
@@ -87,10 +100,6 @@ public class RowKeyGenerator implements KeyGenerator, IMultiKeyGenerator {
         }
 
         if (rowKey.getKeyType() == KeyType.Auto) {
-            if (autoKeyGeneratorNames == null) {
-                autoKeyGeneratorNames = new ArrayList<>();
-            }
-            autoKeyGeneratorNames.add(rowKey.getKeyColumn());
             return new RowJdbc3KeyGenerator(rowKey.getKeyColumn());
         }
 
@@ -99,36 +108,47 @@ public class RowKeyGenerator implements KeyGenerator, IMultiKeyGenerator {
         }
         //通过数据库的 sequence 生成主键
         else {
-            String selectId = "row." + SelectKeyGenerator.SELECT_KEY_SUFFIX;
-            String sequence = rowKey.getValue();
-            SqlSource sqlSource = ms.getLang().createSqlSource(ms.getConfiguration(), sequence.trim(), Object.class);
-            MappedStatement.Builder msBuilder = new MappedStatement.Builder(ms.getConfiguration(), selectId, sqlSource, SqlCommandType.SELECT)
-                    .resource(ms.getResource())
-                    .fetchSize(null)
-                    .timeout(null)
-                    .statementType(StatementType.PREPARED)
-                    .keyGenerator(NoKeyGenerator.INSTANCE)
-                    .keyProperty(FlexConsts.ROW + "." + rowKey.getKeyColumn())
-//                    .keyColumn(FlexConsts.ROW + "." + rowKey.getKeyColumn())
-                    .keyColumn(rowKey.getKeyColumn())
-                    .databaseId(ms.getDatabaseId())
-                    .lang(ms.getLang())
-                    .resultOrdered(false)
-                    .resultSets(null)
-                    .resultMaps(new ArrayList<>())
-                    .resultSetType(null)
-                    .flushCacheRequired(false)
-                    .useCache(false)
-                    .cache(ms.getCache());
-
-            MappedStatement keyMappedStatement = msBuilder.build();
-            ms.getConfiguration().addMappedStatement(keyMappedStatement);
-
-            //看到有的框架把 keyGenerator 添加到 mybatis 的当前配置里去，其实是完全没必要的
-            //因为只有在 xml 解析的时候，才可能存在多一个 MappedStatement 拥有同一个 keyGenerator 的情况
-            //当前每个方法都拥有一个自己的 keyGenerator 了，没必要添加
-            //this.addKeyGenerator(selectId, keyGenerator);
-            return new SelectKeyGenerator(keyMappedStatement, rowKey.isBefore());
+            String sequence = rowKey.getValue().trim();
+
+            //不同的 sequence 需要使用不同的 MappedStatement，使用完整的 sequence 内容作为 id 的一部分，
+            //不能使用 hashCode，hashCode 相同的两个 sequence 会复用同一个 MappedStatement
+            String selectId = ms.getId() + "." + rowKey.getKeyColumn() + "." + sequence
+                    + SelectKeyGenerator.SELECT_KEY_SUFFIX;
+
+            Configuration configuration = ms.getConfiguration();
+            synchronized (configuration) {
+                if (configuration.hasStatement(selectId, false)) {
+                    return new SelectKeyGenerator(configuration.getMappedStatement(selectId, false), rowKey.isBefore());
+                }
+
+                SqlSource sqlSource = ms.getLang().createSqlSource(configuration, sequence, Object.class);
+                MappedStatement.Builder msBuilder = new MappedStatement.Builder(configuration, selectId, sqlSource, SqlCommandType.SELECT)
+                        .resource(ms.getResource())
+                        .fetchSize(null)
+                        .timeout(null)
+                        .statementType(StatementType.PREPARED)
+                        .keyGenerator(NoKeyGenerator.INSTANCE)
+                        .keyProperty(FlexConsts.ROW + "." + rowKey.getKeyColumn())
+                        .keyColumn(rowKey.getKeyColumn())
+                        .databaseId(ms.getDatabaseId())
+                        .lang(ms.getLang())
+                        .resultOrdered(false)
+                        .resultSets(null)
+                        .resultMaps(new ArrayList<>())
+                        .resultSetType(null)
+                        .flushCacheRequired(false)
+                        .useCache(false)
+                        .cache(ms.getCache());
+
+                MappedStatement keyMappedStatement = msBuilder.build();
+                configuration.addMappedStatement(keyMappedStatement);
+
+                //看到有的框架把 keyGenerator 添加到 mybatis 的当前配置里去，其实是完全没必要的
+                //因为只有在 xml 解析的时候，才可能存在多一个 MappedStatement 拥有同一个 keyGenerator 的情况
+                //当前每个方法都拥有一个自己的 keyGenerator 了，没必要添加
+                //this.addKeyGenerator(selectId, keyGenerator);
+                return new SelectKeyGenerator(keyMappedStatement, rowKey.isBefore());
+            }
         }
 
     }
@@ -136,20 +156,36 @@ public class RowKeyGenerator implements KeyGenerator, IMultiKeyGenerator {
     /**
      * 是否需要数据库生成主键
      *
+     * @param parameter 执行参数
      * @return true 需要生成
      */
     @Override
-    public boolean isNeedGeneratedKeys() {
-        return CollectionUtil.isNotEmpty(autoKeyGeneratorNames);
+    public boolean isNeedGeneratedKeys(Object parameter) {
+        return getRowKeyGenerators(parameter).autoKeyColumnNames.length > 0;
     }
 
     /**
      * 数据库主键定义的 key
      *
+     * @param parameter 执行参数
      * @return key 数组
      */
     @Override
-    public String[] getKeyColumnNames() {
-        return autoKeyGeneratorNames.toArray(new String[0]);
+    public String[] getKeyColumnNames(Object parameter) {
+        return getRowKeyGenerators(parameter).autoKeyColumnNames;
+    }
+
+
+    /**
+     * 某一种主键配置对应的生成器
+     */
+    private static class RowKeyGenerators {
+        private final KeyGenerator[] keyGenerators;
+        private final String[] autoKeyColumnNames;
+
+        RowKeyGenerators(KeyGenerator[] keyGenerators, String[] autoKeyColumnNames) {
+            this.keyGenerators = keyGenerators;
+            this.autoKeyColumnNames = autoKeyColumnNames;
+        }
     }
 }
@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.keygen.impl;
+
+import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.keygen.IKeyGenerator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 号段（hi/lo）模式的主键生成器
+ * 每次通过 UPDATE ... SET max_id = max_id + step 从号段表中预占一段 id，然后在内存中分配，
+ * 当前号段剩余不足 prefetchRatio 时，异步预取下一个号段，批量插入时无需每行都访问数据库
+ * <p>
+ * 号段表结构如下，每个 biz_tag 需要预先插入一行数据：
+ * <pre>
+ * CREATE TABLE flex_id_segment (
+ *     biz_tag VARCHAR(64) NOT NULL PRIMARY KEY,
+ *     max_id  BIGINT      NOT NULL
+ * );
+ * </pre>
+ * 使用：KeyGeneratorFactory.register("orderId", new SegmentKeyGenerator(dataSource, "order"));
+ */
+public class SegmentKeyGenerator implements IKeyGenerator {
+
+    public static final String DEFAULT_TABLE_NAME = "flex_id_segment";
+    public static final int DEFAULT_STEP = 1000;
+    public static final double DEFAULT_PREFETCH_RATIO = 0.2;
+
+    /**
+     * 预取号段的线程，所有号段生成器共用
+     */
+    private static final ExecutorService PREFETCH_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "mybatis-flex-segment-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final DataSource dataSource;
+    private final String bizTag;
+    private final int step;
+    private final long prefetchThreshold;
+
+    private final String updateSql;
+    private final String selectSql;
+
+    private volatile Segment current;
+    private volatile CompletableFuture<Segment> next;
+    private final AtomicBoolean prefetching = new AtomicBoolean(false);
+
+
+    public SegmentKeyGenerator(DataSource dataSource, String bizTag) {
+        this(dataSource, DEFAULT_TABLE_NAME, bizTag, DEFAULT_STEP, DEFAULT_PREFETCH_RATIO);
+    }
+
+    public SegmentKeyGenerator(DataSource dataSource, String bizTag, int step) {
+        this(dataSource, DEFAULT_TABLE_NAME, bizTag, step, DEFAULT_PREFETCH_RATIO);
+    }
+
+    public SegmentKeyGenerator(DataSource dataSource, String tableName, String bizTag, int step, double prefetchRatio) {
+        if (step < 1) {
+            throw FlexExceptions.wrap("step must be greater than 0.");
+        }
+        if (prefetchRatio < 0 || prefetchRatio > 1) {
+            throw FlexExceptions.wrap("prefetchRatio must be between 0 and 1.");
+        }
+        this.dataSource = dataSource;
+        this.bizTag = bizTag;
+        this.step = step;
+        this.prefetchThreshold = (long) (step * prefetchRatio);
+        this.updateSql = "UPDATE " + tableName + " SET max_id = max_id + ? WHERE biz_tag = ?";
+        this.selectSql = "SELECT max_id FROM " + tableName + " WHERE biz_tag = ?";
+    }
+
+
+    @Override
+    public Object generate(Object entity, String keyColumn) {
+        return nextId();
+    }
+
+
+    public long nextId() {
+        while (true) {
+            Segment segment = current;
+            if (segment != null) {
+                long id = segment.value.getAndIncrement();
+                if (id <= segment.maxId) {
+                    if (segment.maxId - id < prefetchThreshold) {
+                        prefetch();
+                    }
+                    return id;
+                }
+            }
+            switchSegment(segment);
+        }
+    }
+
+
+    private void prefetch() {
+        if (next == null && prefetching.compareAndSet(false, true)) {
+            next = CompletableFuture.supplyAsync(this::allocate, PREFETCH_EXECUTOR);
+        }
+    }
+
+
+    private synchronized void switchSegment(Segment exhausted) {
+        //其他线程已经切换过了
+        if (current != exhausted) {
+            return;
+        }
+
+        CompletableFuture<Segment> future = next;
+        Segment segment = null;
+        if (future != null) {
+            try {
+                segment = future.join();
+            } catch (Exception e) {
+                //预取失败时，同步重新获取
+            }
+        }
+
+        current = segment != null ? segment : allocate();
+        next = null;
+        prefetching.set(false);
+    }
+
+
+    /**
+     * 从号段表中获取一个新的号段
+     * 使用独立的连接并立即提交，不参与当前线程的事务，避免事务回滚后号段被重复分配
+     */
+    private Segment allocate() {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                long maxId;
+                try (PreparedStatement update = connection.prepareStatement(updateSql)) {
+                    update.setLong(1, step);
+                    update.setString(2, bizTag);
+                    if (update.executeUpdate() == 0) {
+                        throw FlexExceptions.wrap("Can not find biz_tag \"%s\" in id segment table.", bizTag);
+                    }
+                }
+                try (PreparedStatement select = connection.prepareStatement(selectSql)) {
+                    select.setString(1, bizTag);
+                    try (ResultSet rs = select.executeQuery()) {
+                        rs.next();
+                        maxId = rs.getLong(1);
+                    }
+                }
+                connection.commit();
+                return new Segment(maxId - step + 1, maxId);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw FlexExceptions.wrap(e);
+        }
+    }
+
+
+    public String getBizTag() {
+        return bizTag;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+
+    /**
+     * 号段，可分配的 id 为 [value, maxId]
+     */
+    private static class Segment {
+        private final AtomicLong value;
+        private final long maxId;
+
+        Segment(long start, long maxId) {
+            this.value = new AtomicLong(start);
+            this.maxId = maxId;
+        }
+    }
+}
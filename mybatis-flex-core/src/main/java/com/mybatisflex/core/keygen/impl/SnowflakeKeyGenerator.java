@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.keygen.impl;
+
+import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.keygen.IKeyGenerator;
+
+import java.lang.management.ManagementFactory;
+import java.net.NetworkInterface;
+import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 雪花算法（Snowflake）的主键生成器，生成按时间递增的 64 位 long 类型主键
+ * 结构为：1 位符号位 + 时间戳 + 数据中心 id + 机器 id + 序列号，默认为 41 + 5 + 5 + 12
+ * <p>
+ * 生成过程通过 CAS 实现，无锁；当时钟回拨不超过 maxBackwardMillis 时，继续使用上一次的时间戳生成，
+ * 超过时抛出异常，避免生成重复的主键
+ */
+public class SnowflakeKeyGenerator implements IKeyGenerator {
+
+    /**
+     * 默认的起始时间：2023-01-01 00:00:00 UTC
+     */
+    public static final long DEFAULT_EPOCH = 1672531200000L;
+
+    public static final int DEFAULT_WORKER_ID_BITS = 5;
+    public static final int DEFAULT_DATACENTER_ID_BITS = 5;
+    public static final int DEFAULT_SEQUENCE_BITS = 12;
+    public static final long DEFAULT_MAX_BACKWARD_MILLIS = 5;
+
+    private final long workerId;
+    private final long datacenterId;
+    private final long epoch;
+    private final long maxBackwardMillis;
+
+    private final int sequenceBits;
+    private final long sequenceMask;
+    private final int timestampShift;
+    private final long maxTimestamp;
+    private final long workerBits;
+
+    /**
+     * 高位为上一次生成所用的时间戳（相对于 epoch），低 sequenceBits 位为序列号
+     */
+    private final AtomicLong lastState = new AtomicLong();
+
+
+    /**
+     * 根据本机 MAC 地址和进程 id 推算数据中心 id 和机器 id，多实例部署时建议显式指定
+     */
+    public SnowflakeKeyGenerator() {
+        this(defaultWorkerId(), defaultDatacenterId());
+    }
+
+    public SnowflakeKeyGenerator(long workerId, long datacenterId) {
+        this(workerId, datacenterId, DEFAULT_WORKER_ID_BITS, DEFAULT_DATACENTER_ID_BITS, DEFAULT_SEQUENCE_BITS
+                , DEFAULT_EPOCH, DEFAULT_MAX_BACKWARD_MILLIS);
+    }
+
+    public SnowflakeKeyGenerator(long workerId, long datacenterId, int workerIdBits, int datacenterIdBits, int sequenceBits
+            , long epoch, long maxBackwardMillis) {
+        if (workerIdBits < 0 || datacenterIdBits < 0 || sequenceBits < 1 || workerIdBits + datacenterIdBits + sequenceBits >= 63) {
+            throw FlexExceptions.wrap("workerIdBits + datacenterIdBits + sequenceBits must be less than 63, " +
+                    "and sequenceBits must be greater than 0.");
+        }
+        long maxWorkerId = ~(-1L << workerIdBits);
+        long maxDatacenterId = ~(-1L << datacenterIdBits);
+        if (workerId < 0 || workerId > maxWorkerId) {
+            throw FlexExceptions.wrap("workerId must be between 0 and %s.", maxWorkerId);
+        }
+        if (datacenterId < 0 || datacenterId > maxDatacenterId) {
+            throw FlexExceptions.wrap("datacenterId must be between 0 and %s.", maxDatacenterId);
+        }
+        if (epoch > System.currentTimeMillis()) {
+            throw FlexExceptions.wrap("epoch can not be greater than current time.");
+        }
+
+        //除去符号位后，剩余的位数用于存放时间戳
+        int timestampShift = sequenceBits + workerIdBits + datacenterIdBits;
+        long maxTimestamp = ~(-1L << (63 - timestampShift));
+        if (System.currentTimeMillis() - epoch > maxTimestamp) {
+            throw FlexExceptions.wrap("The timestamp since epoch %s overflows %s bits, please use a later epoch or fewer worker, datacenter and sequence bits."
+                    , epoch, 63 - timestampShift);
+        }
+
+        this.workerId = workerId;
+        this.datacenterId = datacenterId;
+        this.epoch = epoch;
+        this.maxBackwardMillis = Math.max(0, maxBackwardMillis);
+
+        this.sequenceBits = sequenceBits;
+        this.sequenceMask = ~(-1L << sequenceBits);
+        this.timestampShift = timestampShift;
+        this.maxTimestamp = maxTimestamp;
+        this.workerBits = (datacenterId << (sequenceBits + workerIdBits)) | (workerId << sequenceBits);
+    }
+
+
+    @Override
+    public Object generate(Object entity, String keyColumn) {
+        return nextId();
+    }
+
+
+    public long nextId() {
+        while (true) {
+            long state = lastState.get();
+            long lastTimestamp = state >>> sequenceBits;
+            long timestamp = System.currentTimeMillis() - epoch;
+
+            long nextState;
+            if (timestamp > lastTimestamp) {
+                //时间戳超出可用的位数后会覆盖符号位，生成负数或者重复的主键
+                if (timestamp > maxTimestamp) {
+                    throw FlexExceptions.wrap("The timestamp overflows %s bits, refusing to generate id.", 63 - timestampShift);
+                }
+                nextState = timestamp << sequenceBits;
+            } else {
+                //时钟回拨过多
+                if (lastTimestamp - timestamp > maxBackwardMillis) {
+                    throw FlexExceptions.wrap("Clock moved backwards by %s ms, refusing to generate id.", lastTimestamp - timestamp);
+                }
+                //当前毫秒（或回拨期间沿用的毫秒）内的序列号已用完，等待时钟走到下一毫秒
+                if ((state & sequenceMask) == sequenceMask) {
+                    Thread.yield();
+                    continue;
+                }
+                nextState = state + 1;
+            }
+
+            if (lastState.compareAndSet(state, nextState)) {
+                return ((nextState >>> sequenceBits) << timestampShift) | workerBits | (nextState & sequenceMask);
+            }
+        }
+    }
+
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    public long getDatacenterId() {
+        return datacenterId;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+
+    private static long defaultDatacenterId() {
+        try {
+            Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+            while (interfaces != null && interfaces.hasMoreElements()) {
+                byte[] mac = interfaces.nextElement().getHardwareAddress();
+                if (mac != null && mac.length > 1) {
+                    long id = ((0x000000FF & (long) mac[mac.length - 2]) | (0x0000FF00 & (((long) mac[mac.length - 1]) << 8))) >> 6;
+                    return id % (~(-1L << DEFAULT_DATACENTER_ID_BITS) + 1);
+                }
+            }
+        } catch (Exception e) {
+            //ignore
+        }
+        return 1L;
+    }
+
+
+    private static long defaultWorkerId() {
+        String jvmName = ManagementFactory.getRuntimeMXBean().getName();
+        return (jvmName.hashCode() & 0xffff) % (~(-1L << DEFAULT_WORKER_ID_BITS) + 1);
+    }
+}
@@ -15,8 +15,9 @@
  */
 package com.mybatisflex.core.mask;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * 数据脱敏工厂类
@@ -27,7 +28,7 @@ public class MaskFactory {
     /**
      * 脱敏处理器，type : processer
      */
-    private static Map<String, MaskProcesser> processerMap = new HashMap<>();
+    private static final Map<String, MaskProcesser> processerMap = new ConcurrentHashMap<>();
 
 
     static {
@@ -54,12 +55,18 @@ public class MaskFactory {
     }
 
 
-    private static ThreadLocal<Boolean> skipFlags = new ThreadLocal<>();
+    /**
+     * 只有调用过 {@link #skipMask()} 之后才会读取 ThreadLocal，
+     * 避免每个读取脱敏字段的线程（尤其是虚拟线程）都创建 ThreadLocalMap
+     */
+    private static final ThreadLocal<Boolean> skipFlags = new ThreadLocal<>();
+    private static volatile boolean skipUsed = false;
 
     /**
      * 跳过脱敏处理
      */
     public static void skipMask() {
+        skipUsed = true;
         skipFlags.set(Boolean.TRUE);
     }
 
@@ -68,13 +75,38 @@ public class MaskFactory {
      * 恢复脱敏处理
      */
     public static void restoreMask() {
-        skipFlags.remove();
+        if (skipUsed) {
+            skipFlags.remove();
+        }
+    }
+
+
+    /**
+     * 在不脱敏的情况下执行，执行完毕后恢复到执行之前的状态，可以嵌套使用
+     *
+     * @param supplier 执行的方法
+     * @return supplier 的返回结果
+     */
+    public static <T> T withoutMask(Supplier<T> supplier) {
+        if (isSkipMask()) {
+            return supplier.get();
+        }
+        skipMask();
+        try {
+            return supplier.get();
+        } finally {
+            restoreMask();
+        }
+    }
+
+
+    private static boolean isSkipMask() {
+        return skipUsed && skipFlags.get() == Boolean.TRUE;
     }
 
 
     public static Object mask(String type, Object data) {
-        Boolean skipMask = skipFlags.get();
-        if (skipMask != null && skipMask) {
+        if (isSkipMask()) {
             return data;
         }
 
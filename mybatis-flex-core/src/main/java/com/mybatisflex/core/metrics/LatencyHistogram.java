@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的耗时直方图，单位为微秒
+ * 与 HdrHistogram 类似，按 2 的幂次分段，每段再等分为 16 个桶，统计值的相对误差不超过 1/16，
+ * 记录时只有一次 AtomicLongArray 的自增，不需要加锁，也不会因为记录次数的增加而占用更多的内存
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    //最大可以记录 2^40 微秒（约 12 天），超出的值记录在最后一个桶中
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时，单位：纳秒
+     */
+    public void record(long nanos) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), MAX_VALUE);
+        buckets.incrementAndGet(indexOf(micros));
+        count.increment();
+        total.add(micros);
+
+        long current;
+        while (micros > (current = max.get()) && !max.compareAndSet(current, micros)) {
+            //CAS 失败说明其他线程更新了 max，重新比较即可
+        }
+    }
+
+
+    public long getCount() {
+        return count.sum();
+    }
+
+
+    /**
+     * 总耗时，单位：微秒
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+
+    /**
+     * 平均耗时，单位：微秒
+     */
+    public double getMean() {
+        long c = count.sum();
+        return c == 0 ? 0 : (double) total.sum() / c;
+    }
+
+
+    /**
+     * 最大耗时，单位：微秒
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+
+    /**
+     * 获取百分位的耗时，例如 getPercentile(99) 即为 p99
+     *
+     * @param percentile 0 ~ 100
+     * @return 耗时，单位：微秒，没有任何记录时返回 0
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long recorded = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            recorded += (snapshot[i] = buckets.get(i));
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * recorded));
+        long accumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            accumulated += snapshot[i];
+            if (accumulated >= target) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowest = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.metrics;
+
+import org.apache.ibatis.transaction.Transaction;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 记录第一次获取连接（即从数据源获取连接）耗时的 Transaction，
+ * 开启 StatementMetrics 时由 {@link com.mybatisflex.core.mybatis.FlexConfiguration#newExecutor} 创建
+ */
+public class MetricsTransaction implements Transaction {
+
+    private final Transaction delegate;
+    private boolean acquired;
+
+    public MetricsTransaction(Transaction delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (acquired) {
+            return delegate.getConnection();
+        }
+        long start = System.nanoTime();
+        Connection connection = delegate.getConnection();
+        acquired = true;
+        StatementMetrics.recordConnectionAcquire(System.nanoTime() - start);
+        return connection;
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        delegate.commit();
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        delegate.rollback();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        acquired = false;
+        delegate.close();
+    }
+
+    @Override
+    public Integer getTimeout() throws SQLException {
+        return delegate.getTimeout();
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.metrics;
+
+/**
+ * sql 指纹，用于把只有参数不同的 sql 归为同一类进行统计
+ * 合并连续的空白字符，把字符串、数字常量替换为 ?，把 (?, ?, ?) 这样的参数列表合并为 (?)，
+ * 并把批量插入的 (?), (?) 合并为 (?)
+ */
+public class SqlFingerprint {
+
+    private SqlFingerprint() {
+    }
+
+
+    public static String of(String sql) {
+        if (sql == null) {
+            return null;
+        }
+
+        int length = sql.length();
+        StringBuilder sb = new StringBuilder(length);
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+                i++;
+            } else if (c == '\'') {
+                i = skipString(sql, i + 1);
+                appendPlaceholder(sb, pendingSpace);
+                pendingSpace = false;
+            } else if (c == '?' || (Character.isDigit(c) && !isIdentifierEnd(sb, pendingSpace))) {
+                i++;
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                appendPlaceholder(sb, pendingSpace);
+                pendingSpace = false;
+            } else {
+                if (pendingSpace) {
+                    sb.append(' ');
+                    pendingSpace = false;
+                }
+                sb.append(c);
+                i++;
+                if (c == ')') {
+                    mergeRepeatedGroup(sb);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+
+    private static int skipString(String sql, int from) {
+        int length = sql.length();
+        int i = from;
+        while (i < length) {
+            if (sql.charAt(i) == '\'') {
+                //'' 为字符串中的单引号转义
+                if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+
+    /**
+     * 追加 ?，若前面是 "?," 或者 "?, " 则合并到前一个 ?
+     */
+    private static void appendPlaceholder(StringBuilder sb, boolean pendingSpace) {
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ',') {
+            int prev = end - 2;
+            while (prev >= 0 && sb.charAt(prev) == ' ') {
+                prev--;
+            }
+            if (prev >= 0 && sb.charAt(prev) == '?') {
+                sb.setLength(prev + 1);
+                return;
+            }
+        }
+        if (pendingSpace) {
+            sb.append(' ');
+        }
+        sb.append('?');
+    }
+
+
+    private static void mergeRepeatedGroup(StringBuilder sb) {
+        int end = sb.length();
+        if (end >= 8 && "(?), (?)".contentEquals(sb.subSequence(end - 8, end))) {
+            sb.setLength(end - 5);
+        } else if (end >= 7 && "(?),(?)".contentEquals(sb.subSequence(end - 7, end))) {
+            sb.setLength(end - 4);
+        }
+    }
+
+
+    private static boolean isIdentifierEnd(StringBuilder sb, boolean pendingSpace) {
+        if (pendingSpace || sb.length() == 0) {
+            return false;
+        }
+        char c = sb.charAt(sb.length() - 1);
+        return Character.isLetterOrDigit(c) || c == '_' || c == '`' || c == '"' || c == '$';
+    }
+}
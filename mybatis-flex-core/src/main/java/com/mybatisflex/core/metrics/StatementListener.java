@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.metrics;
+
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * sql 执行的监听，通过 {@link StatementMetrics#addListener(StatementListener)} 注册，
+ * 用于把 StatementMetrics 记录的数据同步到外部的监控系统（例如 Micrometer）
+ * 监听方法在执行 sql 的线程中同步调用，不应该有耗时的操作
+ */
+public interface StatementListener {
+
+    /**
+     * 一条 sql 执行完成，耗时单位均为纳秒
+     */
+    void onStatement(MappedStatement ms, long prepareNanos, long executeNanos, long fetchNanos, long rows);
+
+
+    /**
+     * 批量执行（ExecutorType.BATCH）flush 了一批数据
+     *
+     * @param batchSize 这一批 sql 的参数数量
+     */
+    default void onBatch(MappedStatement ms, int batchSize) {
+    }
+
+
+    /**
+     * 从数据源获取到了数据库连接
+     *
+     * @param nanos 获取连接的耗时，单位：纳秒
+     */
+    default void onConnectionAcquire(long nanos) {
+    }
+}
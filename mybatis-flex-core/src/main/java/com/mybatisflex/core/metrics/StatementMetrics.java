@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.metrics;
+
+import com.mybatisflex.core.FlexConsts;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * sql 执行的统计，按 MappedStatement 的 id 以及 sql 指纹分别记录 prepare、execute、fetch 的耗时和行数，
+ * 由 {@link com.mybatisflex.core.mybatis.FlexPreparedStatementHandler} 进行记录，
+ * 同时记录批量执行的数量以及获取数据库连接的耗时，并通知给注册的 {@link StatementListener}
+ * 默认关闭，通过 {@link #setEnable(boolean)} 开启，关闭时执行 sql 不会有任何额外的开销
+ */
+public class StatementMetrics {
+
+    private static final Log log = LogFactory.getLog(StatementMetrics.class);
+
+    private static final Map<String, StatementStats> statementStats = new ConcurrentHashMap<>();
+    private static final Map<String, StatementStats> sqlStats = new ConcurrentHashMap<>();
+    private static final LatencyHistogram connectionAcquire = new LatencyHistogram();
+    private static final List<StatementListener> listeners = new CopyOnWriteArrayList<>();
+
+    private static volatile boolean enable = false;
+
+    //慢 sql 的阈值，单位：毫秒，小于等于 0 时不输出慢 sql 日志
+    private static volatile long slowSqlThreshold = 0;
+
+    //最多统计的 sql 指纹数量，避免动态拼接常量的 sql 导致内存无限增长
+    private static volatile int maxSqlFingerprints = 1000;
+
+    private StatementMetrics() {
+    }
+
+
+    public static boolean isEnable() {
+        return enable;
+    }
+
+    public static void setEnable(boolean enable) {
+        StatementMetrics.enable = enable;
+    }
+
+    public static long getSlowSqlThreshold() {
+        return slowSqlThreshold;
+    }
+
+    public static void setSlowSqlThreshold(long slowSqlThreshold) {
+        StatementMetrics.slowSqlThreshold = slowSqlThreshold;
+    }
+
+    public static int getMaxSqlFingerprints() {
+        return maxSqlFingerprints;
+    }
+
+    public static void setMaxSqlFingerprints(int maxSqlFingerprints) {
+        StatementMetrics.maxSqlFingerprints = maxSqlFingerprints;
+    }
+
+
+    public static void addListener(StatementListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(StatementListener listener) {
+        listeners.remove(listener);
+    }
+
+
+    /**
+     * 记录一次 sql 执行
+     *
+     * @param ms           MappedStatement
+     * @param boundSql     执行的 sql 以及参数
+     * @param prepareNanos 创建 PreparedStatement 及设置参数的耗时
+     * @param executeNanos 执行 sql 的耗时
+     * @param fetchNanos   读取结果集的耗时
+     * @param rows         返回或者影响的行数
+     */
+    public static void record(MappedStatement ms, BoundSql boundSql, long prepareNanos, long executeNanos, long fetchNanos, long rows) {
+        long threshold = slowSqlThreshold;
+        long totalNanos = prepareNanos + executeNanos + fetchNanos;
+        boolean slow = threshold > 0 && totalNanos >= TimeUnit.MILLISECONDS.toNanos(threshold);
+
+        statementStats.computeIfAbsent(ms.getId(), StatementStats::new)
+                .record(prepareNanos, executeNanos, fetchNanos, rows, slow);
+
+        String fingerprint = SqlFingerprint.of(boundSql.getSql());
+        StatementStats stats = sqlStats.get(fingerprint);
+        if (stats == null && sqlStats.size() < maxSqlFingerprints) {
+            stats = sqlStats.computeIfAbsent(fingerprint, StatementStats::new);
+        }
+        if (stats != null) {
+            stats.record(prepareNanos, executeNanos, fetchNanos, rows, slow);
+        }
+
+        for (StatementListener listener : listeners) {
+            listener.onStatement(ms, prepareNanos, executeNanos, fetchNanos, rows);
+        }
+
+        if (slow) {
+            log.warn("Slow sql: " + ms.getId()
+                    + " took " + TimeUnit.NANOSECONDS.toMillis(totalNanos) + "ms"
+                    + " (prepare: " + TimeUnit.NANOSECONDS.toMicros(prepareNanos) + "µs"
+                    + ", execute: " + TimeUnit.NANOSECONDS.toMicros(executeNanos) + "µs"
+                    + ", fetch: " + TimeUnit.NANOSECONDS.toMicros(fetchNanos) + "µs"
+                    + ", rows: " + rows + ")"
+                    + "\n  sql: " + boundSql.getSql().trim()
+                    + "\n  args: " + Arrays.toString(getArgs(ms.getConfiguration(), boundSql)));
+        }
+    }
+
+
+    /**
+     * 记录批量执行 flush 的结果
+     *
+     * @param batchResults {@link org.apache.ibatis.session.SqlSession#flushStatements()} 的返回结果
+     */
+    public static void recordBatch(List<BatchResult> batchResults) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        for (BatchResult batchResult : batchResults) {
+            for (StatementListener listener : listeners) {
+                listener.onBatch(batchResult.getMappedStatement(), batchResult.getParameterObjects().size());
+            }
+        }
+    }
+
+
+    /**
+     * 记录从数据源获取连接的耗时
+     */
+    public static void recordConnectionAcquire(long nanos) {
+        connectionAcquire.record(nanos);
+        for (StatementListener listener : listeners) {
+            listener.onConnectionAcquire(nanos);
+        }
+    }
+
+
+    /**
+     * 获取数据库连接的耗时
+     */
+    public static LatencyHistogram getConnectionAcquire() {
+        return connectionAcquire;
+    }
+
+
+    /**
+     * 按 MappedStatement 的 id 统计的数据
+     */
+    public static Collection<StatementStats> getStatementStats() {
+        return Collections.unmodifiableCollection(statementStats.values());
+    }
+
+
+    /**
+     * 按 sql 指纹统计的数据
+     */
+    public static Collection<StatementStats> getSqlStats() {
+        return Collections.unmodifiableCollection(sqlStats.values());
+    }
+
+
+    /**
+     * p99 耗时最高的前 N 个 MappedStatement
+     */
+    public static List<StatementStats> topStatementsByP99(int n) {
+        return topByP99(statementStats.values(), n);
+    }
+
+
+    /**
+     * p99 耗时最高的前 N 个 sql 指纹
+     */
+    public static List<StatementStats> topSqlByP99(int n) {
+        return topByP99(sqlStats.values(), n);
+    }
+
+
+    public static void reset() {
+        statementStats.clear();
+        sqlStats.clear();
+        connectionAcquire.reset();
+    }
+
+
+    private static List<StatementStats> topByP99(Collection<StatementStats> values, int n) {
+        //先计算好每个统计的 p99，避免排序比较时重复计算
+        Map<StatementStats, Long> p99s = new IdentityHashMap<>(values.size());
+        for (StatementStats stats : values) {
+            p99s.put(stats, stats.getTotal().getPercentile(99));
+        }
+
+        List<StatementStats> result = new ArrayList<>(p99s.keySet());
+        result.sort((o1, o2) -> Long.compare(p99s.get(o2), p99s.get(o1)));
+        return result.size() > n ? new ArrayList<>(result.subList(0, Math.max(n, 0))) : result;
+    }
+
+
+    /**
+     * 获取 sql 的参数，MyBatis-Flex 生成的 sql 参数在 {@link FlexConsts#SQL_ARGS} 中，
+     * 其他的 sql 与 {@link org.apache.ibatis.scripting.defaults.DefaultParameterHandler} 的取值方式一致
+     */
+    private static Object[] getArgs(Configuration configuration, BoundSql boundSql) {
+        Object parameterObject = boundSql.getParameterObject();
+        if (parameterObject instanceof Map && ((Map<?, ?>) parameterObject).containsKey(FlexConsts.SQL_ARGS)) {
+            Object sqlArgs = ((Map<?, ?>) parameterObject).get(FlexConsts.SQL_ARGS);
+            if (sqlArgs instanceof Object[] && ((Object[]) sqlArgs).length > 0) {
+                return (Object[]) sqlArgs;
+            }
+        }
+
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        Object[] args = new Object[parameterMappings.size()];
+        MetaObject metaObject = null;
+        for (int i = 0; i < args.length; i++) {
+            String property = parameterMappings.get(i).getProperty();
+            if (boundSql.hasAdditionalParameter(property)) {
+                args[i] = boundSql.getAdditionalParameter(property);
+            } else if (parameterObject == null) {
+                args[i] = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                args[i] = parameterObject;
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameterObject);
+                }
+                args[i] = metaObject.getValue(property);
+            }
+        }
+        return args;
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个 MappedStatement 或者单个 sql 指纹的执行统计
+ * prepare：创建 PreparedStatement 并设置参数；execute：执行 sql；fetch：读取并映射结果集
+ */
+public class StatementStats {
+
+    private final String key;
+
+    private final LatencyHistogram prepare = new LatencyHistogram();
+    private final LatencyHistogram execute = new LatencyHistogram();
+    private final LatencyHistogram fetch = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder slowCount = new LongAdder();
+
+    public StatementStats(String key) {
+        this.key = key;
+    }
+
+
+    void record(long prepareNanos, long executeNanos, long fetchNanos, long rowCount, boolean slow) {
+        prepare.record(prepareNanos);
+        execute.record(executeNanos);
+        fetch.record(fetchNanos);
+        total.record(prepareNanos + executeNanos + fetchNanos);
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+        if (slow) {
+            slowCount.increment();
+        }
+    }
+
+
+    /**
+     * MappedStatement 的 id 或者 sql 指纹
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return total.getCount();
+    }
+
+    public LatencyHistogram getPrepare() {
+        return prepare;
+    }
+
+    public LatencyHistogram getExecute() {
+        return execute;
+    }
+
+    public LatencyHistogram getFetch() {
+        return fetch;
+    }
+
+    public LatencyHistogram getTotal() {
+        return total;
+    }
+
+    /**
+     * 查询返回的行数或者更新影响的行数之和
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getSlowCount() {
+        return slowCount.sum();
+    }
+
+    public void reset() {
+        prepare.reset();
+        execute.reset();
+        fetch.reset();
+        total.reset();
+        rows.reset();
+        slowCount.reset();
+    }
+
+
+    @Override
+    public String toString() {
+        return key + " [count=" + getCount()
+                + ", p50=" + total.getPercentile(50) + "µs"
+                + ", p99=" + total.getPercentile(99) + "µs"
+                + ", max=" + total.getMax() + "µs"
+                + ", prepareP99=" + prepare.getPercentile(99) + "µs"
+                + ", executeP99=" + execute.getPercentile(99) + "µs"
+                + ", fetchP99=" + fetch.getPercentile(99) + "µs"
+                + ", rows=" + getRows()
+                + ", slow=" + getSlowCount() + "]";
+    }
+}
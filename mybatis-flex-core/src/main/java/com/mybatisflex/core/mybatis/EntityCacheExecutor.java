@@ -0,0 +1,381 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.mybatis;
+
+import com.mybatisflex.core.BaseMapper;
+import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.cache.CacheSynchronizer;
+import com.mybatisflex.core.cache.EntityCache;
+import com.mybatisflex.core.cache.EntityCacheFactory;
+import com.mybatisflex.core.cache.RowQueryCache;
+import com.mybatisflex.core.row.RowMapper;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfos;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实体缓存的 Executor，参考 {@link org.apache.ibatis.executor.CachingExecutor}
+ * <p>
+ * 1. BaseMapper.selectOneById 优先从实体缓存中获取数据
+ * 2. BaseMapper 的 update、deleteById、deleteBatchByIds 清除对应数据的缓存，updateByQuery、deleteByQuery 清除整个表的缓存
+ * 3. RowMapper（Db）的修改清除整个表的缓存，原生 sql 以及其他无法识别的修改清除 sql 中解析到的表的缓存，解析不到时清除所有的缓存
+ * 4. 任何修改（包括 insert）都会清除修改的表在 {@link RowQueryCache} 中的缓存
+ * <p>
+ * 修改表时通过 {@link CacheSynchronizer} 标记该表正在被修改，在事务结束之前任何线程都不能把该表的数据放入缓存，
+ * 当前事务也不再读取该表的缓存；事务结束后（Spring 中为事务真正提交或回滚之后）解除标记，并再次清除修改过的数据的缓存
+ * <p>
+ * 只有开启了实体缓存或者存在查询缓存时，{@link FlexConfiguration} 才会使用 EntityCacheExecutor
+ */
+public class EntityCacheExecutor extends DelegatingExecutor {
+
+    private static final Map<String, CacheStatement> statements = new ConcurrentHashMap<>();
+
+    //当前事务中修改过的表，经过 CacheSynchronizer.normalizeTableName 处理
+    private final Set<String> modifiedTables = new HashSet<>();
+
+    //当前事务中修改过的数据，value 为 null 时表示整个表
+    private final Map<EntityCache, List<Object[]>> modifiedCaches = new HashMap<>();
+
+    //当前 Executor 所属的 environment，实体缓存和 RowQueryCache 都按照 environment 区分
+    private final String environmentId;
+
+    public EntityCacheExecutor(Executor delegate, String environmentId) {
+        super(delegate);
+        this.environmentId = environmentId;
+    }
+
+
+    @Override
+    public int update(MappedStatement ms, Object parameter) throws SQLException {
+        invalidate(ms, getCacheStatement(ms), parameter);
+        return delegate.update(ms, parameter);
+    }
+
+
+    @Override
+    public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
+        if (!ms.getId().endsWith(".selectOneById") || resultHandler != Executor.NO_RESULT_HANDLER
+                || !(parameter instanceof Map)) {
+            return delegate.query(ms, parameter, rowBounds, resultHandler);
+        }
+
+        CacheStatement statement = getCacheStatement(ms);
+        EntityCache cache = statement.type == CacheStatement.SELECT_ONE_BY_ID ? EntityCacheFactory.getCache(environmentId, statement.tableInfo) : null;
+        if (cache == null || modifiedTables.contains(CacheSynchronizer.ALL_TABLES)
+                || modifiedTables.contains(cache.getTableName())) {
+            return delegate.query(ms, parameter, rowBounds, resultHandler);
+        }
+
+        Object[] pkValues = toPkValues(((Map<?, ?>) parameter).get(FlexConsts.PRIMARY_VALUE));
+        Object entity = cache.get(pkValues);
+        if (entity != null) {
+            List<E> result = new ArrayList<>(1);
+            result.add((E) entity);
+            return result;
+        }
+
+        long version = cache.getVersion();
+        List<E> result = delegate.query(ms, parameter, rowBounds, resultHandler);
+        if (result.size() == 1 && result.get(0) != null) {
+            cache.put(pkValues, result.get(0), version);
+        }
+        return result;
+    }
+
+
+    @Override
+    public void commit(boolean required) throws SQLException {
+        try {
+            delegate.commit(required);
+        } finally {
+            finishModify();
+        }
+    }
+
+
+    @Override
+    public void rollback(boolean required) throws SQLException {
+        try {
+            delegate.rollback(required);
+        } finally {
+            finishModify();
+        }
+    }
+
+
+    @Override
+    public void close(boolean forceRollback) {
+        try {
+            delegate.close(forceRollback);
+        } finally {
+            finishModify();
+        }
+    }
+
+
+    private void invalidate(MappedStatement ms, CacheStatement statement, Object parameter) {
+        if (statement.type == CacheStatement.NONE) {
+            return;
+        }
+        Map<?, ?> params = parameter instanceof Map ? (Map<?, ?>) parameter : null;
+        switch (statement.type) {
+            case CacheStatement.INSERT:
+                modifyTable(statement.tableInfo.getTableName());
+                return;
+            case CacheStatement.UPDATE:
+            case CacheStatement.DELETE_BY_IDS:
+            case CacheStatement.UPDATE_BY_QUERY:
+                modifyTable(statement.tableInfo.getTableName());
+                EntityCache cache = EntityCacheFactory.getCache(environmentId, statement.tableInfo);
+                if (cache == null) {
+                    return;
+                }
+                if (params == null || statement.type == CacheStatement.UPDATE_BY_QUERY) {
+                    invalidateTable(cache);
+                } else if (statement.type == CacheStatement.UPDATE) {
+                    Object entity = params.get(FlexConsts.ENTITY);
+                    if (entity == null) {
+                        return;
+                    }
+                    invalidate(cache, cache.getPkValues(entity));
+                } else {
+                    Object ids = params.get(FlexConsts.PRIMARY_VALUE);
+                    if (ids instanceof Collection && statement.tableInfo.getPrimaryKeyList().size() == 1) {
+                        for (Object id : (Collection<?>) ids) {
+                            invalidate(cache, new Object[]{id});
+                        }
+                    } else if (ids instanceof Collection) {
+                        //联合主键的批量删除
+                        invalidateTable(cache);
+                    } else {
+                        invalidate(cache, toPkValues(ids));
+                    }
+                }
+                return;
+            case CacheStatement.ROW_INSERT:
+            case CacheStatement.ROW:
+                String tableName = params == null ? null : (String) params.get(FlexConsts.TABLE_NAME);
+                if (tableName == null) {
+                    modifyAll();
+                } else if (statement.type == CacheStatement.ROW_INSERT) {
+                    modifyTable(tableName);
+                } else {
+                    modifyTableAndCache(tableName);
+                }
+                return;
+            case CacheStatement.SQL:
+                modifyTables(params == null ? null : RowQueryCache.parseTables((String) params.get(FlexConsts.SQL)));
+                return;
+            default:
+                //有查询缓存时才解析 sql，否则直接清除所有实体的缓存
+                modifyTables(RowQueryCache.hasCaches() ? RowQueryCache.parseTables(ms.getBoundSql(parameter).getSql()) : null);
+        }
+    }
+
+
+    /**
+     * 标记当前事务修改了某个表，每个事务中只标记一次，并清除该表的查询缓存
+     * 标记之后，事务结束之前该表不会再放入查询缓存，因此只需在第一次标记时清除
+     */
+    private void modifyTable(String tableName) {
+        String table = CacheSynchronizer.normalizeTableName(tableName);
+        if (modifiedTables.add(table)) {
+            CacheSynchronizer.beginModify(table);
+            RowQueryCache.evictTables(environmentId, Collections.singletonList(table));
+        }
+    }
+
+
+    private void modifyTableAndCache(String tableName) {
+        modifyTable(tableName);
+        EntityCache cache = EntityCacheFactory.getCache(environmentId, tableName);
+        if (cache != null) {
+            invalidateTable(cache);
+        }
+    }
+
+
+    /**
+     * @param tables 原生 sql 中解析到的表，为 null 时表示修改了所有的表
+     */
+    private void modifyTables(Set<String> tables) {
+        if (tables == null) {
+            modifyAll();
+        } else {
+            tables.forEach(this::modifyTableAndCache);
+        }
+    }
+
+
+    private void modifyAll() {
+        modifyTable(CacheSynchronizer.ALL_TABLES);
+        EntityCacheFactory.clearAll(environmentId);
+    }
+
+
+    private void invalidate(EntityCache cache, Object[] pkValues) {
+        cache.invalidate(pkValues);
+        if (!modifiedCaches.containsKey(cache)) {
+            modifiedCaches.put(cache, new ArrayList<>());
+        }
+        List<Object[]> modifiedPkValues = modifiedCaches.get(cache);
+        if (modifiedPkValues != null) {
+            modifiedPkValues.add(pkValues);
+        }
+    }
+
+
+    private void invalidateTable(EntityCache cache) {
+        cache.clear();
+        modifiedCaches.put(cache, null);
+    }
+
+
+    /**
+     * 事务结束后，解除修改表的标记，并再次清除当前事务修改过的数据，避免其他线程在事务提交之前把旧的数据放入了缓存
+     * 在 Spring 事务中，SqlSession 的 commit 和 close 早于事务的提交，此时通过 {@link CacheSynchronizer} 延迟到事务结束之后执行
+     */
+    private void finishModify() {
+        if (modifiedTables.isEmpty()) {
+            return;
+        }
+
+        List<String> tables = new ArrayList<>(modifiedTables);
+        Map<EntityCache, List<Object[]>> caches = new HashMap<>(modifiedCaches);
+        modifiedTables.clear();
+        modifiedCaches.clear();
+
+        CacheSynchronizer.runAfterCompletion(() -> {
+            //先解除标记再清除缓存，解除标记之前已经开始的查询，其结果会因为缓存版本号的变化而不能放入缓存
+            tables.forEach(CacheSynchronizer::endModify);
+            RowQueryCache.evictTables(environmentId, tables);
+            if (tables.contains(CacheSynchronizer.ALL_TABLES)) {
+                EntityCacheFactory.clearAll(environmentId);
+            } else {
+                caches.forEach((cache, pkValuesList) -> {
+                    if (pkValuesList == null) {
+                        cache.clear();
+                    } else {
+                        pkValuesList.forEach(cache::invalidate);
+                    }
+                });
+            }
+        });
+    }
+
+
+    private static Object[] toPkValues(Object primaryValue) {
+        if (primaryValue instanceof Object[]) {
+            return (Object[]) primaryValue;
+        }
+        return new Object[]{primaryValue};
+    }
+
+
+    private static CacheStatement getCacheStatement(MappedStatement ms) {
+        return statements.computeIfAbsent(ms.getId(), CacheStatement::of);
+    }
+
+
+    /**
+     * MappedStatement 对缓存的影响
+     */
+    private static class CacheStatement {
+
+        static final int NONE = 0;
+        static final int SELECT_ONE_BY_ID = 1;
+        static final int INSERT = 2;
+        static final int UPDATE = 3;
+        static final int DELETE_BY_IDS = 4;
+        static final int UPDATE_BY_QUERY = 5;
+        static final int ROW_INSERT = 6;
+        static final int ROW = 7;
+        static final int SQL = 8;
+        static final int ALL = 9;
+
+        final int type;
+        final TableInfo tableInfo;
+
+        CacheStatement(int type, TableInfo tableInfo) {
+            this.type = type;
+            this.tableInfo = tableInfo;
+        }
+
+        static CacheStatement of(String statementId) {
+            int index = statementId.lastIndexOf(".");
+            if (index <= 0) {
+                return new CacheStatement(ALL, null);
+            }
+
+            String mapperClassName = statementId.substring(0, index);
+            String method = statementId.substring(index + 1);
+
+            if (RowMapper.class.getName().equals(mapperClassName)) {
+                if (method.endsWith("BySql")) {
+                    return new CacheStatement(SQL, null);
+                }
+                if (method.startsWith("select")) {
+                    return new CacheStatement(NONE, null);
+                }
+                return new CacheStatement(method.startsWith("insert") ? ROW_INSERT : ROW, null);
+            }
+
+            Class<?> mapperClass;
+            try {
+                mapperClass = Class.forName(mapperClassName);
+            } catch (ClassNotFoundException e) {
+                return new CacheStatement(ALL, null);
+            }
+
+            //只有 BaseMapper 内置的方法才能确定修改的数据，自定义的方法可能修改任意的表
+            TableInfo tableInfo = BaseMapper.class.isAssignableFrom(mapperClass) ? TableInfos.ofMapperClass(mapperClass) : null;
+            if (tableInfo == null) {
+                return new CacheStatement(ALL, null);
+            }
+            switch (method) {
+                case "selectOneById":
+                    return new CacheStatement(SELECT_ONE_BY_ID, tableInfo);
+                case "insert":
+                case FlexConsts.METHOD_INSERT_BATCH:
+                    return new CacheStatement(INSERT, tableInfo);
+                case "update":
+                    return new CacheStatement(UPDATE, tableInfo);
+                case "deleteById":
+                case "deleteBatchByIds":
+                    return new CacheStatement(DELETE_BY_IDS, tableInfo);
+                case "updateByQuery":
+                case "deleteByQuery":
+                    return new CacheStatement(UPDATE_BY_QUERY, tableInfo);
+                default:
+                    return new CacheStatement(ALL, tableInfo);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.mybatis;
+
+import org.apache.ibatis.type.TypeHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * ResultSet 到 entity 的映射器，一般由 APT 在编译时生成，类名为 entity 类名 + {@link EntityResultMapperFactory#CLASS_SUFFIX}
+ * 直接通过 rs.getXxx(index) 读取数据并调用 setter，用于替换 entity 查询时 mybatis 基于反射的 ResultMap 映射
+ *
+ * @param <T> entity 类型
+ */
+public interface EntityResultMapper<T> {
+
+    /**
+     * 映射的列，map 方法的 indexes 和 typeHandlers 与此顺序一致
+     *
+     * @return 列名
+     */
+    String[] getColumns();
+
+
+    /**
+     * 把 ResultSet 的当前行映射为 entity
+     *
+     * @param rs           ResultSet
+     * @param indexes      每个列在 ResultSet 中的序号（从 1 开始），0 表示查询结果中没有该列
+     * @param typeHandlers 每个列的 TypeHandler，配置了 typeHandler 或者数据脱敏的列，以及不能直接读取的类型不为 null，
+     *                     此时必须通过 TypeHandler 读取，参考 {@link EntityResultMapperFactory#isDirectType(Class)}
+     * @return entity，所有列都为 null 时返回 null
+     * @throws SQLException
+     */
+    T map(ResultSet rs, int[] indexes, TypeHandler<?>[] typeHandlers) throws SQLException;
+}
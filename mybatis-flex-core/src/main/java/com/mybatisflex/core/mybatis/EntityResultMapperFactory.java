@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.mybatis;
+
+import com.mybatisflex.core.exception.FlexExceptions;
+import org.apache.ibatis.type.*;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * entity 映射器的管理，优先使用手动注册的映射器，其次加载 APT 生成的映射器
+ */
+public class EntityResultMapperFactory {
+
+    /**
+     * APT 生成的映射器的类名后缀，与 entity 在同一个包下
+     */
+    public static final String CLASS_SUFFIX = "$$FlexResultMapper";
+
+    /**
+     * 生成的映射器可以直接通过 ResultSet 读取的类型，以及 mybatis 为其内置的 TypeHandler，两者的读取方式一致
+     * 需要与 QueryEntityProcesser 中的类型保持一致
+     */
+    private static final Map<Class<?>, Class<?>> directTypes = new HashMap<>();
+
+    static {
+        directTypes.put(int.class, IntegerTypeHandler.class);
+        directTypes.put(Integer.class, IntegerTypeHandler.class);
+        directTypes.put(long.class, LongTypeHandler.class);
+        directTypes.put(Long.class, LongTypeHandler.class);
+        directTypes.put(short.class, ShortTypeHandler.class);
+        directTypes.put(Short.class, ShortTypeHandler.class);
+        directTypes.put(float.class, FloatTypeHandler.class);
+        directTypes.put(Float.class, FloatTypeHandler.class);
+        directTypes.put(double.class, DoubleTypeHandler.class);
+        directTypes.put(Double.class, DoubleTypeHandler.class);
+        directTypes.put(boolean.class, BooleanTypeHandler.class);
+        directTypes.put(Boolean.class, BooleanTypeHandler.class);
+        directTypes.put(String.class, StringTypeHandler.class);
+        directTypes.put(BigDecimal.class, BigDecimalTypeHandler.class);
+        directTypes.put(byte[].class, ByteArrayTypeHandler.class);
+        directTypes.put(Date.class, DateTypeHandler.class);
+        directTypes.put(java.sql.Date.class, SqlDateTypeHandler.class);
+        directTypes.put(Time.class, SqlTimeTypeHandler.class);
+        directTypes.put(Timestamp.class, SqlTimestampTypeHandler.class);
+        directTypes.put(LocalDateTime.class, LocalDateTimeTypeHandler.class);
+        directTypes.put(LocalDate.class, LocalDateTypeHandler.class);
+        directTypes.put(LocalTime.class, LocalTimeTypeHandler.class);
+        directTypes.put(OffsetDateTime.class, OffsetDateTimeTypeHandler.class);
+        directTypes.put(ZonedDateTime.class, ZonedDateTimeTypeHandler.class);
+    }
+
+    private static final Map<Class<?>, Optional<EntityResultMapper<?>>> mappers = new ConcurrentHashMap<>();
+
+    private EntityResultMapperFactory() {
+    }
+
+
+    /**
+     * 注册映射器，需要在 mapper 加载之前注册
+     *
+     * @param entityClass entity 类
+     * @param mapper      映射器，为 null 时不使用映射器，使用 mybatis 默认的映射
+     */
+    public static <T> void registerMapper(Class<T> entityClass, EntityResultMapper<T> mapper) {
+        mappers.put(entityClass, Optional.ofNullable(mapper));
+    }
+
+
+    /**
+     * 获取 entity 的映射器
+     *
+     * @param entityClass entity 类
+     * @return 没有映射器时返回 null
+     */
+    public static EntityResultMapper<?> getMapper(Class<?> entityClass) {
+        return mappers.computeIfAbsent(entityClass, EntityResultMapperFactory::loadMapper).orElse(null);
+    }
+
+
+    /**
+     * 是否可以由映射器直接读取，当注册了自定义的 TypeHandler 时，需要通过 TypeHandler 读取
+     *
+     * @param type        属性类型
+     * @param typeHandler 当前 Configuration 中该类型注册的 TypeHandler
+     */
+    public static boolean isDirectType(Class<?> type, TypeHandler<?> typeHandler) {
+        return typeHandler != null && typeHandler.getClass() == directTypes.get(type);
+    }
+
+
+    private static Optional<EntityResultMapper<?>> loadMapper(Class<?> entityClass) {
+        Class<?> mapperClass;
+        try {
+            mapperClass = Class.forName(entityClass.getName() + CLASS_SUFFIX, true, entityClass.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return Optional.empty();
+        }
+
+        if (!EntityResultMapper.class.isAssignableFrom(mapperClass)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of((EntityResultMapper<?>) mapperClass.getDeclaredConstructor().newInstance());
+        } catch (Exception e) {
+            throw FlexExceptions.wrap(e, "Can not create the result mapper: %s", mapperClass.getName());
+        }
+    }
+}
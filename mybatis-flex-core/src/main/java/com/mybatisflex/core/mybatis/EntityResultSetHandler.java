@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.mybatis;
+
+import com.mybatisflex.core.table.ColumnInfo;
+import com.mybatisflex.core.table.TableInfo;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.result.DefaultResultHandler;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetWrapper;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+import java.sql.CallableStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 使用 {@link EntityResultMapper} 处理 entity 查询的结果
+ * 查询结果中存在映射器无法处理的列时（例如 join 查询了其他表的列），使用 mybatis 默认的 ResultMap 映射
+ */
+public class EntityResultSetHandler implements ResultSetHandler {
+
+    private final DefaultResultSetHandler delegate;
+    private final MappedStatement mappedStatement;
+    private final Binding binding;
+
+    public EntityResultSetHandler(DefaultResultSetHandler delegate, MappedStatement mappedStatement, Binding binding) {
+        this.delegate = delegate;
+        this.mappedStatement = mappedStatement;
+        this.binding = binding;
+    }
+
+
+    @Override
+    public <E> List<E> handleResultSets(Statement stmt) throws SQLException {
+        ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
+
+        ResultSet rs = getFirstResultSet(stmt);
+        if (rs == null) {
+            return new ArrayList<>();
+        }
+
+        try {
+            int[] indexes = binding.resolveIndexes(rs.getMetaData());
+            if (indexes == null) {
+                Configuration configuration = mappedStatement.getConfiguration();
+                DefaultResultHandler resultHandler = new DefaultResultHandler(configuration.getObjectFactory());
+                delegate.handleRowValues(new ResultSetWrapper(rs, configuration), mappedStatement.getResultMaps().get(0)
+                        , resultHandler, RowBounds.DEFAULT, null);
+                return (List<E>) resultHandler.getResultList();
+            }
+
+            EntityResultMapper<?> mapper = binding.mapper;
+            TypeHandler<?>[] typeHandlers = binding.typeHandlers;
+            List<Object> results = new ArrayList<>();
+            while (rs.next()) {
+                results.add(mapper.map(rs, indexes, typeHandlers));
+            }
+            return (List<E>) results;
+        } finally {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                // ignore
+            }
+        }
+    }
+
+
+    @Override
+    public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
+        return delegate.handleCursorResultSets(stmt);
+    }
+
+
+    @Override
+    public void handleOutputParameters(CallableStatement cs) throws SQLException {
+        delegate.handleOutputParameters(cs);
+    }
+
+
+    /**
+     * 与 DefaultResultSetHandler 一致，部分驱动（例如 HSQLDB）需要通过 getMoreResults 获取第一个结果集
+     */
+    private ResultSet getFirstResultSet(Statement stmt) throws SQLException {
+        ResultSet rs = stmt.getResultSet();
+        while (rs == null) {
+            if (stmt.getMoreResults()) {
+                rs = stmt.getResultSet();
+            } else if (stmt.getUpdateCount() == -1) {
+                break;
+            }
+        }
+        return rs;
+    }
+
+
+    /**
+     * 映射器与 TableInfo 的绑定，每个 entity 查询的 MappedStatement 创建一次
+     */
+    public static class Binding {
+
+        private final EntityResultMapper<?> mapper;
+        private final TypeHandler<?>[] typeHandlers;
+
+        //列名和属性名（小写）与映射器列序号的映射
+        private final Map<String, Integer> labelIndexes = new HashMap<>();
+
+        private Binding(EntityResultMapper<?> mapper, TypeHandler<?>[] typeHandlers) {
+            this.mapper = mapper;
+            this.typeHandlers = typeHandlers;
+        }
+
+
+        /**
+         * 创建绑定
+         *
+         * @return 映射器的列与 TableInfo 不一致，或者存在无法处理的类型时返回 null
+         */
+        public static Binding create(Configuration configuration, TableInfo tableInfo, EntityResultMapper<?> mapper) {
+            String[] columns = mapper.getColumns();
+            TypeHandlerRegistry registry = configuration.getTypeHandlerRegistry();
+            TypeHandler<?>[] typeHandlers = new TypeHandler[columns.length];
+            Binding binding = new Binding(mapper, typeHandlers);
+            for (int i = 0; i < columns.length; i++) {
+                ColumnInfo columnInfo = tableInfo.getColumnInfo(columns[i]);
+                if (columnInfo == null) {
+                    return null;
+                }
+
+                //与 ResultMap 一致，未配置 typeHandler 时使用 TypeHandlerRegistry 中注册的
+                TypeHandler<?> typeHandler = columnInfo.buildTypeHandler();
+                if (typeHandler == null) {
+                    typeHandler = registry.getTypeHandler(columnInfo.getPropertyType(), columnInfo.getJdbcType());
+                    if (typeHandler == null) {
+                        return null;
+                    }
+                    //mybatis 内置的 TypeHandler 交给映射器直接读取
+                    if (columnInfo.getJdbcType() == null && EntityResultMapperFactory.isDirectType(columnInfo.getPropertyType(), typeHandler)) {
+                        typeHandler = null;
+                    }
+                }
+                typeHandlers[i] = typeHandler;
+
+                binding.labelIndexes.putIfAbsent(columns[i].toLowerCase(Locale.ENGLISH), i);
+                binding.labelIndexes.putIfAbsent(columnInfo.getProperty().toLowerCase(Locale.ENGLISH), i);
+            }
+            return binding;
+        }
+
+
+        /**
+         * 获取映射器每个列在 ResultSet 中的序号
+         *
+         * @return 查询结果中存在映射器无法处理的列时返回 null
+         */
+        int[] resolveIndexes(ResultSetMetaData metaData) throws SQLException {
+            int[] indexes = new int[typeHandlers.length];
+            int columnCount = metaData.getColumnCount();
+            for (int i = 1; i <= columnCount; i++) {
+                Integer index = labelIndexes.get(metaData.getColumnLabel(i).toLowerCase(Locale.ENGLISH));
+                if (index == null) {
+                    return null;
+                }
+                //存在同名的列时，与 mybatis 一致使用第一个
+                if (indexes[index] == 0) {
+                    indexes[index] = i;
+                }
+            }
+            return indexes;
+        }
+    }
+}
@@ -16,33 +16,55 @@
 package com.mybatisflex.core.mybatis;
 
 import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.cache.EntityCacheFactory;
+import com.mybatisflex.core.cache.RowQueryCache;
 import com.mybatisflex.core.keygen.MultiEntityKeyGenerator;
 import com.mybatisflex.core.keygen.MultiRowKeyGenerator;
 import com.mybatisflex.core.keygen.MybatisKeyGeneratorUtil;
 import com.mybatisflex.core.keygen.RowKeyGenerator;
+import com.mybatisflex.core.metrics.MetricsTransaction;
+import com.mybatisflex.core.metrics.StatementMetrics;
 import com.mybatisflex.core.row.RowMapper;
 import com.mybatisflex.core.table.TableInfo;
 import com.mybatisflex.core.table.TableInfos;
 import com.mybatisflex.core.util.CollectionUtil;
 import com.mybatisflex.core.util.StringUtil;
+import org.apache.ibatis.builder.annotation.ProviderSqlSource;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FlexConfiguration extends Configuration {
 
+    //entity 查询的 MappedStatement id 与 APT 生成的映射器的绑定
+    private final Map<String, EntityResultSetHandler.Binding> entityResultBindings = new ConcurrentHashMap<>();
+
+    //通过 TableInfo 构建的 ResultMap
+    private final Set<ResultMap> entityResultMaps = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    //是否有通过 @Table(cache = true) 开启了缓存的实体
+    private volatile boolean hasCacheEntity = false;
 
     public FlexConfiguration(Environment environment) {
         super(environment);
@@ -94,8 +116,66 @@ public class FlexConfiguration extends Configuration {
     }
 
 
+    /**
+     * InsertBatchExecutor 用于根据当前方言的参数数量限制，对 insertBatch 自动分批执行
+     * 开启了实体缓存或者存在查询缓存时，使用 EntityCacheExecutor 包装，用于缓存的读取和清除；
+     * 否则不进行包装，修改数据时不会有缓存相关的额外开销
+     */
+    @Override
+    public Executor newExecutor(Transaction transaction, ExecutorType executorType) {
+        if (StatementMetrics.isEnable()) {
+            transaction = new MetricsTransaction(transaction);
+        }
+        Executor executor = new InsertBatchExecutor(super.newExecutor(transaction, executorType));
+        return isFlexCacheEnabled() ? new EntityCacheExecutor(executor, getEnvironment().getId()) : executor;
+    }
+
+
+    /**
+     * 是否开启了实体缓存或者存在查询缓存
+     * 在 SqlSession 创建时判断，之后才设置的查询缓存对已经创建的 SqlSession 不生效
+     */
+    private boolean isFlexCacheEnabled() {
+        if (hasCacheEntity || RowQueryCache.hasCaches()) {
+            return true;
+        }
+        FlexGlobalConfig globalConfig = getEnvironment() != null ? FlexGlobalConfig.getConfig(this) : null;
+        return globalConfig != null && globalConfig.getEntityCacheConfig() != null
+                && globalConfig.getEntityCacheConfig().isEnable();
+    }
+
+
+    /**
+     * entity 查询存在映射器时，使用 EntityResultSetHandler 处理查询结果
+     * 使用了 RowBounds、ResultHandler 或者配置了 mybatis 映射相关的行为时，依然使用 mybatis 原生的处理
+     */
+    @Override
+    public ResultSetHandler newResultSetHandler(Executor executor, MappedStatement mappedStatement, RowBounds rowBounds, ParameterHandler parameterHandler, ResultHandler resultHandler, BoundSql boundSql) {
+        EntityResultSetHandler.Binding binding = entityResultBindings.get(mappedStatement.getId());
+        if (binding == null
+                || resultHandler != null
+                || rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET
+                || rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT
+                || isCallSettersOnNulls()
+                || isReturnInstanceForEmptyRow()
+                || getObjectFactory().getClass() != DefaultObjectFactory.class) {
+            return super.newResultSetHandler(executor, mappedStatement, rowBounds, parameterHandler, resultHandler, boundSql);
+        }
+
+        ResultSetHandler resultSetHandler = new EntityResultSetHandler(new DefaultResultSetHandler(executor, mappedStatement
+                , parameterHandler, resultHandler, boundSql, rowBounds), mappedStatement, binding);
+        return (ResultSetHandler) interceptorChain.pluginAll(resultSetHandler);
+    }
+
+
     @Override
     public void addMappedStatement(MappedStatement ms) {
+        //SqlProvider 通过参数获取当前 Configuration 的方言
+        //需要最先替换，后续替换 MappedStatement 时会复制 sqlSource
+        if (ms.getSqlSource() instanceof ProviderSqlSource) {
+            ms = replaceSqlSource(ms);
+        }
+
         //替换 RowMapper.insertRow 的主键生成器
         //替换 RowMapper.insertBatchWithFirstRowColumns 的主键生成器
         if (ms.getId().startsWith("com.mybatisflex.core.row.RowMapper.insert")) {
@@ -108,14 +188,46 @@ public class FlexConfiguration extends Configuration {
         }
         //entity select
         else if (StringUtil.endsWithAny(ms.getId(), "selectOneById", "selectListByIds"
-                , "selectListByQuery")) {
+                , "selectListByQuery", FlexConsts.METHOD_SELECT_CURSOR_BY_QUERY)) {
             ms = replaceResultMap(ms);
+
+            if (!hasCacheEntity && ms.getId().endsWith(".selectOneById")) {
+                TableInfo tableInfo = getTableInfo(ms);
+                hasCacheEntity = tableInfo != null && EntityCacheFactory.isCacheEntity(tableInfo);
+            }
         }
 
         super.addMappedStatement(ms);
     }
 
 
+    /**
+     * 替换 SqlProvider 的 SqlSource，使其可以获取当前 Configuration 的方言
+     */
+    private MappedStatement replaceSqlSource(MappedStatement ms) {
+        FlexProviderSqlSource sqlSource = new FlexProviderSqlSource(this, (ProviderSqlSource) ms.getSqlSource());
+        return new MappedStatement.Builder(ms.getConfiguration(), ms.getId(), sqlSource, ms.getSqlCommandType()) // 替换sqlSource
+                .resource(ms.getResource())
+                .fetchSize(ms.getFetchSize())
+                .timeout(ms.getTimeout())
+                .statementType(ms.getStatementType())
+                .parameterMap(ms.getParameterMap())
+                .keyGenerator(ms.getKeyGenerator())
+                .keyProperty(ms.getKeyProperties() == null ? null : String.join(",", ms.getKeyProperties()))
+                .keyColumn(ms.getKeyColumns() == null ? null : String.join(",", ms.getKeyColumns()))
+                .databaseId(ms.getDatabaseId())
+                .lang(ms.getLang())
+                .resultOrdered(ms.isResultOrdered())
+                .resultSets(ms.getResultSets() == null ? null : String.join(",", ms.getResultSets()))
+                .resultMaps(ms.getResultMaps())
+                .resultSetType(ms.getResultSetType())
+                .flushCacheRequired(ms.isFlushCacheRequired())
+                .useCache(ms.isUseCache())
+                .cache(ms.getCache())
+                .build();
+    }
+
+
     /**
      * 替换 entity 查询的 ResultMap
      */
@@ -134,6 +246,16 @@ public class FlexConfiguration extends Configuration {
         } else {
             resultMap = tableInfo.buildResultMap(this);
             this.addResultMap(resultMap);
+            entityResultMaps.add(resultMap);
+        }
+
+        //使用的是 TableInfo 构建的 ResultMap（而非用户自定义的）时，才可以使用映射器替代
+        if (entityResultMaps.contains(resultMap)) {
+            EntityResultMapper<?> mapper = EntityResultMapperFactory.getMapper(tableInfo.getEntityClass());
+            EntityResultSetHandler.Binding binding = mapper == null ? null : EntityResultSetHandler.Binding.create(this, tableInfo, mapper);
+            if (binding != null) {
+                entityResultBindings.put(ms.getId(), binding);
+            }
         }
 
         return new MappedStatement.Builder(ms.getConfiguration(), ms.getId(), ms.getSqlSource(), ms.getSqlCommandType())
@@ -15,8 +15,12 @@
  */
 package com.mybatisflex.core.mybatis;
 
+import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.dialect.DialectFactory;
 import com.mybatisflex.core.keygen.IMultiKeyGenerator;
+import com.mybatisflex.core.metrics.StatementMetrics;
 import com.mybatisflex.core.util.ArrayUtil;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
@@ -28,12 +32,16 @@ import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
 import java.sql.*;
+import java.util.List;
 
 /**
  * @author Michael Yang(fuhai999@gmail.com)
  */
 public class FlexPreparedStatementHandler extends PreparedStatementHandler {
 
+    //开启 StatementMetrics 时，记录 prepare 和 parameterize 的耗时
+    private long prepareNanos;
+
     public FlexPreparedStatementHandler(Executor executor, MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
         super(executor, mappedStatement, parameter, rowBounds, resultHandler, boundSql);
     }
@@ -67,8 +75,8 @@ public class FlexPreparedStatementHandler extends PreparedStatementHandler {
         }
         // 多主键的场景
         else if (keyGenerator instanceof IMultiKeyGenerator) {
-            if (((IMultiKeyGenerator) keyGenerator).isNeedGeneratedKeys()) {
-                String[] keyColumnNames = ((IMultiKeyGenerator) keyGenerator).getKeyColumnNames();
+            if (((IMultiKeyGenerator) keyGenerator).isNeedGeneratedKeys(boundSql.getParameterObject())) {
+                String[] keyColumnNames = ((IMultiKeyGenerator) keyGenerator).getKeyColumnNames(boundSql.getParameterObject());
                 if (ArrayUtil.isNotEmpty(keyColumnNames)) {
                     return connection.prepareStatement(sql, keyColumnNames);
                 } else {
@@ -85,4 +93,92 @@ public class FlexPreparedStatementHandler extends PreparedStatementHandler {
     }
 
 
+    /**
+     * 游标查询时，若没有指定 fetchSize，则使用当前方言的 fetchSize，使驱动逐批读取数据而不是一次全部加载到内存
+     */
+    @Override
+    protected void setFetchSize(Statement stmt) throws SQLException {
+        if (mappedStatement.getFetchSize() == null
+                && mappedStatement.getId().endsWith(FlexConsts.METHOD_SELECT_CURSOR_BY_QUERY)) {
+            stmt.setFetchSize(DialectFactory.getDialect(mappedStatement.getConfiguration()).getCursorFetchSize());
+            return;
+        }
+        super.setFetchSize(stmt);
+    }
+
+
+    @Override
+    public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
+        if (!StatementMetrics.isEnable()) {
+            return super.prepare(connection, transactionTimeout);
+        }
+        long start = System.nanoTime();
+        try {
+            return super.prepare(connection, transactionTimeout);
+        } finally {
+            prepareNanos += System.nanoTime() - start;
+        }
+    }
+
+
+    @Override
+    public void parameterize(Statement statement) throws SQLException {
+        if (!StatementMetrics.isEnable()) {
+            super.parameterize(statement);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            super.parameterize(statement);
+        } finally {
+            prepareNanos += System.nanoTime() - start;
+        }
+    }
+
+
+    @Override
+    public int update(Statement statement) throws SQLException {
+        if (!StatementMetrics.isEnable()) {
+            return super.update(statement);
+        }
+        long start = System.nanoTime();
+        int rows = super.update(statement);
+        StatementMetrics.record(mappedStatement, boundSql, prepareNanos, System.nanoTime() - start, 0, rows);
+        return rows;
+    }
+
+
+    /**
+     * 与 {@link PreparedStatementHandler#query(Statement, ResultHandler)} 一致，开启 StatementMetrics 时分别记录执行和读取结果集的耗时
+     */
+    @Override
+    public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
+        if (!StatementMetrics.isEnable()) {
+            return super.query(statement, resultHandler);
+        }
+        PreparedStatement ps = (PreparedStatement) statement;
+        long start = System.nanoTime();
+        ps.execute();
+        long executed = System.nanoTime();
+        List<E> list = resultSetHandler.handleResultSets(ps);
+        StatementMetrics.record(mappedStatement, boundSql, prepareNanos, executed - start, System.nanoTime() - executed, list.size());
+        return list;
+    }
+
+
+    /**
+     * 游标的数据是在遍历时才读取的，因此只记录执行的耗时
+     */
+    @Override
+    public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
+        if (!StatementMetrics.isEnable()) {
+            return super.queryCursor(statement);
+        }
+        long start = System.nanoTime();
+        Cursor<E> cursor = super.queryCursor(statement);
+        StatementMetrics.record(mappedStatement, boundSql, prepareNanos, System.nanoTime() - start, 0, 0);
+        return cursor;
+    }
+
+
 }
@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.mybatis;
+
+import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.dialect.DialectFactory;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.builder.annotation.ProviderSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * 包装 mybatis 的 ProviderSqlSource，构建 sql 之前把当前 Configuration 的方言放到参数中，
+ * SqlProvider 通过 ProviderUtil.getDialect 读取，不需要使用全局的方言或者 ThreadLocal
+ */
+public class FlexProviderSqlSource implements SqlSource {
+
+    private final Configuration configuration;
+    private final ProviderSqlSource delegate;
+
+    public FlexProviderSqlSource(Configuration configuration, ProviderSqlSource delegate) {
+        this.configuration = configuration;
+        this.delegate = delegate;
+    }
+
+
+    @Override
+    public BoundSql getBoundSql(Object parameterObject) {
+        if (parameterObject instanceof MapperMethod.ParamMap) {
+            ((MapperMethod.ParamMap<Object>) parameterObject).put(FlexConsts.DIALECT, DialectFactory.getDialect(configuration));
+        }
+        return delegate.getBoundSql(parameterObject);
+    }
+}
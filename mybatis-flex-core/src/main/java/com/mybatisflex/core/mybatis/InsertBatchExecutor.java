@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.mybatis;
+
+import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.provider.EntitySqlProvider;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfos;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BaseMapper.insertBatch 的数据量超过当前 Configuration 方言的参数数量限制时，自动分为多条 INSERT 语句执行
+ * 分批后每条语句依然使用 insertBatch 的 MappedStatement，不会改变 statement id
+ *
+ * @see com.mybatisflex.core.dialect.IDialect#getInsertBatchSize(int)
+ */
+public class InsertBatchExecutor extends DelegatingExecutor {
+
+    public InsertBatchExecutor(Executor delegate) {
+        super(delegate);
+    }
+
+
+    @Override
+    public int update(MappedStatement ms, Object parameter) throws SQLException {
+        List<?> entities = getEntities(ms, parameter);
+        if (entities == null) {
+            return delegate.update(ms, parameter);
+        }
+
+        TableInfo tableInfo = getTableInfo(ms);
+        if (tableInfo == null) {
+            return delegate.update(ms, parameter);
+        }
+
+        int size = EntitySqlProvider.getInsertBatchSize(tableInfo, DialectFactory.getDialect(ms.getConfiguration()));
+        if (entities.size() <= size) {
+            return delegate.update(ms, parameter);
+        }
+
+        int total = 0;
+        for (int i = 0; i < entities.size(); i += size) {
+            int count = delegate.update(ms, copyParams((Map<?, ?>) parameter, entities, entities.subList(i, Math.min(i + size, entities.size()))));
+            //BatchExecutor 返回的是固定的标识值，而不是影响的行数
+            if (count < 0) {
+                total = count;
+            } else if (total >= 0) {
+                total += count;
+            }
+        }
+        return total;
+    }
+
+
+    private static List<?> getEntities(MappedStatement ms, Object parameter) {
+        if (!(ms.getSqlSource() instanceof FlexProviderSqlSource)
+                || !ms.getId().endsWith("." + FlexConsts.METHOD_INSERT_BATCH)
+                || !(parameter instanceof MapperMethod.ParamMap)) {
+            return null;
+        }
+
+        //ParamMap 获取不存在的 key 时会抛出异常
+        Map<?, ?> params = (Map<?, ?>) parameter;
+        if (!params.containsKey(FlexConsts.ENTITIES)) {
+            return null;
+        }
+
+        Object entities = params.get(FlexConsts.ENTITIES);
+        return entities instanceof List && ((List<?>) entities).size() > 1 ? (List<?>) entities : null;
+    }
+
+
+    private static TableInfo getTableInfo(MappedStatement ms) {
+        String mapperClassName = ms.getId().substring(0, ms.getId().lastIndexOf("."));
+        try {
+            return TableInfos.ofMapperClass(Class.forName(mapperClassName));
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+
+    /**
+     * 复制参数，同一个 list 会以 entities 和 param1 等多个 key 存在，需要全部替换为分批后的数据
+     */
+    private static MapperMethod.ParamMap<Object> copyParams(Map<?, ?> params, List<?> entities, List<?> subEntities) {
+        MapperMethod.ParamMap<Object> newParams = new MapperMethod.ParamMap<>();
+        for (Map.Entry<?, ?> entry : params.entrySet()) {
+            newParams.put((String) entry.getKey(), entry.getValue() == entities ? subEntities : entry.getValue());
+        }
+        return newParams;
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.paginate;
+
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.javassist.ModifyAttrsRecordProxyFactory;
+import com.mybatisflex.core.query.CPI;
+import com.mybatisflex.core.query.KeysetQueryCondition;
+import com.mybatisflex.core.query.QueryCondition;
+import com.mybatisflex.core.query.QueryOrderBy;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.TableInfos;
+import com.mybatisflex.core.util.CollectionUtil;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * keyset 分页（seek 分页）
+ * 通过 WHERE (k1, k2) > (?, ?) 代替 LIMIT offset, rows，查询第 N 页和查询第 1 页的性能相同
+ */
+public class KeysetUtil {
+
+    private KeysetUtil() {
+    }
+
+
+    /**
+     * 查询 keyset 分页的数据，并记录最后一条数据的排序字段值，用于查询下一页
+     * 查询过程中会临时修改 queryWrapper 的 where 和 limit，where 在查询完毕后恢复
+     *
+     * @param page         keyset 分页的 page
+     * @param queryWrapper 查询条件，必须有 order by
+     * @param selectList   查询数据列表的方法
+     */
+    public static <T> void selectPage(Page<T> page, QueryWrapper queryWrapper, Function<QueryWrapper, List<T>> selectList) {
+        List<QueryOrderBy> orderBys = getKeysetOrderBys(queryWrapper);
+        Object[] keysetValues = page.getKeysetValues();
+
+        QueryCondition whereCondition = CPI.getWhereQueryCondition(queryWrapper);
+        List<T> list;
+        try {
+            if (keysetValues != null) {
+                if (keysetValues.length != orderBys.size()) {
+                    throw FlexExceptions.wrap("The size of keyset values must be equal to the size of order by columns: %s", orderBys.size());
+                }
+                //是否使用行值比较，由执行 sql 时的方言确定
+                CPI.setWhereQueryCondition(queryWrapper, new KeysetQueryCondition(orderBys, keysetValues, whereCondition));
+            }
+            queryWrapper.limit(null, page.getPageSize());
+            list = selectList.apply(queryWrapper);
+        } finally {
+            CPI.setWhereQueryCondition(queryWrapper, whereCondition);
+        }
+
+        //keyset 模式下 pageNumber 只表示相对的页码
+        if (keysetValues != null) {
+            page.setPageNumber(page.getPageNumber() + 1);
+        }
+        page.setList(list);
+        if (CollectionUtil.isNotEmpty(list)) {
+            page.setKeysetValues(obtainKeysetValues(list.get(list.size() - 1), orderBys));
+        }
+    }
+
+
+    /**
+     * 根据执行 sql 的方言，确定 keyset 分页的条件是否使用行值比较，需要在构建 sql 和获取参数之前调用
+     *
+     * @param queryWrapper 查询条件
+     * @param dialect      执行 sql 的 Configuration 的方言
+     */
+    public static void resolveRowValueComparison(QueryWrapper queryWrapper, IDialect dialect) {
+        QueryCondition whereCondition = CPI.getWhereQueryCondition(queryWrapper);
+        if (whereCondition instanceof KeysetQueryCondition) {
+            ((KeysetQueryCondition) whereCondition).setSupportRowValueComparison(dialect.isSupportRowValueComparison());
+        }
+    }
+
+
+    private static List<QueryOrderBy> getKeysetOrderBys(QueryWrapper queryWrapper) {
+        List<QueryOrderBy> orderBys = CPI.getOrderBys(queryWrapper);
+        if (CollectionUtil.isEmpty(orderBys)) {
+            throw FlexExceptions.wrap("Keyset pagination requires order by columns.");
+        }
+        for (QueryOrderBy orderBy : orderBys) {
+            if (orderBy.getQueryColumn() == null) {
+                throw FlexExceptions.wrap("Keyset pagination does not support string order by: %s", orderBy.toSql(null, null));
+            }
+        }
+        return orderBys;
+    }
+
+
+    private static Object[] obtainKeysetValues(Object last, List<QueryOrderBy> orderBys) {
+        Object[] values = new Object[orderBys.size()];
+        TableInfo tableInfo = null;
+        if (!(last instanceof Map)) {
+            Class<?> entityClass = ModifyAttrsRecordProxyFactory.getTargetClass(last);
+            tableInfo = TableInfos.ofEntityClass(entityClass);
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            String column = orderBys.get(i).getQueryColumn().getName();
+            Object value = tableInfo != null ? tableInfo.buildColumnSqlArg(last, column) : getRowValue((Map<String, Object>) last, column);
+            if (value == null) {
+                throw FlexExceptions.wrap("The value of keyset column \"%s\" can not be null, please make sure it is selected and not nullable.", column);
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+
+
+    private static Object getRowValue(Map<String, Object> row, String column) {
+        Object value = row.get(column);
+        if (value == null) {
+            //部分数据库返回的列名为大写
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                if (entry.getKey().equalsIgnoreCase(column)) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return value;
+    }
+}
@@ -28,6 +28,8 @@ public class Page<T> implements Serializable {
     private int pageSize = INIT_VALUE;                // result amount of this page
     private long totalPage = INIT_VALUE;              // total page
     private long totalRow = INIT_VALUE;               // total row
+    private boolean keyset = false;                   // keyset (seek) pagination
+    private Object[] keysetValues;                    // order by values of the last row of the previous page
 
     public static Page of(int pageNumber, int pageSize) {
         return new Page(pageNumber, pageSize);
@@ -37,6 +39,20 @@ public class Page<T> implements Serializable {
         return new Page(pageNumber, pageSize, totalRow);
     }
 
+    /**
+     * keyset 分页（seek 分页），根据上一页最后一条数据的排序字段值查询下一页，翻页的深度不影响查询性能
+     * 查询条件必须有 order by，且排序字段的组合必须唯一（例如最后一个排序字段为主键）
+     *
+     * @param pageSize     每页的数据量
+     * @param keysetValues 上一页最后一条数据的排序字段值，查询第一页时不传
+     */
+    public static Page ofKeyset(int pageSize, Object... keysetValues) {
+        Page page = new Page(1, pageSize);
+        page.keyset = true;
+        page.keysetValues = keysetValues != null && keysetValues.length > 0 ? keysetValues : null;
+        return page;
+    }
+
     public Page() {
 
     }
@@ -104,11 +120,30 @@ public class Page<T> implements Serializable {
         this.totalPage = totalRow % pageSize == 0 ? (totalRow / pageSize) : (totalRow / pageSize + 1);
     }
 
+    public boolean isKeyset() {
+        return keyset;
+    }
+
+    public void setKeyset(boolean keyset) {
+        this.keyset = keyset;
+    }
+
+    public Object[] getKeysetValues() {
+        return keysetValues;
+    }
+
+    public void setKeysetValues(Object[] keysetValues) {
+        this.keysetValues = keysetValues;
+    }
+
     public boolean isFirstPage() {
         return pageNumber == 1;
     }
 
     public boolean isLastPage() {
+        if (keyset) {
+            return list == null || list.size() < pageSize;
+        }
         return pageNumber >= totalPage;
     }
 
@@ -119,6 +154,7 @@ public class Page<T> implements Serializable {
                 ", pageSize=" + pageSize +
                 ", totalPage=" + totalPage +
                 ", totalRow=" + totalRow +
+                (keyset ? ", keysetValues=" + java.util.Arrays.toString(keysetValues) : "") +
                 ", list=" + list +
                 '}';
     }
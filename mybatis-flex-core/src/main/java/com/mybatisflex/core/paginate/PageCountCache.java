@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.paginate;
+
+/**
+ * 分页查询时数据总量的缓存，以 count sql 及其参数为 key
+ * 对于数据量较大、总量不需要实时精确的列表页，可以避免每次分页都执行 count 查询
+ *
+ * @see TtlPageCountCache
+ */
+public interface PageCountCache {
+
+    /**
+     * 获取缓存的数据总量
+     *
+     * @param countSql count sql
+     * @param args     sql 参数
+     * @return 数据总量，没有缓存或已过期时返回 null
+     */
+    Long get(String countSql, Object[] args);
+
+    /**
+     * 缓存数据总量
+     *
+     * @param countSql count sql
+     * @param args     sql 参数
+     * @param count    数据总量
+     */
+    void put(String countSql, Object[] args, long count);
+
+}
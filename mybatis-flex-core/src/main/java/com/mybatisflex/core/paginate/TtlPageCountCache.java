@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.paginate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于内存的、带过期时间的数据总量缓存
+ */
+public class TtlPageCountCache implements PageCountCache {
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+
+
+    /**
+     * @param ttl      过期时间
+     * @param timeUnit 过期时间的单位
+     * @param maxSize  最多缓存的数量
+     */
+    public TtlPageCountCache(long ttl, TimeUnit timeUnit, int maxSize) {
+        this.ttlNanos = timeUnit.toNanos(ttl);
+        this.maxSize = maxSize;
+    }
+
+
+    @Override
+    public Long get(String countSql, Object[] args) {
+        Key key = new Key(countSql, args);
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            cache.remove(key, entry);
+            return null;
+        }
+        return entry.count;
+    }
+
+
+    @Override
+    public void put(String countSql, Object[] args, long count) {
+        long now = System.nanoTime();
+        if (cache.size() >= maxSize) {
+            cache.values().removeIf(entry -> entry.isExpired(now));
+            //仍然没有空间时，淘汰最早放入的 1/10，避免之后的每次 put 都需要淘汰
+            if (cache.size() >= maxSize) {
+                evictOldest(Math.max(1, maxSize / 10), now);
+            }
+        }
+        cache.put(new Key(countSql, args), new Entry(count, now + ttlNanos));
+    }
+
+
+    public void clear() {
+        cache.clear();
+    }
+
+
+    /**
+     * 过期时间相同，expireAt 越小的越早放入；nanoTime 可能溢出，因此比较与 now 的差值
+     */
+    private void evictOldest(int count, long now) {
+        List<Map.Entry<Key, Entry>> entries = new ArrayList<>(cache.entrySet());
+        entries.sort(Comparator.comparingLong(e -> e.getValue().expireAt - now));
+        for (int i = 0; i < count && i < entries.size(); i++) {
+            Map.Entry<Key, Entry> entry = entries.get(i);
+            cache.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+
+    private static class Entry {
+        private final long count;
+        private final long expireAt;
+
+        Entry(long count, long expireAt) {
+            this.count = count;
+            this.expireAt = expireAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expireAt >= 0;
+        }
+    }
+
+
+    private static class Key {
+        private final String sql;
+        private final Object[] args;
+        private final int hashCode;
+
+        Key(String sql, Object[] args) {
+            this.sql = sql;
+            this.args = args;
+            this.hashCode = 31 * sql.hashCode() + Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hashCode == key.hashCode && sql.equals(key.sql) && Arrays.deepEquals(args, key.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
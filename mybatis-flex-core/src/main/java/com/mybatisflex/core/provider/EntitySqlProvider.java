@@ -15,13 +15,14 @@
  */
 package com.mybatisflex.core.provider;
 
-import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.dialect.IDialect;
 import com.mybatisflex.core.exception.FlexExceptions;
 import com.mybatisflex.core.query.QueryColumn;
 import com.mybatisflex.core.query.QueryCondition;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.query.CPI;
 import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.table.UpdateColumnArgs;
 import com.mybatisflex.core.util.ArrayUtil;
 import com.mybatisflex.core.util.CollectionUtil;
 import com.mybatisflex.core.util.StringUtil;
@@ -66,7 +67,9 @@ public class EntitySqlProvider {
         Object[] values = tableInfo.buildInsertSqlArgs(entity);
         ProviderUtil.setSqlArgs(params, values);
 
-        return DialectFactory.getDialect().forInsertEntity(tableInfo, entity);
+        IDialect dialect = ProviderUtil.getDialect(params);
+        return SqlTemplateCache.get(tableInfo, dialect, SqlTemplateCache.INSERT, null
+                , () -> dialect.forInsertEntity(tableInfo, entity));
     }
 
 
@@ -92,14 +95,42 @@ public class EntitySqlProvider {
         }
 
 
-        Object[] allValues = new Object[0];
+        //每个 entity 的参数数量是一样的，根据第一个 entity 的参数数量预先分配好所有的参数空间
+        Object[] allValues = null;
+        int index = 0;
         for (Object entity : entities) {
-            allValues = ArrayUtil.concat(allValues, tableInfo.buildInsertSqlArgs(entity));
+            Object[] values = tableInfo.buildInsertSqlArgs(entity);
+            if (allValues == null) {
+                allValues = new Object[values.length * entities.size()];
+            }
+            System.arraycopy(values, 0, allValues, index, values.length);
+            index += values.length;
         }
 
         ProviderUtil.setSqlArgs(params, allValues);
 
-        return DialectFactory.getDialect().forInsertEntityBatch(tableInfo, entities);
+        return ProviderUtil.getDialect(params).forInsertEntityBatch(tableInfo, entities);
+    }
+
+
+    /**
+     * 根据方言的参数数量限制，计算批量插入时每条 sql 最多可以插入的数据量
+     * onInsertValue 配置的列直接使用其 sql 值，不占用参数
+     *
+     * @param tableInfo 表信息
+     * @param dialect   当前 Configuration 的方言
+     * @return 数据量
+     * @see com.mybatisflex.core.mybatis.InsertBatchExecutor
+     */
+    public static int getInsertBatchSize(TableInfo tableInfo, IDialect dialect) {
+        Map<String, String> onInsertColumns = tableInfo.getOnInsertColumns();
+        int columnCount = 0;
+        for (String column : tableInfo.obtainInsertColumns()) {
+            if (onInsertColumns == null || !onInsertColumns.containsKey(column)) {
+                columnCount++;
+            }
+        }
+        return dialect.getInsertBatchSize(columnCount);
     }
 
 
@@ -120,7 +151,9 @@ public class EntitySqlProvider {
         TableInfo tableInfo = ProviderUtil.getTableInfo(context);
         ProviderUtil.setSqlArgs(params, primaryValues);
 
-        return DialectFactory.getDialect().forDeleteEntityById(tableInfo);
+        IDialect dialect = ProviderUtil.getDialect(params);
+        return SqlTemplateCache.get(tableInfo, dialect, SqlTemplateCache.DELETE_BY_ID, null
+                , () -> dialect.forDeleteEntityById(tableInfo));
     }
 
 
@@ -141,7 +174,7 @@ public class EntitySqlProvider {
         TableInfo tableInfo = ProviderUtil.getTableInfo(context);
         ProviderUtil.setSqlArgs(params, primaryValues);
 
-        return DialectFactory.getDialect().forDeleteEntityBatchByIds(tableInfo, primaryValues);
+        return ProviderUtil.getDialect(params).forDeleteEntityBatchByIds(tableInfo, primaryValues);
     }
 
 
@@ -165,7 +198,7 @@ public class EntitySqlProvider {
 
         CPI.setFromIfNecessary(queryWrapper,tableInfo.getTableName());
 
-        return DialectFactory.getDialect().forDeleteEntityBatchByQuery(tableInfo, queryWrapper);
+        return ProviderUtil.getDialect(params).forDeleteEntityBatchByQuery(tableInfo, queryWrapper);
     }
 
 
@@ -187,14 +220,22 @@ public class EntitySqlProvider {
 
         TableInfo tableInfo = ProviderUtil.getTableInfo(context);
 
-        Object[] updateValues = tableInfo.buildUpdateSqlArgs(entity, ignoreNulls, false);
+        UpdateColumnArgs updateColumnArgs = tableInfo.buildUpdateColumnArgs(entity, ignoreNulls, false);
         Object[] primaryValues = tableInfo.buildPkSqlArgs(entity);
 
         FlexExceptions.assertAreNotNull(primaryValues, "The value of primary key must not be null, entity[%s]", entity);
 
-        ProviderUtil.setSqlArgs(params, ArrayUtil.concat(updateValues, primaryValues));
+        ProviderUtil.setSqlArgs(params, ArrayUtil.concat(updateColumnArgs.getValues(), primaryValues));
+
+        IDialect dialect = ProviderUtil.getDialect(params);
+
+        //乐观锁的版本号会直接拼接到 sql 中，此时不能缓存
+        if (StringUtil.isNotBlank(tableInfo.getVersionColumn())) {
+            return dialect.forUpdateEntity(tableInfo, entity, ignoreNulls);
+        }
 
-        return DialectFactory.getDialect().forUpdateEntity(tableInfo, entity, ignoreNulls);
+        return SqlTemplateCache.get(tableInfo, dialect, SqlTemplateCache.UPDATE, updateColumnArgs.getColumnShape()
+                , () -> dialect.forUpdateEntity(tableInfo, entity, ignoreNulls));
     }
 
 
@@ -225,7 +266,7 @@ public class EntitySqlProvider {
 
         ProviderUtil.setSqlArgs(params, ArrayUtil.concat(values, CPI.getValueArray(queryWrapper)));
 
-        return DialectFactory.getDialect().forUpdateEntityByQuery(tableInfo, entity, ignoreNulls, queryWrapper);
+        return ProviderUtil.getDialect(params).forUpdateEntityByQuery(tableInfo, entity, ignoreNulls, queryWrapper);
     }
 
 
@@ -246,7 +287,9 @@ public class EntitySqlProvider {
         ProviderUtil.setSqlArgs(params, primaryValues);
 
         TableInfo tableInfo = ProviderUtil.getTableInfo(context);
-        return DialectFactory.getDialect().forSelectOneEntityById(tableInfo);
+        IDialect dialect = ProviderUtil.getDialect(params);
+        return SqlTemplateCache.get(tableInfo, dialect, SqlTemplateCache.SELECT_ONE_BY_ID, null
+                , () -> dialect.forSelectOneEntityById(tableInfo));
     }
 
 
@@ -267,7 +310,7 @@ public class EntitySqlProvider {
         ProviderUtil.setSqlArgs(params, primaryValues);
 
         TableInfo tableInfo = ProviderUtil.getTableInfo(context);
-        return DialectFactory.getDialect().forSelectEntityListByIds(tableInfo, primaryValues);
+        return ProviderUtil.getDialect(params).forSelectEntityListByIds(tableInfo, primaryValues);
     }
 
 
@@ -297,7 +340,7 @@ public class EntitySqlProvider {
 
         CPI.setFromIfNecessary(queryWrapper,tableInfo.getTableName());
 
-        return DialectFactory.getDialect().forSelectListByQuery(queryWrapper);
+        return ProviderUtil.getDialect(params).forSelectListByQuery(queryWrapper);
     }
 
     /**
@@ -326,7 +369,7 @@ public class EntitySqlProvider {
         ProviderUtil.setSqlArgs(params, values);
 
         CPI.setFromIfNecessary(queryWrapper,tableInfo.getTableName());
-        return DialectFactory.getDialect().forSelectCountByQuery(queryWrapper);
+        return ProviderUtil.getDialect(params).forSelectCountByQuery(queryWrapper);
     }
 
 
@@ -16,7 +16,11 @@
 package com.mybatisflex.core.provider;
 
 import com.mybatisflex.core.FlexConsts;
+import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.dialect.IDialect;
 import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.paginate.KeysetUtil;
+import com.mybatisflex.core.query.CPI;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.row.Row;
 import com.mybatisflex.core.table.TableInfo;
@@ -40,6 +44,15 @@ class ProviderUtil {
         params.put(FlexConsts.SQL_ARGS, args);
     }
 
+    /**
+     * 获取执行 sql 的 Configuration 对应的方言，由 {@link com.mybatisflex.core.mybatis.FlexProviderSqlSource} 设置，
+     * 没有设置时（例如没有使用 FlexConfiguration）使用全局默认的方言
+     */
+    public static IDialect getDialect(Map params) {
+        IDialect dialect = params.containsKey(FlexConsts.DIALECT) ? (IDialect) params.get(FlexConsts.DIALECT) : null;
+        return dialect != null ? dialect : DialectFactory.getDialect();
+    }
+
     public static String getTableName(Map params) {
         return params.get(FlexConsts.TABLE_NAME).toString().trim();
     }
@@ -70,8 +83,16 @@ class ProviderUtil {
         }
     }
 
+    /**
+     * 获取 QueryWrapper，keyset 分页的条件需要根据当前方言确定是否使用行值比较，
+     * 因此需要在 {@link CPI#getValueArray(QueryWrapper)} 之前调用
+     */
     public static QueryWrapper getQueryWrapper(Map params) {
-        return (QueryWrapper) params.get(FlexConsts.QUERY);
+        QueryWrapper queryWrapper = (QueryWrapper) params.get(FlexConsts.QUERY);
+        if (queryWrapper != null) {
+            KeysetUtil.resolveRowValueComparison(queryWrapper, getDialect(params));
+        }
+        return queryWrapper;
     }
 
     public static Row getRow(Map params) {
@@ -15,11 +15,11 @@
  */
 package com.mybatisflex.core.provider;
 
-import com.mybatisflex.core.dialect.DialectFactory;
 import com.mybatisflex.core.exception.FlexExceptions;
 import com.mybatisflex.core.query.CPI;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.row.Row;
+import com.mybatisflex.core.row.SchemaRow;
 import com.mybatisflex.core.row.RowMapper;
 import com.mybatisflex.core.util.ArrayUtil;
 import com.mybatisflex.core.util.CollectionUtil;
@@ -62,7 +62,7 @@ public class RowSqlProvider {
         String tableName = ProviderUtil.getTableName(params);
         Row row = ProviderUtil.getRow(params);
         ProviderUtil.setSqlArgs(params, row.obtainModifyValues());
-        return DialectFactory.getDialect().forInsertRow(tableName, row);
+        return ProviderUtil.getDialect(params).forInsertRow(tableName, row);
     }
 
     /**
@@ -81,19 +81,29 @@ public class RowSqlProvider {
 
         //让所有 row 的列顺序和值的数量与第条数据保持一致
         //这个必须 new 一个 LinkedHashSet，因为 keepModifyAttrs 会清除 row 所有的 modifyAttrs
-        Set<String> modifyAttrs = new LinkedHashSet<>(rows.get(0).obtainModifyAttrs());
-        rows.forEach(row -> row.keepModifyAttrs(modifyAttrs));
+        Row firstRow = rows.get(0);
+        Set<String> modifyAttrs = new LinkedHashSet<>(firstRow.obtainModifyAttrs());
 
 
-        Object[] values = new Object[]{};
+        //行数和列数都是已知的，直接一次性分配好所有的参数空间
+        Object[] values = new Object[rows.size() * modifyAttrs.size()];
+        int index = 0;
         for (Row row : rows) {
-            values = ArrayUtil.concat(values, row.obtainModifyValues());
+            //和第一条数据修改的列完全相同的 SchemaRow，直接复制参数
+            if (row instanceof SchemaRow && ((SchemaRow) row).isSameModifyColumns(firstRow)) {
+                index += ((SchemaRow) row).copyModifyValues(values, index);
+                continue;
+            }
+            row.keepModifyAttrs(modifyAttrs);
+            for (String modifyAttr : modifyAttrs) {
+                values[index++] = row.get(modifyAttr);
+            }
         }
         ProviderUtil.setSqlArgs(params, values);
 
 
         //sql: INSERT INTO `tb_table`(`name`, `sex`) VALUES (?, ?),(?, ?),(?, ?)
-        return DialectFactory.getDialect().forInsertBatchWithFirstRowColumns(tableName, rows);
+        return ProviderUtil.getDialect(params).forInsertBatchWithFirstRowColumns(tableName, rows);
     }
 
     /**
@@ -114,7 +124,7 @@ public class RowSqlProvider {
             ProviderUtil.setSqlArgs(params, primaryValues);
         }
 
-        return DialectFactory.getDialect().forDeleteById(tableName, primaryKeys);
+        return ProviderUtil.getDialect(params).forDeleteById(tableName, primaryKeys);
     }
 
     /**
@@ -130,7 +140,7 @@ public class RowSqlProvider {
         Object[] primaryValues = ProviderUtil.getPrimaryValues(params);
 
         ProviderUtil.setSqlArgs(params, primaryValues);
-        return DialectFactory.getDialect().forDeleteBatchByIds(tableName, primaryKeys, primaryValues);
+        return ProviderUtil.getDialect(params).forDeleteBatchByIds(tableName, primaryKeys, primaryValues);
     }
 
 
@@ -149,7 +159,7 @@ public class RowSqlProvider {
         Object[] valueArray = CPI.getValueArray(queryWrapper);
         ProviderUtil.setSqlArgs(params, valueArray);
 
-        return DialectFactory.getDialect().forDeleteByQuery(queryWrapper);
+        return ProviderUtil.getDialect(params).forDeleteByQuery(queryWrapper);
     }
 
     /**
@@ -163,7 +173,7 @@ public class RowSqlProvider {
         String tableName = ProviderUtil.getTableName(params);
         Row row = ProviderUtil.getRow(params);
         ProviderUtil.setSqlArgs(params, row.obtainAllModifyValues());
-        return DialectFactory.getDialect().forUpdateById(tableName, row);
+        return ProviderUtil.getDialect(params).forUpdateById(tableName, row);
     }
 
 
@@ -185,7 +195,7 @@ public class RowSqlProvider {
 
         ProviderUtil.setSqlArgs(params, ArrayUtil.concat(modifyValues, valueArray));
 
-        return DialectFactory.getDialect().forUpdateByQuery(tableName, data, queryWrapper);
+        return ProviderUtil.getDialect(params).forUpdateByQuery(tableName, data, queryWrapper);
     }
 
 
@@ -195,8 +205,9 @@ public class RowSqlProvider {
      *
      * @param params
      * @return sql
-     * @see RowMapper#updateBatchById(String, List)
+     * @deprecated {@link RowMapper#updateBatchById(String, List)} 已改为逐条执行 updateById，不再使用该方法，将在下个版本移除
      */
+    @Deprecated
     public static String updateBatchById(Map params) {
         String tableName = ProviderUtil.getTableName(params);
         List<Row> rows = ProviderUtil.getRows(params);
@@ -204,12 +215,12 @@ public class RowSqlProvider {
             throw FlexExceptions.wrap("rows can not be null or empty.");
         }
 
-        Object[] values = new Object[0];
+        List<Object> values = new ArrayList<>();
         for (Row row : rows) {
-            values = ArrayUtil.concat(values, row.obtainAllModifyValues());
+            Collections.addAll(values, row.obtainAllModifyValues());
         }
-        ProviderUtil.setSqlArgs(params, values);
-        return DialectFactory.getDialect().forUpdateBatchById(tableName, rows);
+        ProviderUtil.setSqlArgs(params, values.toArray());
+        return ProviderUtil.getDialect(params).forUpdateBatchById(tableName, rows);
     }
 
 
@@ -227,7 +238,7 @@ public class RowSqlProvider {
 
         ProviderUtil.setSqlArgs(params, primaryValues);
 
-        return DialectFactory.getDialect().forSelectOneById(tableName, primaryKeys, primaryValues);
+        return ProviderUtil.getDialect(params).forSelectOneById(tableName, primaryKeys, primaryValues);
     }
 
 
@@ -247,7 +258,7 @@ public class RowSqlProvider {
         ProviderUtil.setSqlArgs(params, valueArray);
 
 
-        return DialectFactory.getDialect().forSelectListByQuery(queryWrapper);
+        return ProviderUtil.getDialect(params).forSelectListByQuery(queryWrapper);
     }
 
     /**
@@ -265,7 +276,7 @@ public class RowSqlProvider {
         Object[] valueArray = CPI.getValueArray(queryWrapper);
         ProviderUtil.setSqlArgs(params, valueArray);
 
-        return DialectFactory.getDialect().forSelectCountByQuery(queryWrapper);
+        return ProviderUtil.getDialect(params).forSelectCountByQuery(queryWrapper);
     }
 
 
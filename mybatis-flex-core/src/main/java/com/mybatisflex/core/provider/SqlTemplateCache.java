@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.provider;
+
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.table.TableInfo;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Entity 的 SQL 模板缓存
+ * 同一个 TableInfo + 方言 + 语句类型 + 列组合 所生成的 SQL 是完全一样的，缓存后不再重复构建
+ * 方言以实例作为 key，通过 DialectFactory.registerDialect 覆盖方言后不会读取到旧的 SQL
+ */
+class SqlTemplateCache {
+
+    static final String INSERT = "insert";
+    static final String DELETE_BY_ID = "deleteById";
+    static final String UPDATE = "update";
+    static final String SELECT_ONE_BY_ID = "selectOneById";
+
+    private static final Map<Key, String> sqlMap = new ConcurrentHashMap<>();
+
+    private SqlTemplateCache() {
+    }
+
+
+    /**
+     * 获取缓存的 sql，不存在时通过 sqlBuilder 构建并缓存
+     *
+     * @param tableInfo   表信息
+     * @param dialect     方言
+     * @param kind        语句类型
+     * @param columnShape 参与构建的列组合，与列组合无关的语句传入 null 即可
+     * @param sqlBuilder  sql 构建器
+     * @return sql
+     */
+    static String get(TableInfo tableInfo, IDialect dialect, String kind, BitSet columnShape, Supplier<String> sqlBuilder) {
+        Key key = new Key(tableInfo, dialect, kind, columnShape);
+        String sql = sqlMap.get(key);
+        if (sql == null) {
+            sql = sqlMap.computeIfAbsent(key, k -> sqlBuilder.get());
+        }
+        return sql;
+    }
+
+
+    private static class Key {
+        private final TableInfo tableInfo;
+        private final IDialect dialect;
+        private final String kind;
+        private final BitSet columnShape;
+        private final int hash;
+
+        Key(TableInfo tableInfo, IDialect dialect, String kind, BitSet columnShape) {
+            this.tableInfo = tableInfo;
+            this.dialect = dialect;
+            this.kind = kind;
+            this.columnShape = columnShape;
+            this.hash = Objects.hash(System.identityHashCode(tableInfo), System.identityHashCode(dialect), kind, columnShape);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return tableInfo == key.tableInfo
+                    && dialect == key.dialect
+                    && kind.equals(key.kind)
+                    && Objects.equals(columnShape, key.columnShape);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -44,6 +44,10 @@ public class Brackets extends QueryCondition {
         return this;
     }
 
+    QueryCondition getChildCondition() {
+        return childCondition;
+    }
+
     protected void connectToChild(QueryCondition nextCondition, SqlConnector connector) {
         childCondition.connect(nextCondition, connector);
     }
@@ -54,22 +58,17 @@ public class Brackets extends QueryCondition {
     }
 
     @Override
-    public String toSql(List<QueryTable> queryTables, IDialect dialect) {
-        StringBuilder sql = new StringBuilder();
+    protected void buildConditionSql(StringBuilder sql, List<QueryTable> queryTables, IDialect dialect) {
         if (checkEffective()) {
-            String childSql = childCondition.toSql(queryTables, dialect);
             QueryCondition effectiveBefore = getEffectiveBefore();
             if (effectiveBefore != null) {
-                childSql = effectiveBefore.connector + "(" + childSql + ")";
+                sql.append(effectiveBefore.connector).append('(');
+                childCondition.buildSql(sql, queryTables, dialect);
+                sql.append(')');
+            } else {
+                childCondition.buildSql(sql, queryTables, dialect);
             }
-            sql.append(childSql);
         }
-
-        if (this.next != null) {
-            return sql + next.toSql(queryTables, dialect);
-        }
-
-        return sql.toString();
     }
 
 
@@ -80,6 +80,13 @@ public class CPI {
         return queryWrapper.getWhereQueryCondition();
     }
 
+    /**
+     * 直接替换 where 条件，而不是像 QueryWrapper.where(...) 那样和原有的条件进行拼接
+     */
+    public static void setWhereQueryCondition(QueryWrapper queryWrapper, QueryCondition queryCondition) {
+        queryWrapper.whereQueryCondition = queryCondition;
+    }
+
     public static List<QueryColumn> getGroupByColumns(QueryWrapper queryWrapper) {
         return queryWrapper.getGroupByColumns();
     }
@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.query;
+
+import com.mybatisflex.core.table.TableInfo;
+import com.mybatisflex.core.util.ArrayUtil;
+import com.mybatisflex.core.util.CollectionUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * count 查询的优化
+ */
+public class CountQueryUtil {
+
+    private CountQueryUtil() {
+    }
+
+
+    /**
+     * 是否需要通过 SELECT COUNT(*) FROM (...) 进行 count
+     * group by、having 或 distinct 的查询，需要 count 的是分组或去重后的数据量
+     *
+     * @param queryWrapper 查询条件
+     * @return true 需要
+     */
+    public static boolean isNeedWrapCount(QueryWrapper queryWrapper) {
+        if (CollectionUtil.isNotEmpty(queryWrapper.getGroupByColumns()) || queryWrapper.getHavingQueryCondition() != null) {
+            return true;
+        }
+        List<QueryColumn> selectColumns = queryWrapper.getSelectColumns();
+        if (selectColumns != null) {
+            for (QueryColumn selectColumn : selectColumns) {
+                if (selectColumn instanceof DistinctQueryColumn) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * 获取 SELECT COUNT(*) FROM (...) 子查询中需要的查询列
+     * 只有 distinct 的查询，才需要原有的查询列参与去重；having 中可能会使用查询列的别名，此时也保留原有的查询列
+     * 其他情况查询 1 即可，也避免了 join 查询中同名的列在子查询中重复而报错
+     *
+     * @param queryWrapper 查询条件
+     * @return 需要保留的查询列，返回 null 时查询 1
+     */
+    public static List<QueryColumn> getWrapCountSelectColumns(QueryWrapper queryWrapper) {
+        List<QueryColumn> selectColumns = queryWrapper.getSelectColumns();
+        if (CollectionUtil.isEmpty(selectColumns)) {
+            return null;
+        }
+
+        boolean hasHaving = queryWrapper.getHavingQueryCondition() != null;
+        for (QueryColumn selectColumn : selectColumns) {
+            if (selectColumn instanceof DistinctQueryColumn || (hasHaving && selectColumn.getAlias() != null)) {
+                return selectColumns;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * 获取 count 查询需要的 join，去掉了不会影响数据量的 left join
+     * left join 的表满足以下条件时，count 时可以去掉：
+     * 1. 通过主键（或全部联合主键）进行等值关联，即每条数据最多只会关联到一条数据
+     * 2. 没有在 where 以及其他 join 的 on 条件中使用
+     *
+     * @param queryWrapper 查询条件
+     * @return 生效的 join 列表
+     */
+    public static List<Join> getCountJoins(QueryWrapper queryWrapper) {
+        List<Join> joins = queryWrapper.getJoins();
+        if (CollectionUtil.isEmpty(joins)) {
+            return joins;
+        }
+
+        //从后往前检测，后面的 join 被去掉后，其 on 条件中使用的表也可能可以去掉
+        LinkedList<Join> countJoins = new LinkedList<>();
+        for (int i = joins.size() - 1; i >= 0; i--) {
+            Join join = joins.get(i);
+            if (!join.checkEffective()) {
+                continue;
+            }
+            if (!isRemovableJoin(join, queryWrapper, joins.subList(0, i), countJoins)) {
+                countJoins.addFirst(join);
+            }
+        }
+        return countJoins;
+    }
+
+
+    private static boolean isRemovableJoin(Join join, QueryWrapper queryWrapper, List<Join> beforeJoins, List<Join> afterJoins) {
+        if (!Join.TYPE_LEFT.equals(join.getType()) || join.getQueryTable() instanceof SelectQueryTable) {
+            return false;
+        }
+
+        QueryTable joinTable = join.getQueryTable();
+        TableInfo tableInfo = TableInfo.ofTableName(joinTable.getName());
+        if (tableInfo == null || ArrayUtil.isEmpty(tableInfo.getPrimaryKeys())
+                || !isJoinByPrimaryKeys(join.getOn(), joinTable, tableInfo)) {
+            return false;
+        }
+
+        if (isReferenced(queryWrapper.getWhereQueryCondition(), joinTable, tableInfo)) {
+            return false;
+        }
+
+        List<Join> otherJoins = new ArrayList<>(beforeJoins);
+        otherJoins.addAll(afterJoins);
+        for (Join other : otherJoins) {
+            if (other.checkEffective() && isReferenced(other.getOn(), joinTable, tableInfo)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * on 条件是否只由 AND 连接，且包含 join 表所有主键的等值条件
+     */
+    private static boolean isJoinByPrimaryKeys(QueryCondition on, QueryTable joinTable, TableInfo tableInfo) {
+        Set<String> equalColumns = new HashSet<>();
+        for (QueryCondition condition = on; condition != null; condition = condition.next) {
+            if (condition.getClass() != QueryCondition.class) {
+                return false;
+            }
+            if (condition.next != null && condition.connector != SqlConnector.AND) {
+                return false;
+            }
+            if (!condition.checkEffective() || !QueryCondition.LOGIC_EQUALS.equals(condition.logic)) {
+                continue;
+            }
+
+            boolean columnInJoinTable = isColumnOfTable(condition.column, joinTable);
+            boolean valueInJoinTable = condition.value instanceof QueryColumn && isColumnOfTable((QueryColumn) condition.value, joinTable);
+            if (columnInJoinTable && !valueInJoinTable && !(condition.value instanceof QueryWrapper)) {
+                equalColumns.add(condition.column.getName());
+            } else if (valueInJoinTable && !columnInJoinTable) {
+                equalColumns.add(((QueryColumn) condition.value).getName());
+            }
+        }
+        return equalColumns.containsAll(Arrays.asList(tableInfo.getPrimaryKeys()));
+    }
+
+
+    /**
+     * 条件中是否可能使用了 join 的表，无法分析的条件（例如字符串条件、子查询）都视为使用了
+     */
+    private static boolean isReferenced(QueryCondition condition, QueryTable joinTable, TableInfo tableInfo) {
+        for (; condition != null; condition = condition.next) {
+            if (!condition.checkEffective()) {
+                continue;
+            }
+            if (condition instanceof Brackets) {
+                if (isReferenced(((Brackets) condition).getChildCondition(), joinTable, tableInfo)) {
+                    return true;
+                }
+            } else if (condition instanceof OperatorQueryCondition) {
+                if (isReferenced(((OperatorQueryCondition) condition).getChild(), joinTable, tableInfo)) {
+                    return true;
+                }
+            } else if (condition.getClass() != QueryCondition.class
+                    || condition.value instanceof QueryWrapper
+                    || mayReference(condition.column, joinTable, tableInfo)
+                    || (condition.value instanceof QueryColumn && mayReference((QueryColumn) condition.value, joinTable, tableInfo))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static boolean mayReference(QueryColumn column, QueryTable joinTable, TableInfo tableInfo) {
+        if (column == null) {
+            return false;
+        }
+        if (column instanceof FunctionQueryColumn) {
+            return mayReference(((FunctionQueryColumn) column).getColumn(), joinTable, tableInfo);
+        }
+        if (column.getClass() != QueryColumn.class) {
+            return true;
+        }
+        //没有指定表的列，只要 join 的表有此列，就视为使用了
+        if (column.getTable() == null) {
+            return ArrayUtil.contains(tableInfo.getPrimaryKeys(), column.getName())
+                    || ArrayUtil.contains(tableInfo.getColumns(), column.getName());
+        }
+        return isColumnOfTable(column, joinTable);
+    }
+
+
+    private static boolean isColumnOfTable(QueryColumn column, QueryTable table) {
+        if (column == null || column.getClass() != QueryColumn.class || column.getTable() == null) {
+            return false;
+        }
+        String columnTable = column.getTable().getName();
+        return Objects.equals(columnTable, table.getName()) || (table.alias != null && table.alias.equals(columnTable));
+    }
+}
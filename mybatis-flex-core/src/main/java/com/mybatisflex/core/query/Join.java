@@ -60,6 +60,14 @@ public class Join implements Serializable {
         return queryTable;
     }
 
+    String getType() {
+        return type;
+    }
+
+    QueryCondition getOn() {
+        return on;
+    }
+
 
     public void on(QueryCondition condition) {
         this.on = condition;
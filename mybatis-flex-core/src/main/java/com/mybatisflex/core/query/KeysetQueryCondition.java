@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.query;
+
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.util.ArrayUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * keyset 分页（seek 分页）的条件，根据上一页最后一条数据的排序字段值，查询其后面的数据
+ * <p>
+ * 所有排序方向相同且数据库支持行值比较时，生成：(k1, k2) > (?, ?)
+ * 否则生成：(k1 >= ? AND (k1 > ? OR (k1 = ? AND k2 > ?)))
+ * 是否支持行值比较由 SqlProvider 根据执行 sql 的 Configuration 的方言设置，需要在获取参数之前设置
+ * <p>
+ * 当前条件会作为 where 的第一个条件，原有的 where 条件会以 AND (...) 的方式拼接在其后面，因此无需修改原有的条件
+ */
+public class KeysetQueryCondition extends QueryCondition {
+
+    private final List<QueryOrderBy> orderBys;
+    private final Object[] keysetValues;
+    private boolean rowValueComparison;
+    private final QueryCondition whereCondition;
+
+
+    public KeysetQueryCondition(List<QueryOrderBy> orderBys, Object[] keysetValues, QueryCondition whereCondition) {
+        this.orderBys = orderBys;
+        this.keysetValues = keysetValues;
+        this.whereCondition = whereCondition;
+    }
+
+
+    /**
+     * 设置数据库是否支持行值比较，未设置时使用展开的条件，所有数据库都支持
+     *
+     * @param supportRowValueComparison 当前方言是否支持行值比较
+     */
+    public void setSupportRowValueComparison(boolean supportRowValueComparison) {
+        this.rowValueComparison = supportRowValueComparison && orderBys.size() > 1 && isSameDirection(orderBys);
+    }
+
+
+    private static boolean isSameDirection(List<QueryOrderBy> orderBys) {
+        boolean desc = orderBys.get(0).isDesc();
+        for (QueryOrderBy orderBy : orderBys) {
+            if (orderBy.isDesc() != desc) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    @Override
+    public Object getValue() {
+        Object[] values;
+        if (rowValueComparison || orderBys.size() == 1) {
+            values = keysetValues;
+        } else {
+            List<Object> list = new ArrayList<>();
+            list.add(keysetValues[0]);
+            for (int i = 0; i < orderBys.size(); i++) {
+                for (int j = 0; j <= i; j++) {
+                    list.add(keysetValues[j]);
+                }
+            }
+            values = list.toArray();
+        }
+        return whereCondition == null ? values : ArrayUtil.concat(values, WrapperUtil.getValues(whereCondition));
+    }
+
+
+    @Override
+    protected void buildConditionSql(StringBuilder sql, List<QueryTable> queryTables, IDialect dialect) {
+        if (rowValueComparison) {
+            sql.append('(');
+            for (int i = 0; i < orderBys.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(columnSql(i, queryTables, dialect));
+            }
+            sql.append(") ").append(logic(0)).append(" (");
+            for (int i = 0; i < orderBys.size(); i++) {
+                sql.append(i > 0 ? ", ?" : "?");
+            }
+            sql.append(')');
+        } else if (orderBys.size() == 1) {
+            sql.append(columnSql(0, queryTables, dialect)).append(' ').append(logic(0)).append(" ?");
+        } else {
+            //首列的范围条件，让数据库可以使用索引进行范围扫描
+            sql.append('(').append(columnSql(0, queryTables, dialect))
+                    .append(orderBys.get(0).isDesc() ? " <= ?" : " >= ?").append(" AND (");
+            for (int i = 0; i < orderBys.size(); i++) {
+                if (i > 0) {
+                    sql.append(" OR ");
+                }
+                sql.append('(');
+                for (int j = 0; j < i; j++) {
+                    sql.append(columnSql(j, queryTables, dialect)).append(" = ? AND ");
+                }
+                sql.append(columnSql(i, queryTables, dialect)).append(' ').append(logic(i)).append(" ?)");
+            }
+            sql.append("))");
+        }
+
+        if (whereCondition != null) {
+            int start = sql.length();
+            sql.append(" AND (");
+            whereCondition.buildSql(sql, queryTables, dialect);
+            if (WrapperUtil.isBlank(sql, start + 6)) {
+                sql.setLength(start);
+            } else {
+                sql.append(')');
+            }
+        }
+    }
+
+
+    private String columnSql(int index, List<QueryTable> queryTables, IDialect dialect) {
+        return orderBys.get(index).getQueryColumn().toConditionSql(queryTables, dialect);
+    }
+
+    private String logic(int index) {
+        return orderBys.get(index).isDesc() ? LOGIC_LT : LOGIC_GT;
+    }
+
+
+    @Override
+    public String toString() {
+        return "KeysetQueryCondition{" +
+                "orderBys=" + orderBys +
+                ", rowValueComparison=" + rowValueComparison +
+                ", whereCondition=" + whereCondition +
+                '}';
+    }
+}
@@ -16,7 +16,6 @@
 package com.mybatisflex.core.query;
 
 import com.mybatisflex.core.dialect.IDialect;
-import com.mybatisflex.core.util.StringUtil;
 
 import java.util.List;
 
@@ -34,31 +33,34 @@ public class OperatorQueryCondition extends QueryCondition {
         this.child = child;
     }
 
-    @Override
-    public String toSql(List<QueryTable> queryTables, IDialect dialect) {
-        StringBuilder sql = new StringBuilder();
+    QueryCondition getChild() {
+        return child;
+    }
 
+    @Override
+    protected void buildConditionSql(StringBuilder sql, List<QueryTable> queryTables, IDialect dialect) {
         //检测是否生效
         if (checkEffective()) {
-            String childSql = child.toSql(queryTables, dialect);
-            if (StringUtil.isNotBlank(childSql)) {
-                QueryCondition effectiveBefore = getEffectiveBefore();
-                if (effectiveBefore != null) {
-                    sql.append(effectiveBefore.connector);
-                }
-                sql.append(operator).append("(").append(childSql).append(")");
+            int start = sql.length();
+            QueryCondition effectiveBefore = getEffectiveBefore();
+            if (effectiveBefore != null) {
+                sql.append(effectiveBefore.connector);
             }
-        }
+            sql.append(operator).append('(');
+            int childStart = sql.length();
+            child.buildSql(sql, queryTables, dialect);
 
-        if (this.next != null) {
-            return sql + next.toSql(queryTables, dialect);
+            //子条件没有内容时，不构建当前条件
+            if (WrapperUtil.isBlank(sql, childStart)) {
+                sql.setLength(start);
+            } else {
+                sql.append(')');
+            }
         }
-
-        return sql.toString();
     }
 
     @Override
     public Object getValue() {
-        return WrapperUtil.getValues(child);
+        return checkEffective() ? WrapperUtil.getValues(child) : null;
     }
 }
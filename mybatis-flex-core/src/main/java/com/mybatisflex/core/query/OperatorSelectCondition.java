@@ -36,9 +36,7 @@ public class OperatorSelectCondition extends QueryCondition {
     }
 
     @Override
-    public String toSql(List<QueryTable> queryTables, IDialect dialect) {
-        StringBuilder sql = new StringBuilder();
-
+    protected void buildConditionSql(StringBuilder sql, List<QueryTable> queryTables, IDialect dialect) {
         //检测是否生效
         if (checkEffective()) {
             String childSql = dialect.buildSelectSql(queryWrapper);
@@ -51,12 +49,6 @@ public class OperatorSelectCondition extends QueryCondition {
                 sql.append(operator).append("(").append(childSql).append(")");
             }
         }
-
-        if (this.next != null) {
-            return sql + next.toSql(queryTables, dialect);
-        }
-
-        return sql.toString();
     }
 
     @Override
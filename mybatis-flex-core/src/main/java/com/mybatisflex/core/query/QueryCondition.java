@@ -166,17 +166,43 @@ public class QueryCondition implements Serializable {
 
 
     protected void connect(QueryCondition nextCondition, SqlConnector connector) {
-        if (this.next != null) {
-            this.next.connect(nextCondition, connector);
-        } else {
-            this.next = nextCondition;
-            this.connector = connector;
-            nextCondition.before = this;
+        //循环找到最后一个条件，条件很多时避免递归过深
+        QueryCondition last = this;
+        while (last.next != null) {
+            last = last.next;
         }
+        last.next = nextCondition;
+        last.connector = connector;
+        nextCondition.before = last;
     }
 
+
     public String toSql(List<QueryTable> queryTables, IDialect dialect) {
-        StringBuilder sql = new StringBuilder();
+        int count = 0;
+        for (QueryCondition condition = this; condition != null; condition = condition.next) {
+            count++;
+        }
+        StringBuilder sql = new StringBuilder(count * 32);
+        buildSql(sql, queryTables, dialect);
+        return sql.toString();
+    }
+
+
+    /**
+     * 把当前条件以及其后面连接的所有条件的 sql 追加到 sql 中
+     * 通过循环（而非递归）遍历后面的条件，所有条件共用一个 StringBuilder
+     */
+    public void buildSql(StringBuilder sql, List<QueryTable> queryTables, IDialect dialect) {
+        for (QueryCondition condition = this; condition != null; condition = condition.next) {
+            condition.buildConditionSql(sql, queryTables, dialect);
+        }
+    }
+
+
+    /**
+     * 只构建当前条件的 sql（包含与前一个条件的连接符），子类通过重写此方法构建自己的 sql
+     */
+    protected void buildConditionSql(StringBuilder sql, List<QueryTable> queryTables, IDialect dialect) {
         //检测是否生效
         if (checkEffective()) {
             QueryCondition effectiveBefore = getEffectiveBefore();
@@ -197,23 +223,15 @@ public class QueryCondition implements Serializable {
                 appendQuestionMark(sql, calculateQuestionMarkCount());
             }
         }
-
-        if (this.next != null) {
-            return sql + next.toSql(queryTables, dialect);
-        }
-
-        return sql.toString();
     }
 
 
     protected QueryCondition getEffectiveBefore() {
-        if (before != null && before.checkEffective()) {
-            return before;
-        } else if (before != null) {
-            return before.getEffectiveBefore();
-        } else {
-            return null;
+        QueryCondition effectiveBefore = before;
+        while (effectiveBefore != null && !effectiveBefore.checkEffective()) {
+            effectiveBefore = effectiveBefore.before;
         }
+        return effectiveBefore;
     }
 
 
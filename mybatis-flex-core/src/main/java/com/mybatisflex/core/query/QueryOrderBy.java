@@ -47,6 +47,19 @@ public class QueryOrderBy implements Serializable {
     }
 
 
+    public QueryColumn getQueryColumn() {
+        return queryColumn;
+    }
+
+    public String getOrderType() {
+        return orderType;
+    }
+
+    public boolean isDesc() {
+        return "DESC".equalsIgnoreCase(orderType);
+    }
+
+
     public QueryOrderBy nullsFirst() {
         this.nullsFirst = true;
         this.nullsLast = false;
@@ -38,9 +38,7 @@ public class StringQueryCondition extends QueryCondition {
     }
 
     @Override
-    public String toSql(List<QueryTable> queryTables, IDialect dialect) {
-        StringBuilder sql = new StringBuilder();
-
+    protected void buildConditionSql(StringBuilder sql, List<QueryTable> queryTables, IDialect dialect) {
         //检测是否生效
         if (checkEffective()) {
             QueryCondition effectiveBefore = getEffectiveBefore();
@@ -49,11 +47,5 @@ public class StringQueryCondition extends QueryCondition {
             }
             sql.append(" ").append(sqlContent).append(" ");
         }
-
-        if (this.next != null) {
-            return sql + next.toSql(queryTables, dialect);
-        }
-
-        return sql.toString();
     }
 }
@@ -19,8 +19,8 @@ package com.mybatisflex.core.query;
 import com.mybatisflex.core.util.CollectionUtil;
 import com.mybatisflex.core.util.StringUtil;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 
 class WrapperUtil {
@@ -37,19 +37,31 @@ class WrapperUtil {
             return NULL_PARA_ARRAY;
         }
 
-        List<Object> paras = new LinkedList<>();
-        getValues(condition, paras);
+        List<Object> paras = new ArrayList<>();
+        addValues(condition, paras);
 
         return paras.isEmpty() ? NULL_PARA_ARRAY : paras.toArray();
     }
 
 
-    private static void getValues(QueryCondition condition, List<Object> paras) {
-        if (condition == null) {
-            return;
-        }
-        Object value = condition.getValue();
-        if (value != null) {
+    /**
+     * 循环收集当前条件以及后面连接的所有条件的参数
+     * 括号中的子条件直接收集到 paras 中，无需为其创建中间数组
+     */
+    private static void addValues(QueryCondition condition, List<Object> paras) {
+        for (; condition != null; condition = condition.next) {
+            if (condition instanceof Brackets) {
+                if (condition.checkEffective()) {
+                    addValues(((Brackets) condition).getChildCondition(), paras);
+                }
+                continue;
+            }
+
+            Object value = condition.getValue();
+            if (value == null) {
+                continue;
+            }
+
             if (value.getClass().isArray()) {
                 Object[] values = (Object[]) value;
                 for (Object v : values) {
@@ -70,8 +82,19 @@ class WrapperUtil {
                 paras.add(value);
             }
         }
+    }
+
 
-        getValues(condition.next, paras);
+    /**
+     * sql 从 start 开始的内容是否为空白
+     */
+    static boolean isBlank(CharSequence sql, int start) {
+        for (int i = start; i < sql.length(); i++) {
+            if (!Character.isWhitespace(sql.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
 
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.row;
+
+import com.mybatisflex.core.async.AsyncExecutor;
+import com.mybatisflex.core.paginate.Page;
+import com.mybatisflex.core.query.QueryWrapper;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * {@link RowMapperInvoker} 的异步版本，通过 {@link Db#async()} 或者 {@link RowMapperInvoker#async()} 获取
+ * 每个方法都在 {@link AsyncExecutor} 中使用独立的连接执行，因此不在调用线程的事务中，适合并行执行互不依赖的查询
+ */
+public class AsyncRowMapperInvoker {
+
+    private final RowMapperInvoker invoker;
+    private final AsyncExecutor asyncExecutor;
+
+    public AsyncRowMapperInvoker(RowMapperInvoker invoker, AsyncExecutor asyncExecutor) {
+        this.invoker = invoker;
+        this.asyncExecutor = asyncExecutor;
+    }
+
+
+    public AsyncExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+
+    /**
+     * 异步执行任意 RowMapperInvoker 的方法，例如：submit(invoker -> invoker.selectAll("tb_account"))
+     */
+    public <R> CompletableFuture<R> submit(Function<RowMapperInvoker, R> function) {
+        return asyncExecutor.submit(() -> function.apply(invoker));
+    }
+
+
+    public CompletableFuture<Integer> insertBySql(String sql, Object... args) {
+        return submit(i -> i.insertBySql(sql, args));
+    }
+
+    public CompletableFuture<Integer> insertRow(String tableName, Row row) {
+        return submit(i -> i.insertRow(tableName, row));
+    }
+
+    public CompletableFuture<int[]> insertBatch(String tableName, Collection<Row> rows, int batchSize) {
+        return submit(i -> i.insertBatch(tableName, rows, batchSize));
+    }
+
+    public CompletableFuture<Integer> deleteBySql(String sql, Object... args) {
+        return submit(i -> i.deleteBySql(sql, args));
+    }
+
+    public CompletableFuture<Integer> deleteById(String tableName, String primaryKey, Object id) {
+        return submit(i -> i.deleteById(tableName, primaryKey, id));
+    }
+
+    public CompletableFuture<Integer> deleteByQuery(String tableName, QueryWrapper queryWrapper) {
+        return submit(i -> i.deleteByQuery(tableName, queryWrapper));
+    }
+
+    public CompletableFuture<Integer> updateBySql(String sql, Object... args) {
+        return submit(i -> i.updateBySql(sql, args));
+    }
+
+    public CompletableFuture<Integer> updateById(String tableName, Row row) {
+        return submit(i -> i.updateById(tableName, row));
+    }
+
+    public CompletableFuture<Integer> updateByQuery(String tableName, Row data, QueryWrapper queryWrapper) {
+        return submit(i -> i.updateByQuery(tableName, data, queryWrapper));
+    }
+
+    public CompletableFuture<Row> selectOneBySql(String sql, Object... args) {
+        return submit(i -> i.selectOneBySql(sql, args));
+    }
+
+    public CompletableFuture<Row> selectOneById(String tableName, Row row) {
+        return submit(i -> i.selectOneById(tableName, row));
+    }
+
+    public CompletableFuture<Row> selectOneById(String tableName, String primaryKey, Object id) {
+        return submit(i -> i.selectOneById(tableName, primaryKey, id));
+    }
+
+    public CompletableFuture<Row> selectOneByMap(String tableName, Map whereColumns) {
+        return submit(i -> i.selectOneByMap(tableName, whereColumns));
+    }
+
+    public CompletableFuture<Row> selectOneByQuery(String tableName, QueryWrapper queryWrapper) {
+        return submit(i -> i.selectOneByQuery(tableName, queryWrapper));
+    }
+
+    public CompletableFuture<List<Row>> selectListBySql(String sql, Object... args) {
+        return submit(i -> i.selectListBySql(sql, args));
+    }
+
+    public CompletableFuture<List<Row>> selectListByMap(String tableName, Map<String, Object> whereColumns) {
+        return submit(i -> i.selectListByMap(tableName, whereColumns));
+    }
+
+    public CompletableFuture<List<Row>> selectListByQuery(String tableName, QueryWrapper queryWrapper) {
+        return submit(i -> i.selectListByQuery(tableName, queryWrapper));
+    }
+
+    public CompletableFuture<List<Row>> selectAll(String tableName) {
+        return submit(i -> i.selectAll(tableName));
+    }
+
+    public CompletableFuture<Object> selectObject(String sql, Object... args) {
+        return submit(i -> i.selectObject(sql, args));
+    }
+
+    public CompletableFuture<List<Object>> selectObjectList(String sql, Object... args) {
+        return submit(i -> i.selectObjectList(sql, args));
+    }
+
+    public CompletableFuture<Long> selectCount(String sql, Object... args) {
+        return submit(i -> i.selectCount(sql, args));
+    }
+
+    public CompletableFuture<Long> selectCountByQuery(String tableName, QueryWrapper queryWrapper) {
+        return submit(i -> i.selectCountByQuery(tableName, queryWrapper));
+    }
+
+    public CompletableFuture<Page<Row>> paginate(String tableName, int pageNumber, int pageSize, QueryWrapper queryWrapper) {
+        return submit(i -> i.paginate(tableName, pageNumber, pageSize, queryWrapper));
+    }
+
+    public CompletableFuture<Page<Row>> paginate(String tableName, Page<Row> page, QueryWrapper queryWrapper) {
+        return submit(i -> i.paginate(tableName, page, queryWrapper));
+    }
+}
@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 /**
  * 针对 RowMapper 的静态方法进行封装
@@ -49,6 +50,23 @@ public class Db {
         });
     }
 
+    /**
+     * 获取默认数据源的异步 invoker，例如：Db.async().selectListByQuery("tb_account", query).thenAccept(...)
+     * 异步执行的 sql 不在调用线程的事务中
+     */
+    public static AsyncRowMapperInvoker async() {
+        return invoker().async();
+    }
+
+    /**
+     * 获取指定数据源的异步 invoker
+     *
+     * @param environmentId 数据源 id
+     */
+    public static AsyncRowMapperInvoker async(String environmentId) {
+        return invoker(environmentId).async();
+    }
+
     /**
      * 直接编写 sql 插入数据
      *
@@ -80,11 +98,13 @@ public class Db {
     }
 
     /**
-     * 批量插入数据
+     * 批量插入数据，通过 JDBC batch 执行，每 batchSize 条数据提交一次
+     * 按照 rows 的顺序执行，连续的、列组合相同的 row 会复用同一个 PreparedStatement
      *
      * @param tableName 表名
      * @param rows      数据
      * @param batchSize 每次提交的数据量
+     * @return 每条 row 的影响行数，和 rows 的顺序一致
      */
     public static int[] insertBatch(String tableName, Collection<Row> rows, int batchSize) {
         return invoker().insertBatch(tableName, rows, batchSize);
@@ -92,6 +112,7 @@ public class Db {
 
     /**
      * 批量插入数据，根据第一条内容来构建插入的字段，效率比 {@link #insertBatch(String, Collection, int)} 高
+     * 会根据当前数据库方言的参数数量限制，自动分为多条 INSERT 语句执行
      *
      * @param tableName 表名
      * @param rows      数据
@@ -210,6 +231,7 @@ public class Db {
 
     /**
      * 根据主键来批量更新数据
+     * 通过 JDBC 的 addBatch/executeBatch 批量执行，按照 rows 的顺序执行，连续的、列组合相同的 row 会复用同一个 PreparedStatement
      *
      * @param tableName 表名
      * @param rows      还有主键的数据
@@ -316,6 +338,32 @@ public class Db {
         return invoker().selectAll(tableName);
     }
 
+    /**
+     * 通过游标逐条读取 query 查询的数据，内存占用与数据量无关，用于大表的导出等场景
+     * 返回的 Stream 持有数据库连接，使用完毕后必须关闭，例如：
+     * <pre>
+     * try (Stream&lt;Row&gt; rows = Db.stream("tb_account", queryWrapper)) {
+     *     rows.forEach(...);
+     * }
+     * </pre>
+     *
+     * @param tableName    表名
+     * @param queryWrapper query 条件
+     * @see com.mybatisflex.core.dialect.IDialect#getCursorFetchSize()
+     */
+    public static Stream<Row> stream(String tableName, QueryWrapper queryWrapper) {
+        return invoker().stream(tableName, queryWrapper);
+    }
+
+    /**
+     * 通过游标逐条读取某张表的所有数据，返回的 Stream 使用完毕后必须关闭
+     *
+     * @param tableName 表名
+     */
+    public static Stream<Row> stream(String tableName) {
+        return invoker().stream(tableName, new QueryWrapper());
+    }
+
     /**
      * 查询某个内容，数据返回的应该只有 1 行 1 列
      *
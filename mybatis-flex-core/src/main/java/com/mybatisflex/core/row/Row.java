@@ -29,7 +29,7 @@ public class Row extends HashMap<String, Object> implements ModifyAttrsRecord {
     private static final Object[] NULL_ARGS = new Object[0];
 
     //主键，多个主键用英文逗号隔开
-    private RowKey[] primaryKeys;
+    RowKey[] primaryKeys;
 
     public static Row of(String key, Object value) {
         Row row = new Row();
@@ -37,10 +37,13 @@ public class Row extends HashMap<String, Object> implements ModifyAttrsRecord {
     }
 
 
-    private Set<String> modifyAttrs = new LinkedHashSet<>();
+    private Set<String> modifyAttrs;
 
     @Override
     public Set<String> getModifyAttrs() {
+        if (modifyAttrs == null) {
+            modifyAttrs = new LinkedHashSet<>();
+        }
         return modifyAttrs;
     }
 
@@ -126,7 +129,7 @@ public class Row extends HashMap<String, Object> implements ModifyAttrsRecord {
 
 
     public Object get(Object key, Object defaultValue) {
-        Object result = super.get(key);
+        Object result = get(key);
         return result != null ? result : defaultValue;
     }
 
@@ -168,7 +171,7 @@ public class Row extends HashMap<String, Object> implements ModifyAttrsRecord {
         }
 
         clearModifyFlag();
-        modifyAttrs.addAll(attrs);
+        getModifyAttrs().addAll(attrs);
     }
 
     /**
@@ -178,6 +181,7 @@ public class Row extends HashMap<String, Object> implements ModifyAttrsRecord {
      * @return values 数组
      */
     public Object[] obtainModifyValues() {
+        Set<String> modifyAttrs = getModifyAttrs();
         Object[] values = new Object[modifyAttrs.size()];
         int index = 0;
         for (String modifyAttr : modifyAttrs) {
@@ -218,4 +222,17 @@ public class Row extends HashMap<String, Object> implements ModifyAttrsRecord {
     }
 
 
+    /**
+     * 复制 row，保留主键的配置，修改过的列不与原 row 共享
+     */
+    @Override
+    public Object clone() {
+        Row row = (Row) super.clone();
+        if (modifyAttrs != null) {
+            row.modifyAttrs = new LinkedHashSet<>(modifyAttrs);
+        }
+        return row;
+    }
+
+
 }
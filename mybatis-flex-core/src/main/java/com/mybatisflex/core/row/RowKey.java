@@ -18,6 +18,8 @@ package com.mybatisflex.core.row;
 import com.mybatisflex.annotation.KeyType;
 import com.mybatisflex.core.util.SqlUtil;
 
+import java.util.Objects;
+
 /**
  * row 的主键策略
  */
@@ -33,6 +35,11 @@ public class RowKey {
      */
     public static final RowKey ID_UUID = RowKey.of("id", KeyType.Generator, "uuid", true);
 
+    /**
+     * 雪花算法的 ID
+     */
+    public static final RowKey ID_SNOWFLAKE = RowKey.of("id", KeyType.Generator, "snowflake", true);
+
 
     public static RowKey of(String keyColumn) {
         SqlUtil.keepColumnSafely(keyColumn);
@@ -109,4 +116,25 @@ public class RowKey {
     }
 
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RowKey rowKey = (RowKey) o;
+        return before == rowKey.before
+                && Objects.equals(keyColumn, rowKey.keyColumn)
+                && keyType == rowKey.keyType
+                && Objects.equals(value, rowKey.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(keyColumn, keyType, value, before);
+    }
+
+
 }
@@ -17,13 +17,13 @@ package com.mybatisflex.core.row;
 
 import com.mybatisflex.core.FlexConsts;
 import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.paginate.KeysetUtil;
 import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.provider.RowSqlProvider;
-import com.mybatisflex.core.query.CPI;
-import com.mybatisflex.core.query.QueryColumn;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.util.StringUtil;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.exceptions.TooManyResultsException;
 
 import java.util.Collection;
@@ -204,18 +204,25 @@ public interface RowMapper {
 
 
     /**
-     * 根据主键来批量更新数据
+     * 根据主键来批量更新数据，每条数据执行一次 {@link #updateById(String, Row)}
      * 注意：
-     * 1、此方法需要在 mysql 等链接配置需要开启 allowMultiQueries=true
-     * 2、更新成功返回的结果也可能为 0
+     * 1、在 ExecutorType.BATCH 的 SqlSession 中执行时，会通过 JDBC 的 addBatch/executeBatch 批量执行，此时返回的结果不是影响的行数
+     * 2、推荐使用 {@link Db#updateBatchById(String, List)}，其会自动使用 BATCH 模式，并按照 rows 的顺序，让连续的、列组合相同的 row 复用同一个 PreparedStatement
      *
      * @param tableName 表名
      * @param rows      数据，其必须包含主键数据列名和值
      * @return 执行影响的行数
-     * @see RowSqlProvider#updateBatchById(Map)
      */
-    @UpdateProvider(value = RowSqlProvider.class, method = "updateBatchById")
-    int updateBatchById(@Param(FlexConsts.TABLE_NAME) String tableName, @Param(FlexConsts.ROWS) List<Row> rows);
+    default int updateBatchById(String tableName, List<Row> rows) {
+        if (rows == null || rows.isEmpty()) {
+            throw FlexExceptions.wrap("rows can not be null or empty.");
+        }
+        int total = 0;
+        for (Row row : rows) {
+            total += updateById(tableName, row);
+        }
+        return total;
+    }
 
     ///////select /////
 
@@ -326,6 +333,19 @@ public interface RowMapper {
     List<Row> selectListByQuery(@Param(FlexConsts.TABLE_NAME) String tableName, @Param(FlexConsts.QUERY) QueryWrapper queryWrapper);
 
 
+    /**
+     * 根据 queryWrapper 来查询，通过游标逐条读取 row，游标需要在 SqlSession 关闭前读取完毕
+     *
+     * @param tableName    表名
+     * @param queryWrapper queryWrapper
+     * @return row 游标
+     * @see RowSqlProvider#selectListByQuery(Map)
+     * @see Db#stream(String, QueryWrapper)
+     */
+    @SelectProvider(value = RowSqlProvider.class, method = "selectListByQuery")
+    Cursor<Row> selectCursorByQuery(@Param(FlexConsts.TABLE_NAME) String tableName, @Param(FlexConsts.QUERY) QueryWrapper queryWrapper);
+
+
     /**
      * 查询某张表的全部数据
      *
@@ -408,32 +428,30 @@ public interface RowMapper {
      * 分页查询数据
      *
      * @param tableName    表名
-     * @param page         page 封装类
+     * @param page         page 封装类，可以通过 {@link Page#ofKeyset(int, Object...)} 使用 keyset 分页
      * @param queryWrapper 条件
      * @return
      */
     default Page<Row> paginate(String tableName, Page<Row> page, QueryWrapper queryWrapper) {
-
-
-        List<QueryColumn> groupByColumns = CPI.getGroupByColumns(queryWrapper);
-
         // 只有 totalRow 小于 0 的时候才会去查询总量
         // 这样方便用户做总数缓存，而非每次都要去查询总量
         // 一般的分页场景中，只有第一页的时候有必要去查询总量，第二页以后是不需要的
+        // group by 等查询会通过子查询 count 分组后的数据量，参考 CountQueryUtil
         if (page.getTotalRow() < 0) {
-
-            //清除group by 去查询数据
-            CPI.setGroupByColumns(queryWrapper, null);
             long count = selectCountByQuery(tableName, queryWrapper);
             page.setTotalRow(count);
         }
 
-        if (page.getTotalRow() == 0 || page.getPageNumber() > page.getTotalPage()) {
+        if (page.getTotalRow() == 0 || (!page.isKeyset() && page.getPageNumber() > page.getTotalPage())) {
+            return page;
+        }
+
+        //keyset 分页，通过上一页最后一条数据的排序字段值定位，而不是 offset
+        if (page.isKeyset()) {
+            KeysetUtil.selectPage(page, queryWrapper, wrapper -> selectListByQuery(tableName, wrapper));
             return page;
         }
 
-        //恢复数量查询清除的 groupBy
-        CPI.setGroupByColumns(queryWrapper, groupByColumns);
         int offset = page.getPageSize() * (page.getPageNumber() - 1);
         queryWrapper.limit(offset, page.getPageSize());
         List<Row> rows = selectListByQuery(tableName, queryWrapper);
@@ -16,29 +16,57 @@
 package com.mybatisflex.core.row;
 
 import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.async.AsyncExecutor;
+import com.mybatisflex.core.cache.RowQueryCache;
 import com.mybatisflex.core.dialect.DbType;
 import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.dialect.IDialect;
+import com.mybatisflex.core.exception.FlexExceptions;
+import com.mybatisflex.core.metrics.StatementMetrics;
+import com.mybatisflex.core.paginate.KeysetUtil;
 import com.mybatisflex.core.paginate.Page;
+import com.mybatisflex.core.paginate.PageCountCache;
+import com.mybatisflex.core.query.CPI;
 import com.mybatisflex.core.query.QueryWrapper;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class RowMapperInvoker {
 
     private final SqlSessionFactory sqlSessionFactory;
     private final DbType dbType;
+    private final String environmentId;
     private RowSessionManager rowSessionManager = RowSessionManager.DEFAULT;
 
+    //查询结果的缓存，为 null 时不缓存
+    private RowQueryCache queryCache;
+
+    //分页查询时数据总量的缓存，为 null 时不缓存
+    private PageCountCache pageCountCache;
+
+    //分页查询时执行 count 查询的线程池，不为 null 时 count 和数据查询会使用不同的连接并行执行
+    private Executor paginateExecutor;
+
+    //异步执行的 invoker，第一次调用 async() 时创建
+    private volatile AsyncRowMapperInvoker asyncInvoker;
+
     public RowMapperInvoker(SqlSessionFactory sqlSessionFactory) {
         this.sqlSessionFactory = sqlSessionFactory;
         this.dbType = FlexGlobalConfig.getConfig(sqlSessionFactory.getConfiguration()).getDbType();
+        this.environmentId = sqlSessionFactory.getConfiguration().getEnvironment().getId();
     }
 
     public RowSessionManager getRowSessionManager() {
@@ -49,19 +77,112 @@ public class RowMapperInvoker {
         this.rowSessionManager = rowSessionManager;
     }
 
+    public PageCountCache getPageCountCache() {
+        return pageCountCache;
+    }
+
+    public void setPageCountCache(PageCountCache pageCountCache) {
+        this.pageCountCache = pageCountCache;
+    }
+
+    public RowQueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * 设置查询结果的缓存，设置后 selectListBySql、selectListByQuery、selectObject 和 selectObjectList
+     * 的结果会被缓存，通过 Mybatis-Flex（Db 或者 Mapper）修改某个表的数据时，会清除该表相关的缓存，
+     * 缓存的清除由 {@link com.mybatisflex.core.mybatis.EntityCacheExecutor} 完成，需要在执行 sql 之前设置，
+     * 设置之前已经创建的 SqlSession（例如正在执行的事务）中的修改不会清除缓存
+     */
+    public void setQueryCache(RowQueryCache queryCache) {
+        this.queryCache = queryCache;
+    }
+
+    public Executor getPaginateExecutor() {
+        return paginateExecutor;
+    }
+
+    /**
+     * 设置分页查询时执行 count 查询的线程池
+     * 设置后，count 查询会在此线程池中通过另外的连接执行，和数据查询同时进行；
+     * 注意：count 查询不在当前线程的事务中；数据总量为 0 或者页码超出范围时，数据查询一般也已经执行
+     */
+    public void setPaginateExecutor(Executor paginateExecutor) {
+        this.paginateExecutor = paginateExecutor;
+    }
+
+    /**
+     * 获取异步执行的 invoker，使用当前数据源的 {@link FlexGlobalConfig.AsyncConfig} 配置
+     */
+    public AsyncRowMapperInvoker async() {
+        if (asyncInvoker == null) {
+            synchronized (this) {
+                if (asyncInvoker == null) {
+                    FlexGlobalConfig globalConfig = FlexGlobalConfig.getConfig(sqlSessionFactory.getConfiguration());
+                    asyncInvoker = new AsyncRowMapperInvoker(this, AsyncExecutor.of(globalConfig != null ? globalConfig : FlexGlobalConfig.getDefaultConfig()));
+                }
+            }
+        }
+        return asyncInvoker;
+    }
+
     private <R> R execute(Function<RowMapper, R> function) {
         SqlSession sqlSession = rowSessionManager.getSqlSession(sqlSessionFactory);
         try {
-            DialectFactory.setHintDbType(dbType);
             RowMapper mapper = sqlSession.getMapper(RowMapper.class);
             return function.apply(mapper);
         } finally {
-            DialectFactory.clearHintDbType();
             rowSessionManager.releaseSqlSession(sqlSession, sqlSessionFactory);
         }
     }
 
 
+    /**
+     * 执行查询，开启了查询缓存时优先从缓存中获取
+     * 正在未结束的事务中被修改的表，其缓存在修改时已经被清除，并且在事务结束之前不会再放入缓存，参考 {@link com.mybatisflex.core.cache.CacheSynchronizer}
+     *
+     * @param sql       查询的 sql，和 args 一起作为缓存的 key
+     * @param tableName 查询的表，sql 中的表会自动解析
+     */
+    private <R> R executeQuery(String sql, Object[] args, String tableName, Function<RowMapper, R> function) {
+        RowQueryCache queryCache = this.queryCache;
+        if (queryCache == null) {
+            return execute(function);
+        }
+
+        Object cached = queryCache.get(environmentId, sql, args);
+        if (cached != null) {
+            return (R) copyQueryResult(cached);
+        }
+
+        long version = queryCache.getVersion();
+        R result = execute(function);
+        queryCache.put(environmentId, sql, args, tableName != null ? Collections.singletonList(tableName) : null
+                , copyQueryResult(result), version);
+        return result;
+    }
+
+
+    /**
+     * 缓存中的 Row 可能被调用方修改，放入和取出缓存时都进行复制
+     * 复制后的 Row 和原来的 Row 类型相同（例如 SchemaRow），并保留主键的配置
+     */
+    private static Object copyQueryResult(Object result) {
+        if (!(result instanceof List)) {
+            return result;
+        }
+        List<Object> list = new ArrayList<>(((List<?>) result).size());
+        for (Object object : (List<?>) result) {
+            if (object instanceof Row) {
+                object = ((Row) object).clone();
+            }
+            list.add(object);
+        }
+        return list;
+    }
+
+
     public int insertBySql(String sql, Object... args) {
         return execute(mapper -> mapper.insertBySql(sql, args));
     }
@@ -71,36 +192,89 @@ public class RowMapperInvoker {
     }
 
     public int[] insertBatch(String tableName, Collection<Row> rows, int batchSize) {
+        return executeBatch(rows, batchSize, (mapper, row) -> mapper.insertRow(tableName, row));
+    }
+
+
+    /**
+     * 通过 JDBC batch 执行，每 batchSize 条数据 flush 一次
+     * 按照 rows 的顺序执行，BatchExecutor 会为连续的、sql 相同（列组合相同）的 row 复用同一个 PreparedStatement
+     *
+     * @param rows      数据
+     * @param batchSize 每次 flush 的数据量
+     * @param consumer  每条数据的执行方法
+     * @return 每条 row 的影响行数，和 rows 的顺序一致
+     */
+    private int[] executeBatch(Collection<Row> rows, int batchSize, BiConsumer<RowMapper, Row> consumer) {
         int[] results = new int[rows.size()];
+        if (rows.isEmpty()) {
+            return results;
+        }
+        if (batchSize <= 0) {
+            throw FlexExceptions.wrap("batchSize must be greater than 0.");
+        }
+
         SqlSession sqlSession = rowSessionManager.getSqlSession(sqlSessionFactory, ExecutorType.BATCH);
         try {
-            DialectFactory.setHintDbType(dbType);
             RowMapper mapper = sqlSession.getMapper(RowMapper.class);
-            int counter = 0;
             int resultsPos = 0;
+            int i = 0;
             for (Row row : rows) {
-                if (++counter >= batchSize) {
-                    counter = 0;
+                consumer.accept(mapper, row);
+                if (++i % batchSize == 0 || i == results.length) {
                     List<BatchResult> batchResults = sqlSession.flushStatements();
-                    for (BatchResult batchResult : batchResults) {
-                        int[] updateCounts = batchResult.getUpdateCounts();
-                        for (int updateCount : updateCounts) {
-                            results[resultsPos++] = updateCount;
-                        }
+                    if (StatementMetrics.isEnable()) {
+                        StatementMetrics.recordBatch(batchResults);
                     }
-                } else {
-                    mapper.insertRow(tableName, row);
+                    resultsPos = fillBatchResults(batchResults, results, resultsPos);
                 }
             }
         } finally {
-            DialectFactory.clearHintDbType();
             rowSessionManager.releaseSqlSession(sqlSession, sqlSessionFactory);
         }
         return results;
     }
 
+
+    /**
+     * BatchResult 的 updateCounts 和 row 的执行顺序一一对应
+     */
+    private static int fillBatchResults(List<BatchResult> batchResults, int[] results, int resultsPos) {
+        for (BatchResult batchResult : batchResults) {
+            for (int updateCount : batchResult.getUpdateCounts()) {
+                results[resultsPos++] = updateCount;
+            }
+        }
+        return resultsPos;
+    }
+
     public int insertBatchWithFirstRowColumns(String tableName, List<Row> rows) {
-        return execute(mapper -> mapper.insertBatchWithFirstRowColumns(tableName, rows));
+        return execute(mapper -> {
+            if (rows == null || rows.isEmpty()) {
+                return mapper.insertBatchWithFirstRowColumns(tableName, rows);
+            }
+
+            Set<String> modifyAttrs = rows.get(0).obtainModifyAttrs();
+            int size = DialectFactory.getDialect(dbType).getInsertBatchSize(modifyAttrs.size());
+            if (rows.size() <= size) {
+                return mapper.insertBatchWithFirstRowColumns(tableName, rows);
+            }
+
+            //分批执行时，每一批都以第一条数据的列为准
+            Set<String> firstRowAttrs = new LinkedHashSet<>(modifyAttrs);
+            Row firstRow = rows.get(0);
+            rows.forEach(row -> {
+                if (!(row instanceof SchemaRow) || !((SchemaRow) row).isSameModifyColumns(firstRow)) {
+                    row.keepModifyAttrs(firstRowAttrs);
+                }
+            });
+
+            int total = 0;
+            for (int i = 0; i < rows.size(); i += size) {
+                total += mapper.insertBatchWithFirstRowColumns(tableName, rows.subList(i, Math.min(i + size, rows.size())));
+            }
+            return total;
+        });
     }
 
     public int deleteBySql(String sql, Object... args) {
@@ -144,7 +318,18 @@ public class RowMapperInvoker {
     }
 
     public int updateBatchById(String tableName, List<Row> rows) {
-        return execute(mapper -> mapper.updateBatchById(tableName, rows));
+        if (rows == null || rows.isEmpty()) {
+            throw FlexExceptions.wrap("rows can not be null or empty.");
+        }
+        int[] results = executeBatch(rows, rows.size(), (mapper, row) -> mapper.updateById(tableName, row));
+        int total = 0;
+        for (int result : results) {
+            //部分驱动（比如 oracle）批量执行时返回 Statement.SUCCESS_NO_INFO
+            if (result > 0) {
+                total += result;
+            }
+        }
+        return total;
     }
 
     public Row selectOneBySql(String sql, Object... args) {
@@ -168,7 +353,7 @@ public class RowMapperInvoker {
     }
 
     public List<Row> selectListBySql(String sql, Object... args) {
-        return execute(mapper -> mapper.selectListBySql(sql, args));
+        return executeQuery(sql, args, null, mapper -> mapper.selectListBySql(sql, args));
     }
 
     public List<Row> selectListByMap(String tableName, Map<String, Object> whereColumns) {
@@ -176,19 +361,53 @@ public class RowMapperInvoker {
     }
 
     public List<Row> selectListByQuery(String tableName, QueryWrapper queryWrapper) {
-        return execute(mapper -> mapper.selectListByQuery(tableName, queryWrapper));
+        if (queryCache == null) {
+            return execute(mapper -> mapper.selectListByQuery(tableName, queryWrapper));
+        }
+
+        //和 RowSqlProvider.selectListByQuery 一样构建 sql，以 sql 和参数作为缓存的 key
+        queryWrapper.from(tableName);
+        IDialect dialect = DialectFactory.getDialect(dbType);
+        KeysetUtil.resolveRowValueComparison(queryWrapper, dialect);
+        String sql = dialect.forSelectListByQuery(queryWrapper);
+        Object[] args = CPI.getValueArray(queryWrapper);
+        return executeQuery(sql, args, tableName, mapper -> mapper.selectListBySql(sql, args));
     }
 
     public List<Row> selectAll(String tableName) {
         return execute(mapper -> mapper.selectAll(tableName));
     }
 
+    /**
+     * 通过游标查询，SqlSession 在 Stream 关闭时才会释放，因此 Stream 使用完毕后必须关闭
+     */
+    public Stream<Row> stream(String tableName, QueryWrapper queryWrapper) {
+        SqlSession sqlSession = rowSessionManager.getSqlSession(sqlSessionFactory);
+        Cursor<Row> cursor;
+        try {
+            cursor = sqlSession.getMapper(RowMapper.class).selectCursorByQuery(tableName, queryWrapper);
+        } catch (RuntimeException e) {
+            rowSessionManager.releaseSqlSession(sqlSession, sqlSessionFactory);
+            throw e;
+        }
+
+        return StreamSupport.stream(cursor.spliterator(), false).onClose(() -> {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                throw FlexExceptions.wrap(e);
+            } finally {
+                rowSessionManager.releaseSqlSession(sqlSession, sqlSessionFactory);
+            }
+        });
+    }
+
     public Object selectObject(String sql, Object... args) {
-        return execute(mapper -> mapper.selectObject(sql, args));
+        return executeQuery(sql, args, null, mapper -> mapper.selectObject(sql, args));
     }
 
     public List<Object> selectObjectList(String sql, Object... args) {
-        return execute(mapper -> mapper.selectObjectList(sql, args));
+        return executeQuery(sql, args, null, mapper -> mapper.selectObjectList(sql, args));
     }
 
     public long selectCount(String sql, Object... args) {
@@ -200,11 +419,86 @@ public class RowMapperInvoker {
     }
 
     public Page<Row> paginate(String tableName, int pageNumber, int pageSize, QueryWrapper queryWrapper) {
-        return execute(mapper -> mapper.paginate(tableName, pageNumber, pageSize, queryWrapper));
+        return paginate(tableName, new Page<>(pageNumber, pageSize), queryWrapper);
     }
 
     public Page<Row> paginate(String tableName, Page<Row> page, QueryWrapper queryWrapper) {
-        return execute(mapper -> mapper.paginate(tableName, page, queryWrapper));
+        if (page.getTotalRow() >= 0 || (pageCountCache == null && paginateExecutor == null)) {
+            return execute(mapper -> {
+                if (page.getTotalRow() < 0) {
+                    page.setTotalRow(mapper.selectCountByQuery(tableName, queryWrapper));
+                }
+                return selectPageList(mapper, tableName, page, queryWrapper);
+            });
+        }
+
+        //和 RowSqlProvider.selectCountByQuery 一样构建 count sql
+        queryWrapper.from(tableName);
+        String countSql = DialectFactory.getDialect(dbType).forSelectCountByQuery(queryWrapper);
+        Object[] countArgs = CPI.getValueArray(queryWrapper);
+
+        Long cachedCount = pageCountCache != null ? pageCountCache.get(countSql, countArgs) : null;
+        if (cachedCount != null) {
+            page.setTotalRow(cachedCount);
+            return execute(mapper -> selectPageList(mapper, tableName, page, queryWrapper));
+        }
+
+        if (paginateExecutor == null) {
+            page.setTotalRow(selectCountAndCache(countSql, countArgs));
+            return execute(mapper -> selectPageList(mapper, tableName, page, queryWrapper));
+        }
+
+        //count 查询使用 sql 和参数执行，不会访问 queryWrapper，因此可以和数据查询并行
+        //并行时无法预先知道数据总量，数据总量为 0 或者页码超出范围时也会执行数据查询（结果为空列表），以此换取更低的延迟
+        CompletableFuture<Long> countFuture = CompletableFuture.supplyAsync(() -> selectCountAndCache(countSql, countArgs), paginateExecutor);
+        execute(mapper -> {
+            //count 查询已经结束时，与串行的分页一致，没有数据的页不再执行数据查询
+            if (countFuture.isDone() && !countFuture.isCompletedExceptionally()) {
+                page.setTotalRow(countFuture.join());
+                return selectPageList(mapper, tableName, page, queryWrapper);
+            }
+            fillPageList(mapper, tableName, page, queryWrapper);
+            return page;
+        });
+
+        try {
+            page.setTotalRow(countFuture.join());
+        } catch (CompletionException e) {
+            throw FlexExceptions.wrap(e.getCause());
+        }
+        return page;
+    }
+
+
+    /**
+     * 与 {@link RowMapper#paginate(String, Page, QueryWrapper)} 一致，totalRow 已经确定时查询当前页的数据
+     */
+    private Page<Row> selectPageList(RowMapper mapper, String tableName, Page<Row> page, QueryWrapper queryWrapper) {
+        if (page.getTotalRow() == 0 || (!page.isKeyset() && page.getPageNumber() > page.getTotalPage())) {
+            return page;
+        }
+        fillPageList(mapper, tableName, page, queryWrapper);
+        return page;
+    }
+
+
+    private void fillPageList(RowMapper mapper, String tableName, Page<Row> page, QueryWrapper queryWrapper) {
+        if (page.isKeyset()) {
+            KeysetUtil.selectPage(page, queryWrapper, wrapper -> mapper.selectListByQuery(tableName, wrapper));
+        } else {
+            int offset = page.getPageSize() * (page.getPageNumber() - 1);
+            queryWrapper.limit(offset, page.getPageSize());
+            page.setList(mapper.selectListByQuery(tableName, queryWrapper));
+        }
+    }
+
+
+    private long selectCountAndCache(String countSql, Object[] countArgs) {
+        long count = selectCount(countSql, countArgs);
+        if (pageCountCache != null) {
+            pageCountCache.put(countSql, countArgs, count);
+        }
+        return count;
     }
 
 
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.row;
+
+import com.mybatisflex.core.javassist.ModifyAttrs;
+import com.mybatisflex.core.util.SqlUtil;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 多个 {@link SchemaRow} 共享的列信息，列的顺序即为 insert 等 sql 中列的顺序
+ * <pre>
+ * RowSchema schema = RowSchema.of("name", "age");
+ * for (...) {
+ *     rows.add(schema.newRow("michael", 18));
+ * }
+ * Db.insertBatchWithFirstRowColumns("tb_account", rows);
+ * </pre>
+ */
+public class RowSchema extends ModifyAttrs.Schema {
+
+    private static final RowKey[] NO_KEYS = new RowKey[0];
+
+    private final RowKey[] primaryKeys;
+    private final boolean[] primaryKeyFlags;
+
+    private RowSchema(String[] columns, RowKey[] primaryKeys) {
+        super(columns);
+        this.primaryKeys = primaryKeys;
+        this.primaryKeyFlags = new boolean[columns.length];
+        for (RowKey primaryKey : primaryKeys) {
+            primaryKeyFlags[indexOf(primaryKey.getKeyColumn())] = true;
+        }
+    }
+
+
+    public static RowSchema of(String... columns) {
+        return ofKey(NO_KEYS, columns);
+    }
+
+
+    /**
+     * @param primaryKeys 主键，没有在 columns 中的主键会被添加到列的最前面
+     * @param columns     列
+     */
+    public static RowSchema ofKey(RowKey[] primaryKeys, String... columns) {
+        Set<String> columnSet = new LinkedHashSet<>();
+        for (RowKey primaryKey : primaryKeys) {
+            columnSet.add(primaryKey.getKeyColumn());
+        }
+        for (String column : columns) {
+            SqlUtil.keepColumnSafely(column);
+            columnSet.add(column);
+        }
+        return new RowSchema(columnSet.toArray(new String[0]), primaryKeys);
+    }
+
+
+    public RowKey[] getPrimaryKeys() {
+        return primaryKeys;
+    }
+
+
+    public boolean isPrimaryKey(int index) {
+        return primaryKeyFlags[index];
+    }
+
+
+    public int size() {
+        return getNames().length;
+    }
+
+
+    /**
+     * 创建一个空的 row
+     */
+    public SchemaRow newRow() {
+        return new SchemaRow(this);
+    }
+
+
+    /**
+     * 创建 row，并按照列的顺序设置所有列的值
+     *
+     * @param values 值，数量必须和列的数量一致
+     */
+    public SchemaRow newRow(Object... values) {
+        if (values.length != size()) {
+            throw new IllegalArgumentException("The count of values must be " + size() + ", but got " + values.length);
+        }
+        SchemaRow row = new SchemaRow(this);
+        for (int i = 0; i < values.length; i++) {
+            row.set(i, values[i]);
+        }
+        return row;
+    }
+}
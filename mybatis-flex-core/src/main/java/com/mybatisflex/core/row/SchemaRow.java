@@ -0,0 +1,506 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.row;
+
+import com.mybatisflex.core.javassist.ModifyAttrs;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 列信息由 {@link RowSchema} 共享的 row，适用于大量相同列的 row 的批量操作
+ * <p>
+ * 1. RowSchema 中的列的值存放在数组中，修改标记和是否有值通过位图记录，不再为每个列创建 HashMap 的节点
+ * 2. 不在 RowSchema 中的列，和普通的 {@link Row} 一样存放在 HashMap 中
+ * 3. 修改的列按照 RowSchema 中列的顺序返回，修改列相同的 row 可以直接复制参数
+ */
+public class SchemaRow extends Row {
+
+    private final RowSchema schema;
+    private final Object[] values;
+    private final ModifyAttrs presentColumns;
+    private final ModifyAttrs modifyColumns;
+
+    public SchemaRow(RowSchema schema) {
+        this.schema = schema;
+        this.values = new Object[schema.size()];
+        this.presentColumns = new ModifyAttrs(schema);
+        this.modifyColumns = new ModifyAttrs(schema);
+        this.primaryKeys = schema.getPrimaryKeys();
+    }
+
+
+    public RowSchema getSchema() {
+        return schema;
+    }
+
+
+    /**
+     * 根据列的下标设置值
+     *
+     * @param index 列在 {@link RowSchema} 中的下标
+     * @param value 值
+     */
+    public SchemaRow set(int index, Object value) {
+        values[index] = value;
+        presentColumns.mark(index);
+        if (!schema.isPrimaryKey(index)) {
+            modifyColumns.mark(index);
+        }
+        return this;
+    }
+
+
+    @Override
+    public Row set(String column, Object value) {
+        int index = schema.indexOf(column);
+        if (index < 0) {
+            return super.set(column, value);
+        }
+        return set(index, value);
+    }
+
+
+    @Override
+    public Set<String> getModifyAttrs() {
+        return modifyColumns;
+    }
+
+
+    @Override
+    public void keepModifyAttrs(Collection<String> attrs) {
+        if (attrs instanceof ModifyAttrs) {
+            modifyColumns.copyMarks((ModifyAttrs) attrs);
+        } else {
+            super.keepModifyAttrs(attrs);
+        }
+    }
+
+
+    /**
+     * 修改的列（及其顺序）是否和 other 完全相同
+     */
+    public boolean isSameModifyColumns(Row other) {
+        return other instanceof SchemaRow && modifyColumns.isSameMarks(((SchemaRow) other).modifyColumns);
+    }
+
+
+    @Override
+    public Object[] obtainModifyValues() {
+        Object[] modifyValues = new Object[modifyColumns.size()];
+        copyModifyValues(modifyValues, 0);
+        return modifyValues;
+    }
+
+
+    /**
+     * 把修改的值复制到 dest 中，所有列都被修改时直接复制整个数组
+     *
+     * @param dest   目标数组
+     * @param offset 开始的位置
+     * @return 复制的数量
+     */
+    public int copyModifyValues(Object[] dest, int offset) {
+        int size = modifyColumns.size();
+        if (modifyColumns.hasOthers()) {
+            for (String column : modifyColumns) {
+                dest[offset++] = get(column);
+            }
+            return size;
+        }
+        if (size == values.length) {
+            System.arraycopy(values, 0, dest, offset, size);
+            return size;
+        }
+        for (int i = modifyColumns.nextMarkedIndex(0); i >= 0; i = modifyColumns.nextMarkedIndex(i + 1)) {
+            dest[offset++] = values[i];
+        }
+        return size;
+    }
+
+
+    @Override
+    public int size() {
+        return presentColumns.size() + super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return super.get(key);
+        }
+        return values[index];
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return super.getOrDefault(key, defaultValue);
+        }
+        return presentColumns.isMarked(index) ? values[index] : defaultValue;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return super.containsKey(key);
+        }
+        return presentColumns.isMarked(index);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int i = presentColumns.nextMarkedIndex(0); i >= 0; i = presentColumns.nextMarkedIndex(i + 1)) {
+            if (Objects.equals(values[i], value)) {
+                return true;
+            }
+        }
+        return super.containsValue(value);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return super.put(key, value);
+        }
+        Object oldValue = values[index];
+        values[index] = value;
+        presentColumns.mark(index);
+        return oldValue;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> map) {
+        map.forEach(this::put);
+    }
+
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return super.putIfAbsent(key, value);
+        }
+        Object oldValue = values[index];
+        if (oldValue == null) {
+            put(key, value);
+        }
+        return oldValue;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return super.remove(key);
+        }
+        Object oldValue = values[index];
+        values[index] = null;
+        presentColumns.unmark(index);
+        modifyColumns.unmark(index);
+        return oldValue;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return super.remove(key, value);
+        }
+        if (presentColumns.isMarked(index) && Objects.equals(values[index], value)) {
+            remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean replace(String key, Object oldValue, Object newValue) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return super.replace(key, oldValue, newValue);
+        }
+        if (presentColumns.isMarked(index) && Objects.equals(values[index], oldValue)) {
+            values[index] = newValue;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Object replace(String key, Object value) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return super.replace(key, value);
+        }
+        return presentColumns.isMarked(index) ? put(key, value) : null;
+    }
+
+    @Override
+    public Object computeIfAbsent(String key, Function<? super String, ?> mappingFunction) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return super.computeIfAbsent(key, mappingFunction);
+        }
+        Object value = values[index];
+        if (value == null && (value = mappingFunction.apply(key)) != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return super.computeIfPresent(key, remappingFunction);
+        }
+        Object oldValue = values[index];
+        if (oldValue == null) {
+            return null;
+        }
+        return putOrRemove(key, remappingFunction.apply(key, oldValue));
+    }
+
+    @Override
+    public Object compute(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return super.compute(key, remappingFunction);
+        }
+        return putOrRemove(key, remappingFunction.apply(key, values[index]));
+    }
+
+    @Override
+    public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return super.merge(key, value, remappingFunction);
+        }
+        Object oldValue = values[index];
+        return putOrRemove(key, oldValue == null ? value : remappingFunction.apply(oldValue, value));
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        String[] columns = schema.getNames();
+        for (int i = presentColumns.nextMarkedIndex(0); i >= 0; i = presentColumns.nextMarkedIndex(i + 1)) {
+            action.accept(columns[i], values[i]);
+        }
+        super.forEach(action);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Object, ?> function) {
+        String[] columns = schema.getNames();
+        for (int i = presentColumns.nextMarkedIndex(0); i >= 0; i = presentColumns.nextMarkedIndex(i + 1)) {
+            values[i] = function.apply(columns[i], values[i]);
+        }
+        super.replaceAll(function);
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = null;
+        }
+        presentColumns.clear();
+        modifyColumns.clear();
+        super.clear();
+    }
+
+    @Override
+    public Object clone() {
+        SchemaRow row = new SchemaRow(schema);
+        row.primaryKeys = primaryKeys;
+        System.arraycopy(values, 0, row.values, 0, values.length);
+        row.presentColumns.copyMarks(presentColumns);
+        row.modifyColumns.copyMarks(modifyColumns);
+        //HashMap.forEach 只会遍历 HashMap 中的列
+        super.forEach(row::put);
+        return row;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                Iterator<Map.Entry<String, Object>> iterator = entrySet().iterator();
+                return new Iterator<String>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        return iterator.next().getKey();
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SchemaRow.this.size();
+            }
+
+            @Override
+            public boolean contains(Object key) {
+                return containsKey(key);
+            }
+        };
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return new AbstractCollection<Object>() {
+            @Override
+            public Iterator<Object> iterator() {
+                Iterator<Map.Entry<String, Object>> iterator = entrySet().iterator();
+                return new Iterator<Object>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Object next() {
+                        return iterator.next().getValue();
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SchemaRow.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return SchemaRow.this.size();
+            }
+        };
+    }
+
+
+    private int indexOf(Object key) {
+        return key instanceof String ? schema.indexOf((String) key) : -1;
+    }
+
+
+    private Object putOrRemove(String key, Object value) {
+        if (value == null) {
+            remove(key);
+        } else {
+            put(key, value);
+        }
+        return value;
+    }
+
+
+    /**
+     * 先遍历 RowSchema 中有值的列，再遍历 HashMap 中的列
+     */
+    private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private int nextIndex = presentColumns.nextMarkedIndex(0);
+        private int lastIndex = -1;
+        private Iterator<Map.Entry<String, Object>> superIterator;
+
+        @Override
+        public boolean hasNext() {
+            if (nextIndex >= 0) {
+                return true;
+            }
+            if (superIterator == null) {
+                superIterator = SchemaRow.super.entrySet().iterator();
+            }
+            return superIterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (nextIndex >= 0) {
+                int index = nextIndex;
+                lastIndex = index;
+                nextIndex = presentColumns.nextMarkedIndex(index + 1);
+                return new AbstractMap.SimpleEntry<String, Object>(schema.getNames()[index], values[index]) {
+                    @Override
+                    public Object setValue(Object value) {
+                        values[index] = value;
+                        return super.setValue(value);
+                    }
+                };
+            }
+            lastIndex = -1;
+            return superIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            if (lastIndex >= 0) {
+                SchemaRow.this.remove(schema.getNames()[lastIndex]);
+                lastIndex = -1;
+            } else if (superIterator != null) {
+                superIterator.remove();
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+}
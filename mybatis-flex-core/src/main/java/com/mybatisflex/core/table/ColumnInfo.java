@@ -50,6 +50,11 @@ public class ColumnInfo {
 
     protected String maskType;
 
+    /**
+     * 属性的读写器，由 TableInfo 创建
+     */
+    PropertyAccessor accessor;
+
 
 
     public String getColumn() {
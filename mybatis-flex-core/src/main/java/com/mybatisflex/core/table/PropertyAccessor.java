@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.table;
+
+import com.mybatisflex.core.exception.FlexExceptions;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * entity 属性的读写，在 TableInfo 中为每个属性创建一次
+ * 通过 MethodHandle 直接调用 getter/setter（没有 getter/setter 时直接读写字段），
+ * 避免每次读写都通过 MetaObject 进行查找和反射调用
+ */
+public class PropertyAccessor {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final String property;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private PropertyAccessor(String property, MethodHandle getter, MethodHandle setter) {
+        this.property = property;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+
+    public static PropertyAccessor of(Class<?> entityClass, String property) {
+        Method getterMethod = null;
+        Method setterMethod = null;
+        for (Method method : entityClass.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isBridge()
+                    || !PropertyNamer.isProperty(method.getName())
+                    || !property.equals(PropertyNamer.methodToProperty(method.getName()))) {
+                continue;
+            }
+            if (PropertyNamer.isGetter(method.getName()) && method.getParameterCount() == 0
+                    && method.getReturnType() != void.class && method.getDeclaringClass() != Object.class) {
+                getterMethod = getterMethod == null || method.getName().startsWith("get") ? method : getterMethod;
+            } else if (PropertyNamer.isSetter(method.getName()) && method.getParameterCount() == 1) {
+                //存在重载时，优先使用参数类型和 getter 返回值类型一致的 setter
+                setterMethod = setterMethod == null ? method : setterMethod;
+            }
+        }
+        if (getterMethod != null && setterMethod != null && setterMethod.getParameterTypes()[0] != getterMethod.getReturnType()) {
+            try {
+                setterMethod = entityClass.getMethod(setterMethod.getName(), getterMethod.getReturnType());
+            } catch (NoSuchMethodException e) {
+                //使用已经找到的 setter
+            }
+        }
+
+        Field field = getterMethod == null || setterMethod == null ? findField(entityClass, property) : null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle getter = null;
+            MethodHandle setter = null;
+            if (getterMethod != null) {
+                getter = lookup.unreflect(accessible(getterMethod));
+            } else if (field != null) {
+                getter = lookup.unreflectGetter(accessible(field));
+            }
+            if (setterMethod != null) {
+                setter = lookup.unreflect(accessible(setterMethod));
+            } else if (field != null && !Modifier.isFinal(field.getModifiers())) {
+                setter = lookup.unreflectSetter(accessible(field));
+            }
+            return new PropertyAccessor(property
+                    , getter != null ? getter.asType(GETTER_TYPE) : null
+                    , setter != null ? setter.asType(SETTER_TYPE) : null);
+        } catch (IllegalAccessException e) {
+            throw FlexExceptions.wrap(e, "Can not access property \"%s\" of %s", property, entityClass.getName());
+        }
+    }
+
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean hasGetter() {
+        return getter != null;
+    }
+
+    public boolean hasSetter() {
+        return setter != null;
+    }
+
+
+    /**
+     * 读取属性的值
+     *
+     * @param entity entity
+     * @return 没有 getter 时返回 null
+     */
+    public Object get(Object entity) {
+        if (getter == null) {
+            return null;
+        }
+        try {
+            return (Object) getter.invokeExact(entity);
+        } catch (Throwable e) {
+            throw FlexExceptions.wrap(e);
+        }
+    }
+
+
+    /**
+     * 设置属性的值，没有 setter 时不做任何处理
+     *
+     * @param entity entity
+     * @param value  值
+     */
+    public void set(Object entity, Object value) {
+        if (setter == null) {
+            return;
+        }
+        try {
+            setter.invokeExact(entity, value);
+        } catch (Throwable e) {
+            throw FlexExceptions.wrap(e);
+        }
+    }
+
+
+    private static Field findField(Class<?> clazz, String property) {
+        while (clazz != null && clazz != Object.class) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.getName().equals(property) && !Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            }
+            clazz = clazz.getSuperclass();
+        }
+        return null;
+    }
+
+
+    private static <T extends AccessibleObject> T accessible(T object) {
+        try {
+            object.setAccessible(true);
+        } catch (RuntimeException e) {
+            //无法设置时（例如 java 9 的模块限制），按照原有的访问权限访问
+        }
+        return object;
+    }
+}
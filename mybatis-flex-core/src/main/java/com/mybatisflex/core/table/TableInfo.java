@@ -27,16 +27,37 @@ import com.mybatisflex.core.util.StringUtil;
 import org.apache.ibatis.mapping.ResultFlag;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
-import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.Reflector;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.TypeHandler;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TableInfo {
 
+    //表名（以及 schema.表名）和 TableInfo 的映射，用于 count 查询优化等只知道表名的场景
+    private static final Map<String, TableInfo> TABLE_NAME_MAPPING = new ConcurrentHashMap<>();
+
+    //多个 entity 对应同一个表名时（例如不同 schema 下的同名表），无法确定是哪个 TableInfo
+    private static final TableInfo AMBIGUOUS = new TableInfo();
+
+    /**
+     * 根据表名获取已经解析过的 TableInfo
+     *
+     * @param tableName 表名，或者 schema.表名
+     * @return TableInfo，对应的 entity 还没有被解析过，或者有多个 entity 对应该表名时返回 null
+     */
+    public static TableInfo ofTableName(String tableName) {
+        TableInfo tableInfo = tableName == null ? null : TABLE_NAME_MAPPING.get(tableName);
+        return tableInfo == AMBIGUOUS ? null : tableInfo;
+    }
+
+    private static void registerTableName(String name, TableInfo tableInfo) {
+        TABLE_NAME_MAPPING.merge(name, tableInfo, (oldValue, newValue) -> oldValue == newValue ? oldValue : AMBIGUOUS);
+    }
+
     private String schema; //schema
     private String tableName; //表名
     private Class<?> entityClass; //实体类
@@ -69,11 +90,16 @@ public class TableInfo {
 
     private List<ColumnInfo> columnInfoList;
     private List<IdInfo> primaryKeyList;
+    private List<ColumnInfo> allColumnInfoList;
+    private ColumnInfo[] insertColumnInfos;
 
     //column 和 java 属性的称的关系映射
     private Map<String, ColumnInfo> columnInfoMapping = new HashMap<>();
     private Map<String, String> propertyColumnMapping = new HashMap<>();
 
+    //column 的序号，用于构建列组合（column shape）
+    private Map<String, Integer> columnIndexMapping = new HashMap<>();
+
 
     private final ReflectorFactory reflectorFactory = new BaseReflectorFactory() {
         @Override
@@ -89,6 +115,9 @@ public class TableInfo {
 
     public void setSchema(String schema) {
         this.schema = schema;
+        if (schema != null && tableName != null) {
+            registerTableName(schema + "." + tableName, this);
+        }
     }
 
     public String getTableName() {
@@ -97,6 +126,12 @@ public class TableInfo {
 
     public void setTableName(String tableName) {
         this.tableName = tableName;
+        if (tableName != null) {
+            registerTableName(tableName, this);
+            if (schema != null) {
+                registerTableName(schema + "." + tableName, this);
+            }
+        }
     }
 
     public Class<?> getEntityClass() {
@@ -206,10 +241,22 @@ public class TableInfo {
             columns[i] = columnInfo.getColumn();
             columnInfoMapping.put(columnInfo.column, columnInfo);
             propertyColumnMapping.put(columnInfo.property, columnInfo.column);
+            columnIndexMapping.putIfAbsent(columnInfo.column, columnIndexMapping.size());
         }
     }
 
 
+    /**
+     * 根据列名获取列信息，包含主键
+     *
+     * @param column 列名
+     * @return 列信息，不存在时返回 null
+     */
+    public ColumnInfo getColumnInfo(String column) {
+        return columnInfoMapping.get(column);
+    }
+
+
     public List<IdInfo> getPrimaryKeyList() {
         return primaryKeyList;
     }
@@ -229,11 +276,56 @@ public class TableInfo {
 
             columnInfoMapping.put(idInfo.column, idInfo);
             propertyColumnMapping.put(idInfo.property, idInfo.column);
+            columnIndexMapping.putIfAbsent(idInfo.column, columnIndexMapping.size());
         }
         this.insertPrimaryKeys = insertIdFields.toArray(new String[0]);
     }
 
 
+    /**
+     * 获取所有的列信息，主键在前
+     */
+    private List<ColumnInfo> obtainAllColumnInfos() {
+        if (allColumnInfoList == null) {
+            List<ColumnInfo> allColumnInfos = new ArrayList<>(primaryKeyList.size() + columnInfoList.size());
+            allColumnInfos.addAll(primaryKeyList);
+            allColumnInfos.addAll(columnInfoList);
+            allColumnInfoList = allColumnInfos;
+        }
+        return allColumnInfoList;
+    }
+
+
+    /**
+     * 获取 insert 时需要构建参数的列信息，不包含 onInsertValue 的列
+     */
+    private ColumnInfo[] obtainInsertColumnInfos() {
+        if (insertColumnInfos == null) {
+            List<ColumnInfo> columnInfos = new ArrayList<>();
+            for (String insertColumn : obtainInsertColumns()) {
+                if (onInsertColumns == null || !onInsertColumns.containsKey(insertColumn)) {
+                    columnInfos.add(columnInfoMapping.get(insertColumn));
+                }
+            }
+            insertColumnInfos = columnInfos.toArray(new ColumnInfo[0]);
+        }
+        return insertColumnInfos;
+    }
+
+
+    /**
+     * 获取属性的读写器，首次使用时创建，之后缓存在 ColumnInfo 中
+     */
+    private PropertyAccessor obtainAccessor(ColumnInfo columnInfo) {
+        PropertyAccessor accessor = columnInfo.accessor;
+        if (accessor == null) {
+            accessor = PropertyAccessor.of(entityClass, columnInfo.property);
+            columnInfo.accessor = accessor;
+        }
+        return accessor;
+    }
+
+
     /**
      * 插入（新增）数据时，获取所有要插入的字段
      *
@@ -250,87 +342,24 @@ public class TableInfo {
      * @return 数组
      */
     public Object[] buildInsertSqlArgs(Object entity) {
-        MetaObject metaObject = EntityMetaObject.forObject(entity, reflectorFactory);
-        String[] insertColumns = obtainInsertColumns();
-
-        List<Object> values = new ArrayList<>(insertColumns.length);
-        for (String insertColumn : insertColumns) {
-            if (onInsertColumns == null || !onInsertColumns.containsKey(insertColumn)) {
-                Object value = buildColumnSqlArg(metaObject, insertColumn);
-                values.add(value);
-            }
+        ColumnInfo[] columnInfos = obtainInsertColumnInfos();
+        Object[] values = new Object[columnInfos.length];
+        for (int i = 0; i < columnInfos.length; i++) {
+            values[i] = buildColumnSqlArg(entity, columnInfos[i]);
         }
-        return values.toArray();
+        return values;
     }
 
 
     /**
-     * 获取要修改的值
+     * 获取要修改的列
      *
      * @param entity
      * @param ignoreNulls
      * @return
      */
     public Set<String> obtainUpdateColumns(Object entity, boolean ignoreNulls, boolean includePrimary) {
-        MetaObject metaObject = EntityMetaObject.forObject(entity, reflectorFactory);
-        Set<String> columns = new LinkedHashSet<>(); //需使用 LinkedHashSet 保证 columns 的顺序
-        if (entity instanceof ModifyAttrsRecord) {
-            Set<String> properties = ((ModifyAttrsRecord) entity).obtainModifyAttrs();
-            if (properties.isEmpty()) {
-                return Collections.emptySet();
-            }
-            for (String property : properties) {
-                String column = propertyColumnMapping.get(property);
-                if (onUpdateColumns != null && onUpdateColumns.containsKey(column)) {
-                    continue;
-                }
-
-                //过滤乐观锁字段
-                if (Objects.equals(column, versionColumn)) {
-                    continue;
-                }
-
-                if (!includePrimary && ArrayUtil.contains(primaryKeys, column)) {
-                    continue;
-                }
-                Object value = getPropertyValue(metaObject, property);
-                if (ignoreNulls && value == null) {
-                    continue;
-                }
-                columns.add(column);
-            }
-        }
-        //not ModifyAttrsRecord
-        else {
-            for (String column : this.columns) {
-                if (onUpdateColumns != null && onUpdateColumns.containsKey(column)) {
-                    continue;
-                }
-
-                //过滤乐观锁字段
-                if (Objects.equals(column, versionColumn)) {
-                    continue;
-                }
-
-                Object value = buildColumnSqlArg(metaObject, column);
-                if (ignoreNulls && value == null) {
-                    continue;
-                }
-                columns.add(column);
-            }
-
-            // 普通 entity（非 ModifyAttrsRecord） 忽略 includePrimary 的设置
-//            if (includePrimary) {
-//                for (String column : this.primaryKeys) {
-//                    Object value = getColumnValue(metaObject, column);
-//                    if (ignoreNulls && value == null) {
-//                        continue;
-//                    }
-//                    columns.add(column);
-//                }
-//            }
-        }
-        return columns;
+        return buildUpdateColumnArgs(entity, ignoreNulls, includePrimary).getColumns();
     }
 
     /**
@@ -340,57 +369,84 @@ public class TableInfo {
      * @return 数组
      */
     public Object[] buildUpdateSqlArgs(Object entity, boolean ignoreNulls, boolean includePrimary) {
-        MetaObject metaObject = EntityMetaObject.forObject(entity, reflectorFactory);
-        List<Object> values = new ArrayList<>();
+        return buildUpdateColumnArgs(entity, ignoreNulls, includePrimary).getValues();
+    }
+
+
+    /**
+     * 一次遍历同时获取要修改的列、对应的 sql 参数以及列组合
+     *
+     * @param entity         实体对象
+     * @param ignoreNulls    是否忽略 null 值
+     * @param includePrimary 是否包含主键，只对 ModifyAttrsRecord 有效
+     * @return UpdateColumnArgs
+     */
+    public UpdateColumnArgs buildUpdateColumnArgs(Object entity, boolean ignoreNulls, boolean includePrimary) {
+        Set<String> properties = null;
+        List<? extends ColumnInfo> columnInfos;
+        int pkCount;
         if (entity instanceof ModifyAttrsRecord) {
-            Set<String> properties = ((ModifyAttrsRecord) entity).obtainModifyAttrs();
+            properties = ((ModifyAttrsRecord) entity).obtainModifyAttrs();
             if (properties.isEmpty()) {
-                return values.toArray();
-            }
-            for (String property : properties) {
-                String column = propertyColumnMapping.get(property);
-                if (onUpdateColumns != null && onUpdateColumns.containsKey(column)) {
-                    continue;
-                }
-                //过滤乐观锁字段
-                if (Objects.equals(column, versionColumn)) {
-                    continue;
-                }
-
-                if (!includePrimary && ArrayUtil.contains(primaryKeys, column)) {
-                    continue;
-                }
-                Object value = getPropertyValue(metaObject, property);
-                if (ignoreNulls && value == null) {
-                    continue;
-                }
-                values.add(value);
+                return new UpdateColumnArgs(Collections.emptySet(), new Object[0], new BitSet());
             }
+            //按照表字段的顺序遍历，保证相同的修改字段得到相同的列顺序（sql 缓存依赖此顺序）
+            columnInfos = obtainAllColumnInfos();
+            pkCount = includePrimary ? 0 : primaryKeyList.size();
         }
-        // normal entity. not ModifyAttrsRecord
+        // 普通 entity（非 ModifyAttrsRecord） 忽略 includePrimary 的设置
         else {
-            for (String column : this.columns) {
-                if (onUpdateColumns != null && onUpdateColumns.containsKey(column)) {
-                    continue;
-                }
+            columnInfos = columnInfoList;
+            pkCount = 0;
+        }
 
-                //忽略乐观锁字段，乐观锁字段会直接通过 sql 对其操作
-                if (Objects.equals(column, versionColumn)) {
-                    continue;
-                }
+        Set<String> columns = new LinkedHashSet<>(); //需使用 LinkedHashSet 保证 columns 的顺序
+        Object[] values = new Object[columnInfos.size()];
+        BitSet columnShape = new BitSet(columnIndexMapping.size());
+        for (int i = pkCount; i < columnInfos.size(); i++) {
+            ColumnInfo columnInfo = columnInfos.get(i);
+            if (properties != null && !properties.contains(columnInfo.property)) {
+                continue;
+            }
+            String column = columnInfo.column;
+            if (onUpdateColumns != null && onUpdateColumns.containsKey(column)) {
+                continue;
+            }
 
-                Object value = buildColumnSqlArg(metaObject, column);
-                if (ignoreNulls && value == null) {
-                    continue;
-                }
-                values.add(value);
+            //忽略乐观锁字段，乐观锁字段会直接通过 sql 对其操作
+            if (Objects.equals(column, versionColumn)) {
+                continue;
+            }
+
+            Object value = buildColumnSqlArg(entity, columnInfo);
+            if (ignoreNulls && value == null) {
+                continue;
+            }
+            if (columns.add(column)) {
+                values[columns.size() - 1] = value;
+                columnShape.set(columnIndexMapping.get(column));
             }
-            // 普通 entity 忽略 includePrimary 的设置
-//            if (includePrimary) {
-//            }
         }
 
-        return values.toArray();
+        return new UpdateColumnArgs(columns, columns.size() == values.length ? values : Arrays.copyOf(values, columns.size()), columnShape);
+    }
+
+
+    /**
+     * 构建列组合，相同的列组合生成的 sql 是一样的，可用于 sql 的缓存
+     *
+     * @param columns 列
+     * @return 列组合的 bitmap
+     */
+    public BitSet buildColumnShape(Collection<String> columns) {
+        BitSet shape = new BitSet(columnIndexMapping.size());
+        for (String column : columns) {
+            Integer index = columnIndexMapping.get(column);
+            if (index != null) {
+                shape.set(index);
+            }
+        }
+        return shape;
     }
 
 
@@ -399,10 +455,9 @@ public class TableInfo {
      * @param entity
      */
     public Object[] buildPkSqlArgs(Object entity) {
-        MetaObject metaObject = EntityMetaObject.forObject(entity, reflectorFactory);
         Object[] values = new Object[primaryKeys.length];
         for (int i = 0; i < primaryKeys.length; i++) {
-            values[i] = buildColumnSqlArg(metaObject, primaryKeys[i]);
+            values[i] = buildColumnSqlArg(entity, columnInfoMapping.get(primaryKeys[i]));
         }
         return values;
     }
@@ -452,9 +507,8 @@ public class TableInfo {
     }
 
 
-    private Object buildColumnSqlArg(MetaObject metaObject, String column) {
-        ColumnInfo columnInfo = columnInfoMapping.get(column);
-        Object value = getPropertyValue(metaObject, columnInfo.property);
+    private Object buildColumnSqlArg(Object entityObject, ColumnInfo columnInfo) {
+        Object value = obtainAccessor(columnInfo).get(entityObject);
 
         TypeHandler typeHandler = columnInfo.buildTypeHandler();
         if (value != null && typeHandler != null) {
@@ -466,16 +520,7 @@ public class TableInfo {
 
 
     public Object buildColumnSqlArg(Object entityObject, String column) {
-        MetaObject metaObject = EntityMetaObject.forObject(entityObject, reflectorFactory);
-        return buildColumnSqlArg(metaObject, column);
-    }
-
-
-    private Object getPropertyValue(MetaObject metaObject, String property) {
-        if (property != null && metaObject.hasGetter(property)) {
-            return metaObject.getValue(property);
-        }
-        return null;
+        return buildColumnSqlArg(entityObject, columnInfoMapping.get(column));
     }
 
 
@@ -487,11 +532,10 @@ public class TableInfo {
      */
     public <T> T newInstanceByRow(Row row) {
         Object instance = ClassUtil.newInstance(entityClass);
-        MetaObject metaObject = EntityMetaObject.forObject(instance, reflectorFactory);
-        for (String column : row.keySet()) {
-            ColumnInfo columnInfo = columnInfoMapping.get(column);
-            if (columnInfo != null && metaObject.hasSetter(columnInfo.property)) {
-                metaObject.setValue(columnInfo.property, row.get(column));
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            ColumnInfo columnInfo = columnInfoMapping.get(entry.getKey());
+            if (columnInfo != null) {
+                obtainAccessor(columnInfo).set(instance, entry.getValue());
             }
         }
         return (T) instance;
@@ -508,10 +552,10 @@ public class TableInfo {
             return;
         }
 
-        MetaObject metaObject = EntityMetaObject.forObject(entityObject, reflectorFactory);
-        Object columnValue = buildColumnSqlArg(entityObject, versionColumn);
-        if (columnValue == null) {
-            metaObject.setValue(columnInfoMapping.get(versionColumn).property, 0);
+        ColumnInfo columnInfo = columnInfoMapping.get(versionColumn);
+        PropertyAccessor accessor = obtainAccessor(columnInfo);
+        if (accessor.get(entityObject) == null) {
+            accessor.set(entityObject, 0);
         }
     }
 
@@ -525,10 +569,10 @@ public class TableInfo {
             return;
         }
 
-        MetaObject metaObject = EntityMetaObject.forObject(entityObject, reflectorFactory);
-        Object columnValue = buildColumnSqlArg(entityObject, logicDeleteColumn);
-        if (columnValue == null) {
-            metaObject.setValue(columnInfoMapping.get(logicDeleteColumn).property, 0);
+        ColumnInfo columnInfo = columnInfoMapping.get(logicDeleteColumn);
+        PropertyAccessor accessor = obtainAccessor(columnInfo);
+        if (accessor.get(entityObject) == null) {
+            accessor.set(entityObject, 0);
         }
     }
 }
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.core.table;
+
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * update 时一次遍历得到的要修改的列、对应的参数以及列组合
+ */
+public class UpdateColumnArgs {
+
+    private final Set<String> columns;
+    private final Object[] values;
+    private final BitSet columnShape;
+
+    UpdateColumnArgs(Set<String> columns, Object[] values, BitSet columnShape) {
+        this.columns = columns;
+        this.values = values;
+        this.columnShape = columnShape;
+    }
+
+    /**
+     * 要修改的列，顺序与 values 一致
+     */
+    public Set<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * 要修改的列的 sql 参数
+     */
+    public Object[] getValues() {
+        return values;
+    }
+
+    /**
+     * 要修改的列的组合，可用于 sql 的缓存
+     */
+    public BitSet getColumnShape() {
+        return columnShape;
+    }
+
+    public boolean isEmpty() {
+        return columns.isEmpty();
+    }
+}
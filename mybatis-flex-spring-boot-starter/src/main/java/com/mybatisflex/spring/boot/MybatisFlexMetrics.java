@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.spring.boot;
+
+import com.mybatisflex.core.FlexGlobalConfig;
+import com.mybatisflex.core.cache.EntityCache;
+import com.mybatisflex.core.cache.EntityCacheFactory;
+import com.mybatisflex.core.cache.RowQueryCache;
+import com.mybatisflex.core.dialect.DbType;
+import com.mybatisflex.core.metrics.StatementListener;
+import com.mybatisflex.core.metrics.StatementMetrics;
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.ibatis.mapping.MappedStatement;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToLongFunction;
+
+/**
+ * 把 {@link StatementMetrics} 记录的数据发布到 Micrometer：
+ * <p>
+ * mybatis.flex.statement：sql 执行耗时，tag 为 mapper、method、db.type
+ * mybatis.flex.statement.rows：查询返回或者更新影响的行数
+ * mybatis.flex.batch.size：批量执行每次 flush 的数据量
+ * mybatis.flex.connection.acquire：获取数据库连接的耗时
+ * mybatis.flex.cache.gets、mybatis.flex.cache.hit.ratio：实体缓存（cache=entity）和 Db 查询缓存（cache=row）的命中情况
+ * <p>
+ * 只会向 StatementMetrics 注册一次监听，close 时移除
+ */
+public class MybatisFlexMetrics implements MeterBinder, StatementListener, AutoCloseable {
+
+    private final Iterable<Tag> tags;
+    private final Map<String, StatementMeters> statementMeters = new ConcurrentHashMap<>();
+    private final AtomicBoolean listening = new AtomicBoolean();
+
+    private volatile MeterRegistry registry;
+    private volatile Timer connectionAcquire;
+
+    public MybatisFlexMetrics(Iterable<Tag> tags) {
+        this.tags = tags;
+    }
+
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        //绑定到新的 registry 时，之前创建的 meter 属于旧的 registry
+        if (this.registry != registry) {
+            statementMeters.clear();
+        }
+        this.registry = registry;
+        this.connectionAcquire = Timer.builder("mybatis.flex.connection.acquire")
+                .description("Time taken to acquire a connection from the data source")
+                .tags(tags)
+                .register(registry);
+
+        bindCache(registry, "entity", m -> sumEntityCache(EntityCache::getHitCount), m -> sumEntityCache(EntityCache::getMissCount));
+        bindCache(registry, "row", m -> rowQueryCacheCount(true), m -> rowQueryCacheCount(false));
+
+        if (listening.compareAndSet(false, true)) {
+            StatementMetrics.addListener(this);
+        }
+    }
+
+
+    @Override
+    public void close() {
+        if (listening.compareAndSet(true, false)) {
+            StatementMetrics.removeListener(this);
+        }
+        registry = null;
+        connectionAcquire = null;
+        statementMeters.clear();
+    }
+
+
+    @Override
+    public void onStatement(MappedStatement ms, long prepareNanos, long executeNanos, long fetchNanos, long rows) {
+        StatementMeters meters = obtainStatementMeters(ms);
+        if (meters != null) {
+            meters.timer.record(prepareNanos + executeNanos + fetchNanos, TimeUnit.NANOSECONDS);
+            meters.rows.record(rows);
+        }
+    }
+
+
+    @Override
+    public void onBatch(MappedStatement ms, int batchSize) {
+        StatementMeters meters = obtainStatementMeters(ms);
+        if (meters != null) {
+            meters.batchSize.record(batchSize);
+        }
+    }
+
+
+    @Override
+    public void onConnectionAcquire(long nanos) {
+        Timer timer = connectionAcquire;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+
+    private StatementMeters obtainStatementMeters(MappedStatement ms) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null) {
+            return null;
+        }
+        return statementMeters.computeIfAbsent(ms.getId(), id -> new StatementMeters(meterRegistry, ms, tags));
+    }
+
+
+    private void bindCache(MeterRegistry registry, String cache, ToLongFunction<MybatisFlexMetrics> hits, ToLongFunction<MybatisFlexMetrics> misses) {
+        FunctionCounter.builder("mybatis.flex.cache.gets", this, m -> hits.applyAsLong(m))
+                .description("The number of cache hits")
+                .tags(tags).tag("cache", cache).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("mybatis.flex.cache.gets", this, m -> misses.applyAsLong(m))
+                .description("The number of cache misses")
+                .tags(tags).tag("cache", cache).tag("result", "miss")
+                .register(registry);
+        Gauge.builder("mybatis.flex.cache.hit.ratio", this, m -> {
+                    long hitCount = hits.applyAsLong(m);
+                    long total = hitCount + misses.applyAsLong(m);
+                    return total == 0 ? 0 : (double) hitCount / total;
+                })
+                .description("The ratio of cache hits since the application started")
+                .tags(tags).tag("cache", cache)
+                .register(registry);
+    }
+
+
+    private static long sumEntityCache(ToLongFunction<EntityCache> function) {
+        long sum = 0;
+        for (EntityCache cache : EntityCacheFactory.getCaches()) {
+            sum += function.applyAsLong(cache);
+        }
+        return sum;
+    }
+
+
+    /**
+     * 直接读取已经创建的查询缓存，不能通过 Db.invoker() 获取，否则在采集指标时可能会初始化默认的 invoker
+     */
+    private static long rowQueryCacheCount(boolean hit) {
+        long sum = 0;
+        for (RowQueryCache queryCache : RowQueryCache.getCaches()) {
+            sum += hit ? queryCache.getHitCount() : queryCache.getMissCount();
+        }
+        return sum;
+    }
+
+
+    static class StatementMeters {
+
+        private final Timer timer;
+        private final DistributionSummary rows;
+        private final DistributionSummary batchSize;
+
+        StatementMeters(MeterRegistry registry, MappedStatement ms, Iterable<Tag> tags) {
+            String id = ms.getId();
+            int index = id.lastIndexOf('.');
+            Tags statementTags = Tags.of(tags)
+                    .and("mapper", index > 0 ? id.substring(0, index) : "")
+                    .and("method", id.substring(index + 1))
+                    .and("db.type", getDbType(ms));
+
+            this.timer = Timer.builder("mybatis.flex.statement")
+                    .description("Time taken to prepare, execute and fetch the results of a statement")
+                    .tags(statementTags)
+                    .register(registry);
+            this.rows = DistributionSummary.builder("mybatis.flex.statement.rows")
+                    .description("The number of rows fetched or affected by a statement")
+                    .tags(statementTags)
+                    .register(registry);
+            this.batchSize = DistributionSummary.builder("mybatis.flex.batch.size")
+                    .description("The number of parameter sets flushed in one JDBC batch")
+                    .tags(statementTags)
+                    .register(registry);
+        }
+
+        private static String getDbType(MappedStatement ms) {
+            FlexGlobalConfig config = FlexGlobalConfig.getConfig(ms.getConfiguration());
+            if (config == null) {
+                config = FlexGlobalConfig.getDefaultConfig();
+            }
+            DbType dbType = config != null ? config.getDbType() : null;
+            return dbType != null ? dbType.name().toLowerCase() : "unknown";
+        }
+    }
+}
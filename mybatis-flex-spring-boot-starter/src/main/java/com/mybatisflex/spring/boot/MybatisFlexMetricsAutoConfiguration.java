@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.spring.boot;
+
+import com.mybatisflex.core.metrics.StatementMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Mybatis-Flex 的监控配置，通过 mybatis-flex.metrics.enabled=true 开启
+ * <p>
+ * 1、开启 {@link StatementMetrics} 的统计
+ * 2、存在 Micrometer 时，发布 sql 执行的耗时、行数、批量数量、连接获取耗时以及缓存命中率等指标
+ * 3、存在 actuator 时，提供 /actuator/mybatisflex 用于查看最慢的 sql
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "mybatis-flex.metrics", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(MybatisFlexMetricsProperties.class)
+@AutoConfigureAfter({MybatisFlexAutoConfiguration.class})
+public class MybatisFlexMetricsAutoConfiguration {
+
+    public MybatisFlexMetricsAutoConfiguration(MybatisFlexMetricsProperties properties) {
+        StatementMetrics.setSlowSqlThreshold(properties.getSlowSqlThreshold());
+        StatementMetrics.setMaxSqlFingerprints(properties.getMaxSqlFingerprints());
+        StatementMetrics.setEnable(true);
+    }
+
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    public static class MicrometerConfiguration {
+        @Bean
+        @ConditionalOnMissingBean
+        public MybatisFlexMetrics mybatisFlexMetrics() {
+            return new MybatisFlexMetrics(Tags.empty());
+        }
+    }
+
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass({Endpoint.class, ConditionalOnAvailableEndpoint.class})
+    public static class EndpointConfiguration {
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        public MybatisFlexMetricsEndpoint mybatisFlexMetricsEndpoint() {
+            return new MybatisFlexMetricsEndpoint();
+        }
+    }
+}
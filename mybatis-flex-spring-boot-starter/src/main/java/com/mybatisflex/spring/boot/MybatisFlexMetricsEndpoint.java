@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.spring.boot;
+
+import com.mybatisflex.core.metrics.LatencyHistogram;
+import com.mybatisflex.core.metrics.StatementMetrics;
+import com.mybatisflex.core.metrics.StatementStats;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 查看 p99 耗时最高的 sql，访问路径为 /actuator/mybatisflex，可以通过参数 top 指定数量，默认为 20
+ * 耗时单位均为微秒
+ */
+@Endpoint(id = "mybatisflex")
+public class MybatisFlexMetricsEndpoint {
+
+    private static final int DEFAULT_TOP = 20;
+
+    @ReadOperation
+    public Map<String, Object> slowest(@Nullable Integer top) {
+        int n = top != null ? top : DEFAULT_TOP;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statements", describe(StatementMetrics.topStatementsByP99(n)));
+        result.put("sqls", describe(StatementMetrics.topSqlByP99(n)));
+        result.put("connectionAcquire", describe(StatementMetrics.getConnectionAcquire()));
+        return result;
+    }
+
+
+    private static List<Map<String, Object>> describe(List<StatementStats> statsList) {
+        List<Map<String, Object>> result = new ArrayList<>(statsList.size());
+        for (StatementStats stats : statsList) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("key", stats.getKey());
+            map.put("total", describe(stats.getTotal()));
+            map.put("prepare", describe(stats.getPrepare()));
+            map.put("execute", describe(stats.getExecute()));
+            map.put("fetch", describe(stats.getFetch()));
+            map.put("rows", stats.getRows());
+            map.put("slowCount", stats.getSlowCount());
+            result.add(map);
+        }
+        return result;
+    }
+
+
+    private static Map<String, Object> describe(LatencyHistogram histogram) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", histogram.getCount());
+        map.put("mean", histogram.getMean());
+        map.put("p50", histogram.getPercentile(50));
+        map.put("p90", histogram.getPercentile(90));
+        map.put("p99", histogram.getPercentile(99));
+        map.put("max", histogram.getMax());
+        return map;
+    }
+}
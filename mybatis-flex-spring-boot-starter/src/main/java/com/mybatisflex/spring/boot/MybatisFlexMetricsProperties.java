@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2022-2023, Mybatis-Flex (fuhai999@gmail.com).
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mybatisflex.spring.boot;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Mybatis-Flex 的监控配置，参考 {@link com.mybatisflex.core.metrics.StatementMetrics}
+ */
+@ConfigurationProperties(prefix = "mybatis-flex.metrics")
+public class MybatisFlexMetricsProperties {
+
+    /**
+     * 是否开启 sql 执行的统计，以及 Micrometer 指标和 actuator endpoint
+     */
+    private boolean enabled = false;
+
+    /**
+     * 慢 sql 的阈值，单位：毫秒，小于等于 0 时不输出慢 sql 日志
+     */
+    private long slowSqlThreshold = 0;
+
+    /**
+     * 最多统计的 sql 指纹数量
+     */
+    private int maxSqlFingerprints = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSlowSqlThreshold() {
+        return slowSqlThreshold;
+    }
+
+    public void setSlowSqlThreshold(long slowSqlThreshold) {
+        this.slowSqlThreshold = slowSqlThreshold;
+    }
+
+    public int getMaxSqlFingerprints() {
+        return maxSqlFingerprints;
+    }
+
+    public void setMaxSqlFingerprints(int maxSqlFingerprints) {
+        this.maxSqlFingerprints = maxSqlFingerprints;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.mybatisflex.spring;
 
+import com.mybatisflex.core.cache.CacheSynchronizer;
 import com.mybatisflex.core.mybatis.FlexConfiguration;
 import com.mybatisflex.core.mybatis.FlexSqlSessionFactoryBuilder;
 import com.mybatisflex.core.mybatis.FlexXMLConfigBuilder;
@@ -607,6 +608,9 @@ public class FlexSqlSessionFactoryBean extends SqlSessionFactoryBean
             LOGGER.debug(() -> "Property 'mapperLocations' was not specified.");
         }
 
+        //缓存的清除延迟到 Spring 事务结束之后
+        CacheSynchronizer.setRegistrar(new SpringCacheSynchronizer());
+
         return this.sqlSessionFactoryBuilder.build(targetConfiguration);
     }
 
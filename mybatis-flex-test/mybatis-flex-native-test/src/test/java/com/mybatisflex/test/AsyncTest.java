@@ -0,0 +1,146 @@
+package com.mybatisflex.test;
+
+import com.mybatisflex.core.async.AsyncExecutor;
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.test.model.TestAccount;
+import com.mybatisflex.test.model.TestAccountMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 异步执行：AsyncExecutor 的并发限制、异常和拒绝的处理，以及 Db 和 Mapper 的异步查询
+ */
+public class AsyncTest extends H2TestBase {
+
+    private ExecutorService threadPool;
+
+    @Before
+    public void init() {
+        threadPool = Executors.newFixedThreadPool(4);
+    }
+
+
+    @After
+    public void destroy() {
+        threadPool.shutdownNow();
+    }
+
+
+    @Test
+    public void testMaxConcurrency() throws Exception {
+        AsyncExecutor asyncExecutor = new AsyncExecutor(threadPool, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int value = i;
+            futures.add(asyncExecutor.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(20);
+                running.decrementAndGet();
+                return value;
+            }));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(Integer.valueOf(i), futures.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertTrue(maxRunning.get() <= 2);
+        assertEquals(0, asyncExecutor.getPendingCount());
+    }
+
+
+    @Test
+    public void testSubmitInCallback() throws Exception {
+        //future 结束时许可已经释放，在回调中提交新的任务不会因为等待许可而阻塞
+        AsyncExecutor asyncExecutor = new AsyncExecutor(threadPool, 1);
+
+        CompletableFuture<Integer> future = asyncExecutor.submit(() -> 1)
+                .thenCompose(value -> asyncExecutor.submit(() -> value + 1));
+
+        assertEquals(Integer.valueOf(2), future.get(5, TimeUnit.SECONDS));
+    }
+
+
+    @Test
+    public void testException() throws Exception {
+        AsyncExecutor asyncExecutor = new AsyncExecutor(threadPool, 1);
+        IllegalStateException error = new IllegalStateException("error");
+
+        CompletableFuture<Object> future = asyncExecutor.submit(() -> {
+            throw error;
+        });
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("the future should be completed exceptionally.");
+        } catch (ExecutionException e) {
+            assertSame(error, e.getCause());
+        }
+
+        //出错之后许可被释放
+        assertEquals(Integer.valueOf(1), asyncExecutor.submit(() -> 1).get(5, TimeUnit.SECONDS));
+    }
+
+
+    @Test
+    public void testRejected() throws Exception {
+        AtomicBoolean reject = new AtomicBoolean(true);
+        AsyncExecutor asyncExecutor = new AsyncExecutor(command -> {
+            if (reject.getAndSet(false)) {
+                throw new RejectedExecutionException("rejected");
+            }
+            threadPool.execute(command);
+        }, 1);
+
+        try {
+            asyncExecutor.submit(() -> 1).get(5, TimeUnit.SECONDS);
+            fail("the future should be completed exceptionally.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+
+        //被拒绝之后许可被释放
+        assertEquals(Integer.valueOf(2), asyncExecutor.submit(() -> 2).get(5, TimeUnit.SECONDS));
+    }
+
+
+    @Test
+    public void testDbAndMapper() throws Exception {
+        Db.deleteBySql("delete from tb_test_account");
+
+        TestAccount account = new TestAccount();
+        account.setUserName("zhangsan");
+        account.setAge(18);
+        int count = getBootstrap().async(TestAccountMapper.class).insert(account).get(5, TimeUnit.SECONDS);
+        assertEquals(1, count);
+
+        TestAccount selected = getBootstrap().async(TestAccountMapper.class).selectOneById(account.getId()).get(5, TimeUnit.SECONDS);
+        assertEquals("zhangsan", selected.getUserName());
+
+        assertEquals(1, Db.async().selectListBySql("select * from tb_test_account").get(5, TimeUnit.SECONDS).size());
+    }
+
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
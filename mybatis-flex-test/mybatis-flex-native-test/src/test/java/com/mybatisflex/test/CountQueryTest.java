@@ -0,0 +1,155 @@
+package com.mybatisflex.test;
+
+import com.mybatisflex.core.dialect.DbType;
+import com.mybatisflex.core.dialect.DialectFactory;
+import com.mybatisflex.core.paginate.Page;
+import com.mybatisflex.core.query.QueryColumn;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.core.row.Row;
+import com.mybatisflex.test.model.TestAccount;
+import com.mybatisflex.test.model.TestAccountMapper;
+import com.mybatisflex.test.model.TestOrder;
+import com.mybatisflex.test.model.TestOrderMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.mybatisflex.core.query.QueryMethods.count;
+import static com.mybatisflex.core.query.QueryMethods.distinct;
+import static org.junit.Assert.*;
+
+/**
+ * 分页的 count 查询：group by、distinct 的查询 count 分组或去重后的数据量，不影响数据量的 left join 在 count 时去掉
+ */
+public class CountQueryTest extends H2TestBase {
+
+    private static final QueryColumn ACCOUNT_ID = new QueryColumn("tb_test_account", "id");
+    private static final QueryColumn ACCOUNT_AGE = new QueryColumn("tb_test_account", "age");
+    private static final QueryColumn ORDER_ID = new QueryColumn("tb_test_order", "id");
+    private static final QueryColumn ORDER_ACCOUNT_ID = new QueryColumn("tb_test_order", "account_id");
+
+    @Before
+    public void init() {
+        Db.deleteBySql("delete from tb_test_order");
+        Db.deleteBySql("delete from tb_test_account");
+
+        //a 有 3 个订单，b 有 1 个订单，c 没有订单
+        Long a = insertAccount("a", 10);
+        Long b = insertAccount("b", 20);
+        insertAccount("c", 30);
+        insertOrder(a, 100);
+        insertOrder(a, 200);
+        insertOrder(a, 300);
+        insertOrder(b, 400);
+    }
+
+
+    @Test
+    public void testGroupBy() {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select(ORDER_ACCOUNT_ID, count())
+                .groupBy(ORDER_ACCOUNT_ID);
+
+        assertPage(Db.paginate("tb_test_order", 1, 10, queryWrapper), 2);
+    }
+
+
+    @Test
+    public void testGroupByWithMapper() {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select(ORDER_ACCOUNT_ID)
+                .groupBy(ORDER_ACCOUNT_ID);
+
+        Page<TestOrder> page = execute(TestOrderMapper.class, mapper -> mapper.paginate(1, 10, queryWrapper));
+
+        assertEquals(2, page.getTotalRow());
+        assertEquals(2, page.getList().size());
+    }
+
+
+    @Test
+    public void testHaving() {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select(ORDER_ACCOUNT_ID, count())
+                .groupBy(ORDER_ACCOUNT_ID)
+                .having(count().gt(1));
+
+        assertPage(Db.paginate("tb_test_order", 1, 10, queryWrapper), 1);
+    }
+
+
+    @Test
+    public void testDistinct() {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select(distinct(ORDER_ACCOUNT_ID));
+
+        assertPage(Db.paginate("tb_test_order", 1, 10, queryWrapper), 2);
+    }
+
+
+    @Test
+    public void testRemoveToOneLeftJoin() {
+        //每个订单最多关联一个账户，count 时不需要 join
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select(ORDER_ID, ACCOUNT_AGE)
+                .from("tb_test_order")
+                .leftJoin("tb_test_account").on(ACCOUNT_ID.eq(ORDER_ACCOUNT_ID));
+
+        assertFalse(countSql(queryWrapper).toUpperCase().contains("JOIN"));
+        assertPage(Db.paginate("tb_test_order", 1, 10, queryWrapper), 4);
+    }
+
+
+    @Test
+    public void testKeepToManyLeftJoin() {
+        //每个账户可能关联多个订单，count 时必须保留 join
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select(ACCOUNT_ID, ORDER_ID)
+                .from("tb_test_account")
+                .leftJoin("tb_test_order").on(ORDER_ACCOUNT_ID.eq(ACCOUNT_ID));
+
+        assertTrue(countSql(queryWrapper).toUpperCase().contains("JOIN"));
+        assertPage(Db.paginate("tb_test_account", 1, 10, queryWrapper), 5);
+    }
+
+
+    @Test
+    public void testKeepLeftJoinUsedInWhere() {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select(ORDER_ID, ACCOUNT_AGE)
+                .from("tb_test_order")
+                .leftJoin("tb_test_account").on(ACCOUNT_ID.eq(ORDER_ACCOUNT_ID))
+                .where(ACCOUNT_AGE.ge(20));
+
+        assertTrue(countSql(queryWrapper).toUpperCase().contains("JOIN"));
+        assertPage(Db.paginate("tb_test_order", 1, 10, queryWrapper), 1);
+    }
+
+
+    private static void assertPage(Page<Row> page, int totalRow) {
+        assertEquals(totalRow, page.getTotalRow());
+        assertEquals(totalRow, page.getList().size());
+    }
+
+
+    private static String countSql(QueryWrapper queryWrapper) {
+        return DialectFactory.getDialect(DbType.H2).forSelectCountByQuery(queryWrapper);
+    }
+
+
+    private static Long insertAccount(String userName, int age) {
+        TestAccount account = new TestAccount();
+        account.setUserName(userName);
+        account.setAge(age);
+        execute(TestAccountMapper.class, mapper -> mapper.insert(account));
+        return account.getId();
+    }
+
+
+    private static void insertOrder(Long accountId, int amount) {
+        TestOrder order = new TestOrder();
+        order.setAccountId(accountId);
+        order.setAmount(amount);
+        execute(TestOrderMapper.class, mapper -> mapper.insert(order));
+    }
+}
@@ -0,0 +1,85 @@
+package com.mybatisflex.test;
+
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.core.row.Row;
+import com.mybatisflex.core.row.RowKey;
+import com.mybatisflex.test.model.TestAccount;
+import com.mybatisflex.test.model.TestAccountMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 批量插入：超过方言的参数数量或行数限制时，自动分为多条 INSERT 语句执行
+ */
+public class EntityBatchInsertTest extends H2TestBase {
+
+    //超过 H2 方言单条 INSERT 语句最多插入的数据行数（1000）
+    private static final int SIZE = 2500;
+
+    @Before
+    public void init() {
+        Db.deleteBySql("delete from tb_test_account");
+    }
+
+
+    @Test
+    public void testInsertBatch() {
+        List<TestAccount> accounts = newAccounts(SIZE);
+
+        int count = execute(TestAccountMapper.class, mapper -> mapper.insertBatch(accounts));
+
+        assertEquals(SIZE, count);
+        assertUserNames(SIZE);
+    }
+
+
+    @Test
+    public void testInsertBatchWithSize() {
+        List<TestAccount> accounts = newAccounts(20);
+
+        int count = execute(TestAccountMapper.class, mapper -> mapper.insertBatch(accounts, 7));
+
+        assertEquals(20, count);
+        assertUserNames(20);
+    }
+
+
+    @Test
+    public void testInsertBatchWithFirstRowColumns() {
+        List<Row> rows = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            rows.add(Row.ofKey(RowKey.ID_AUTO).set("user_name", "user_" + i).set("age", i % 100));
+        }
+
+        int count = Db.insertBatchWithFirstRowColumns("tb_test_account", rows);
+
+        assertEquals(SIZE, count);
+        assertUserNames(SIZE);
+    }
+
+
+    private static List<TestAccount> newAccounts(int size) {
+        List<TestAccount> accounts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TestAccount account = new TestAccount();
+            account.setUserName("user_" + i);
+            account.setAge(i % 100);
+            accounts.add(account);
+        }
+        return accounts;
+    }
+
+
+    private static void assertUserNames(int size) {
+        List<Object> userNames = Db.selectObjectList("select user_name from tb_test_account order by id");
+        assertEquals(size, userNames.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals("user_" + i, userNames.get(i));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.mybatisflex.test;
+
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.core.cache.EntityCache;
+import com.mybatisflex.core.cache.EntityCacheFactory;
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.core.table.TableInfos;
+import com.mybatisflex.test.model.CacheAccount;
+import com.mybatisflex.test.model.CacheAccountMapper;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+
+import static org.junit.Assert.*;
+
+/**
+ * 实体缓存：selectOneById 的缓存，以及修改数据、事务提交和回滚时缓存的清除
+ */
+public class EntityCacheTest extends H2TestBase {
+
+    private Long id;
+
+    @Before
+    public void init() {
+        Db.deleteBySql("delete from tb_cache_account");
+
+        CacheAccount account = new CacheAccount();
+        account.setUserName("zhangsan");
+        account.setAge(18);
+        execute(CacheAccountMapper.class, mapper -> mapper.insert(account));
+        id = account.getId();
+    }
+
+
+    @Test
+    public void testSelectOneByIdFromCache() {
+        EntityCache cache = getCache();
+        long hitCount = cache.getHitCount();
+
+        CacheAccount first = selectOneById();
+        CacheAccount second = selectOneById();
+
+        assertEquals(hitCount + 1, cache.getHitCount());
+        assertEquals(Integer.valueOf(18), second.getAge());
+        assertEquals("zhangsan", second.getUserName());
+
+        //缓存返回的是新的对象，修改之后不影响缓存
+        assertNotSame(first, second);
+        second.setAge(100);
+        assertEquals(Integer.valueOf(18), selectOneById().getAge());
+    }
+
+
+    @Test
+    public void testUpdateInvalidatesCache() {
+        selectOneById();
+
+        CacheAccount account = new CacheAccount();
+        account.setId(id);
+        account.setAge(30);
+        execute(CacheAccountMapper.class, mapper -> mapper.update(account));
+
+        assertEquals(Integer.valueOf(30), selectOneById().getAge());
+    }
+
+
+    @Test
+    public void testDeleteInvalidatesCache() {
+        selectOneById();
+
+        execute(CacheAccountMapper.class, mapper -> mapper.deleteById(id));
+
+        assertNull(selectOneById());
+    }
+
+
+    @Test
+    public void testDbUpdateInvalidatesCache() {
+        selectOneById();
+
+        Db.updateBySql("update tb_cache_account set age = ? where id = ?", 40, id);
+
+        assertEquals(Integer.valueOf(40), selectOneById().getAge());
+    }
+
+
+    @Test
+    public void testUncommittedUpdateIsNotCached() {
+        try (SqlSession session = openTransaction()) {
+            CacheAccount account = new CacheAccount();
+            account.setId(id);
+            account.setAge(50);
+            session.getMapper(CacheAccountMapper.class).update(account);
+
+            //其他的连接读取到的是修改之前的数据，事务结束之前不能放入缓存
+            assertEquals(Integer.valueOf(18), selectOneById().getAge());
+            assertEquals(0, getCache().size());
+
+            session.commit();
+        }
+
+        assertEquals(Integer.valueOf(50), selectOneById().getAge());
+    }
+
+
+    @Test
+    public void testRollback() {
+        try (SqlSession session = openTransaction()) {
+            CacheAccountMapper mapper = session.getMapper(CacheAccountMapper.class);
+
+            CacheAccount account = new CacheAccount();
+            account.setId(id);
+            account.setAge(60);
+            mapper.update(account);
+
+            //当前事务读取到的是自己修改之后的数据，且不会放入缓存
+            assertEquals(Integer.valueOf(60), mapper.selectOneById(id).getAge());
+
+            session.rollback();
+        }
+
+        assertEquals(Integer.valueOf(18), selectOneById().getAge());
+
+        //事务结束之后，缓存恢复正常
+        EntityCache cache = getCache();
+        long hitCount = cache.getHitCount();
+        assertEquals(Integer.valueOf(18), selectOneById().getAge());
+        assertEquals(hitCount + 1, cache.getHitCount());
+    }
+
+
+    @Test
+    public void testCachesOfDifferentEnvironments() {
+        DataSource dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("entity_cache_test")
+                .addScript("schema_test.sql")
+                .build();
+        MybatisFlexBootstrap other = new MybatisFlexBootstrap()
+                .setEnvironmentId("entity_cache_test")
+                .setDataSource(dataSource)
+                .addMapper(CacheAccountMapper.class)
+                .start();
+
+        //另一个数据源中相同主键的数据
+        Db.invoker("entity_cache_test").insertBySql("insert into tb_cache_account(id, user_name, age) values (?, ?, ?)", id, "lisi", 20);
+
+        assertEquals(Integer.valueOf(18), selectOneById().getAge());
+        assertEquals(Integer.valueOf(20), other.execute(CacheAccountMapper.class, mapper -> mapper.selectOneById(id)).getAge());
+
+        //修改另一个数据源的数据，不影响当前数据源的缓存
+        long hitCount = getCache().getHitCount();
+        CacheAccount account = new CacheAccount();
+        account.setId(id);
+        account.setAge(21);
+        other.execute(CacheAccountMapper.class, mapper -> mapper.update(account));
+
+        assertEquals(Integer.valueOf(18), selectOneById().getAge());
+        assertEquals(hitCount + 1, getCache().getHitCount());
+        assertEquals(Integer.valueOf(21), other.execute(CacheAccountMapper.class, mapper -> mapper.selectOneById(id)).getAge());
+    }
+
+
+    private CacheAccount selectOneById() {
+        return execute(CacheAccountMapper.class, mapper -> mapper.selectOneById(id));
+    }
+
+
+    private static EntityCache getCache() {
+        return EntityCacheFactory.getCache(getBootstrap().getEnvironmentId(), TableInfos.ofEntityClass(CacheAccount.class));
+    }
+}
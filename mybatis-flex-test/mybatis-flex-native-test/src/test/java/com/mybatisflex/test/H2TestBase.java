@@ -0,0 +1,62 @@
+package com.mybatisflex.test;
+
+import com.mybatisflex.core.MybatisFlexBootstrap;
+import com.mybatisflex.test.model.CacheAccountMapper;
+import com.mybatisflex.test.model.TestAccountMapper;
+import com.mybatisflex.test.model.TestOrderMapper;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.BeforeClass;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+import java.util.function.Function;
+
+/**
+ * 基于 H2 内存数据库的测试，所有的测试类共用同一个数据库和 MybatisFlexBootstrap
+ */
+public abstract class H2TestBase {
+
+    private static MybatisFlexBootstrap bootstrap;
+
+    @BeforeClass
+    public static void startBootstrap() {
+        synchronized (H2TestBase.class) {
+            if (bootstrap != null) {
+                return;
+            }
+
+            DataSource dataSource = new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .addScript("schema.sql")
+                    .addScript("data.sql")
+                    .addScript("schema_test.sql")
+                    .build();
+
+            bootstrap = MybatisFlexBootstrap.getInstance()
+                    .setDataSource(dataSource)
+                    .addMapper(CacheAccountMapper.class)
+                    .addMapper(TestAccountMapper.class)
+                    .addMapper(TestOrderMapper.class)
+                    .start();
+        }
+    }
+
+
+    protected static MybatisFlexBootstrap getBootstrap() {
+        return bootstrap;
+    }
+
+
+    protected static <R, T> R execute(Class<T> mapperClass, Function<T, R> function) {
+        return bootstrap.execute(mapperClass, function);
+    }
+
+
+    /**
+     * 打开一个手动提交的 SqlSession，用于测试事务提交和回滚
+     */
+    protected static SqlSession openTransaction() {
+        return bootstrap.getSqlSessionFactory().openSession(false);
+    }
+}
@@ -0,0 +1,107 @@
+package com.mybatisflex.test;
+
+import com.mybatisflex.core.paginate.Page;
+import com.mybatisflex.core.query.QueryColumn;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.core.row.Row;
+import com.mybatisflex.test.model.TestAccount;
+import com.mybatisflex.test.model.TestAccountMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * keyset 分页：逐页查询的结果和一次性按照相同排序查询的结果一致
+ */
+public class KeysetPageTest extends H2TestBase {
+
+    private static final QueryColumn ID = new QueryColumn("id");
+    private static final QueryColumn AGE = new QueryColumn("age");
+
+    private static final int PAGE_SIZE = 3;
+
+    @Before
+    public void init() {
+        Db.deleteBySql("delete from tb_test_account");
+        //age 有重复，需要和 id 一起确定唯一的顺序
+        int[] ages = {3, 1, 2, 3, 1, 2, 3, 1, 2, 3};
+        for (int i = 0; i < ages.length; i++) {
+            Db.insertBySql("insert into tb_test_account(user_name, age) values (?, ?)", "user_" + i, ages[i]);
+        }
+    }
+
+
+    @Test
+    public void testMapperPaginate() {
+        QueryWrapper queryWrapper = QueryWrapper.create().orderBy(AGE.asc(), ID.asc());
+
+        List<Long> ids = new ArrayList<>();
+        Page<TestAccount> page = Page.ofKeyset(PAGE_SIZE);
+        do {
+            //paginate 会更新 page 中的数据和下一页的 keyset 值
+            execute(TestAccountMapper.class, mapper -> mapper.paginate(page, queryWrapper));
+            page.getList().forEach(account -> ids.add(account.getId()));
+        } while (page.getList().size() == PAGE_SIZE);
+
+        assertEquals(10, page.getTotalRow());
+        assertEquals(selectIds("select id from tb_test_account order by age, id"), ids);
+    }
+
+
+    @Test
+    public void testMapperPaginateWithWhereAndDesc() {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .where(AGE.ge(2))
+                .orderBy(AGE.desc(), ID.desc());
+
+        List<Long> ids = new ArrayList<>();
+        Page<TestAccount> page = Page.ofKeyset(PAGE_SIZE);
+        do {
+            execute(TestAccountMapper.class, mapper -> mapper.paginate(page, queryWrapper));
+            page.getList().forEach(account -> ids.add(account.getId()));
+        } while (page.getList().size() == PAGE_SIZE);
+
+        //每一页查询完毕后，原有的 where 条件被恢复
+        assertEquals(7, page.getTotalRow());
+        assertEquals(selectIds("select id from tb_test_account where age >= 2 order by age desc, id desc"), ids);
+    }
+
+
+    @Test
+    public void testDbPaginate() {
+        QueryWrapper queryWrapper = QueryWrapper.create().orderBy(AGE.asc(), ID.asc());
+
+        List<Long> ids = new ArrayList<>();
+        Page<Row> page = Page.ofKeyset(PAGE_SIZE);
+        do {
+            Db.paginate("tb_test_account", page, queryWrapper);
+            page.getList().forEach(row -> ids.add(((Number) getIgnoreCase(row, "id")).longValue()));
+        } while (page.getList().size() == PAGE_SIZE);
+
+        assertEquals(10, page.getTotalRow());
+        assertEquals(selectIds("select id from tb_test_account order by age, id"), ids);
+    }
+
+
+    private static List<Long> selectIds(String sql) {
+        List<Long> ids = new ArrayList<>();
+        Db.selectObjectList(sql).forEach(id -> ids.add(((Number) id).longValue()));
+        return ids;
+    }
+
+
+    private static Object getIgnoreCase(Row row, String column) {
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(column)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
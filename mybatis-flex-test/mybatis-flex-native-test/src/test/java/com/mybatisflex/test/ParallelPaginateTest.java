@@ -0,0 +1,82 @@
+package com.mybatisflex.test;
+
+import com.mybatisflex.core.paginate.Page;
+import com.mybatisflex.core.paginate.TtlPageCountCache;
+import com.mybatisflex.core.query.QueryColumn;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.core.row.Row;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Db 分页时并行执行 count 查询，以及 count 结果的缓存
+ */
+public class ParallelPaginateTest extends H2TestBase {
+
+    private static final QueryColumn ID = new QueryColumn("id");
+
+    private ExecutorService threadPool;
+
+    @Before
+    public void init() {
+        Db.deleteBySql("delete from tb_test_account");
+        for (int i = 0; i < 7; i++) {
+            Db.insertBySql("insert into tb_test_account(user_name, age) values (?, ?)", "user_" + i, i);
+        }
+        threadPool = Executors.newFixedThreadPool(2);
+    }
+
+
+    @After
+    public void destroy() {
+        Db.invoker().setPaginateExecutor(null);
+        Db.invoker().setPageCountCache(null);
+        threadPool.shutdownNow();
+    }
+
+
+    @Test
+    public void testParallelPaginate() {
+        Db.invoker().setPaginateExecutor(threadPool);
+
+        Page<Row> page = paginate(2);
+        assertEquals(7, page.getTotalRow());
+        assertEquals(3, page.getTotalPage());
+        assertEquals(3, page.getList().size());
+
+        assertEquals(1, paginate(3).getList().size());
+
+        //页码超出范围时，数据查询可能已经和 count 查询同时执行，结果为空
+        page = paginate(5);
+        assertEquals(7, page.getTotalRow());
+        assertTrue(page.getList() == null || page.getList().isEmpty());
+    }
+
+
+    @Test
+    public void testPageCountCache() {
+        Db.invoker().setPageCountCache(new TtlPageCountCache(1, TimeUnit.MINUTES, 100));
+
+        assertEquals(7, paginate(1).getTotalRow());
+
+        //缓存有效期内，新增的数据不会反映到数据总量中
+        Db.insertBySql("insert into tb_test_account(user_name, age) values (?, ?)", "user_7", 7);
+        assertEquals(7, paginate(1).getTotalRow());
+
+        Db.invoker().setPageCountCache(null);
+        assertEquals(8, paginate(1).getTotalRow());
+    }
+
+
+    private static Page<Row> paginate(int pageNumber) {
+        return Db.paginate("tb_test_account", pageNumber, 3, QueryWrapper.create().orderBy(ID.asc()));
+    }
+}
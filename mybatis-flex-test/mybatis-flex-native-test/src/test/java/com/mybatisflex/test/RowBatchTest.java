@@ -0,0 +1,78 @@
+package com.mybatisflex.test;
+
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.core.row.Row;
+import com.mybatisflex.core.row.RowKey;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Db 通过 JDBC batch 的批量操作
+ */
+public class RowBatchTest extends H2TestBase {
+
+    @Before
+    public void init() {
+        Db.deleteBySql("delete from tb_test_account");
+    }
+
+
+    @Test
+    public void testInsertBatch() {
+        List<Row> rows = new ArrayList<>();
+        List<Object> userNames = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Row row = Row.ofKey(RowKey.ID_AUTO).set("user_name", "user_" + i);
+            //列的组合不同的数据交替出现，也必须按照原有的顺序执行
+            if (i % 2 == 0) {
+                row.set("age", i);
+            }
+            rows.add(row);
+            userNames.add("user_" + i);
+        }
+
+        //最后一批不足 batchSize 的数据也必须执行
+        int[] results = Db.insertBatch("tb_test_account", rows, 3);
+
+        assertEquals(10, results.length);
+        for (int result : results) {
+            assertEquals(1, result);
+        }
+        assertEquals(userNames, Db.selectObjectList("select user_name from tb_test_account order by id"));
+        assertEquals(5, Db.selectCount("select count(*) from tb_test_account where age is null"));
+    }
+
+
+    @Test
+    public void testUpdateBatchById() {
+        Db.insertBySql("insert into tb_test_account(user_name, age) values (?, ?), (?, ?), (?, ?), (?, ?)"
+                , "a", 1, "b", 2, "c", 3, "d", 4);
+        List<Object> ids = Db.selectObjectList("select id from tb_test_account order by id");
+
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Row row = Row.ofKey(RowKey.ID_AUTO, ids.get(i));
+            //列的组合不同，set 的顺序也不同，参数必须和列对应
+            if (i % 2 == 0) {
+                row.set("age", 10 + i);
+            } else {
+                row.set("age", 10 + i).set("user_name", "user_" + i);
+            }
+            rows.add(row);
+        }
+
+        int count = Db.updateBatchById("tb_test_account", rows);
+
+        assertEquals(4, count);
+        assertEquals(Arrays.asList("a", "user_1", "c", "user_3")
+                , Db.selectObjectList("select user_name from tb_test_account order by id"));
+        assertEquals(Arrays.asList(10, 11, 12, 13)
+                , Db.selectObjectList("select age from tb_test_account order by id"));
+    }
+}
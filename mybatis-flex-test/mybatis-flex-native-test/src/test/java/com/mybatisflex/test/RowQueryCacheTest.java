@@ -0,0 +1,123 @@
+package com.mybatisflex.test;
+
+import com.mybatisflex.core.cache.RowQueryCache;
+import com.mybatisflex.core.row.Db;
+import com.mybatisflex.core.row.Row;
+import com.mybatisflex.core.row.RowMapper;
+import com.mybatisflex.test.model.CacheAccount;
+import com.mybatisflex.test.model.CacheAccountMapper;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Db 的查询缓存：缓存命中，以及通过 Db、Mapper 修改数据和事务提交、回滚时缓存的清除
+ */
+public class RowQueryCacheTest extends H2TestBase {
+
+    private static final String SELECT_ALL = "select * from tb_test_account where age > ?";
+    private static final String SELECT_MAX_AGE = "select max(age) from tb_test_account";
+
+    private RowQueryCache queryCache;
+
+    @Before
+    public void init() {
+        Db.deleteBySql("delete from tb_test_account");
+        Db.deleteBySql("delete from tb_cache_account");
+        Db.insertBySql("insert into tb_test_account(user_name, age) values (?, ?), (?, ?), (?, ?)"
+                , "a", 10, "b", 20, "c", 30);
+
+        queryCache = new RowQueryCache(1, TimeUnit.MINUTES, 100);
+        Db.invoker().setQueryCache(queryCache);
+    }
+
+
+    @After
+    public void destroy() {
+        Db.invoker().setQueryCache(null);
+    }
+
+
+    @Test
+    public void testQueryFromCache() {
+        List<Row> rows = Db.selectListBySql(SELECT_ALL, 0);
+        assertEquals(3, rows.size());
+
+        //修改查询结果不影响缓存
+        rows.get(0).clear();
+
+        List<Row> cachedRows = Db.selectListBySql(SELECT_ALL, 0);
+        assertEquals(1, queryCache.getHitCount());
+        assertEquals(3, cachedRows.size());
+        assertFalse(cachedRows.get(0).isEmpty());
+
+        //参数不同时不命中
+        assertEquals(2, Db.selectListBySql(SELECT_ALL, 10).size());
+        assertEquals(1, queryCache.getHitCount());
+    }
+
+
+    @Test
+    public void testDbWriteEvictsCache() {
+        assertEquals(3, Db.selectListBySql(SELECT_ALL, 0).size());
+
+        Db.insertBySql("insert into tb_test_account(user_name, age) values (?, ?)", "d", 40);
+        assertEquals(4, Db.selectListBySql(SELECT_ALL, 0).size());
+
+        Db.updateBySql("update tb_test_account set age = ?", 0);
+        assertEquals(0, Db.selectListBySql(SELECT_ALL, 0).size());
+    }
+
+
+    @Test
+    public void testMapperWriteEvictsCache() {
+        String sql = "select * from tb_cache_account";
+        assertEquals(0, Db.selectListBySql(sql).size());
+
+        CacheAccount account = new CacheAccount();
+        account.setUserName("zhangsan");
+        account.setAge(18);
+        execute(CacheAccountMapper.class, mapper -> mapper.insert(account));
+
+        assertEquals(1, Db.selectListBySql(sql).size());
+    }
+
+
+    @Test
+    public void testUncommittedWriteIsNotCached() {
+        try (SqlSession session = openTransaction()) {
+            session.getMapper(RowMapper.class).updateBySql("update tb_test_account set age = ?", 50);
+
+            //其他的连接读取到的是修改之前的数据，事务结束之前不能放入缓存
+            assertEquals(30, Db.selectObject(SELECT_MAX_AGE));
+            assertEquals(30, Db.selectObject(SELECT_MAX_AGE));
+            assertEquals(0, queryCache.getHitCount());
+
+            session.commit();
+        }
+
+        assertEquals(50, Db.selectObject(SELECT_MAX_AGE));
+    }
+
+
+    @Test
+    public void testRollback() {
+        try (SqlSession session = openTransaction()) {
+            session.getMapper(RowMapper.class).insertBySql("insert into tb_test_account(user_name, age) values (?, ?)", "d", 40);
+            assertEquals(3, Db.selectListBySql(SELECT_ALL, 0).size());
+            session.rollback();
+        }
+
+        assertEquals(3, Db.selectListBySql(SELECT_ALL, 0).size());
+
+        //事务结束之后，缓存恢复正常
+        assertEquals(3, Db.selectListBySql(SELECT_ALL, 0).size());
+        assertEquals(1, queryCache.getHitCount());
+    }
+}
@@ -0,0 +1,195 @@
+package com.mybatisflex.test;
+
+import com.mybatisflex.core.row.Row;
+import com.mybatisflex.core.row.RowKey;
+import com.mybatisflex.core.row.RowSchema;
+import com.mybatisflex.core.row.SchemaRow;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * SchemaRow 作为 Map 的行为必须和 Row 保持一致
+ */
+public class SchemaRowTest {
+
+    private final RowSchema schema = RowSchema.ofKey(new RowKey[]{RowKey.ID_AUTO}, "user_name", "age");
+
+
+    @Test
+    public void testGetWithDefaultValue() {
+        SchemaRow row = schema.newRow();
+        row.set("user_name", "michael");
+        row.set("other", 1);
+
+        assertEquals("michael", row.get("user_name", "none"));
+        assertEquals(1, row.get("other", 0));
+        assertEquals(18, row.get("age", 18));
+        assertEquals(18, row.get("unknown", 18));
+
+        assertEquals("michael", row.getOrDefault("user_name", "none"));
+        assertEquals(18, row.getOrDefault("age", 18));
+    }
+
+
+    @Test
+    public void testPutAndRemove() {
+        SchemaRow row = schema.newRow();
+        assertTrue(row.isEmpty());
+
+        row.put("user_name", "michael");
+        row.put("other", 1);
+        assertEquals(2, row.size());
+        assertTrue(row.containsKey("user_name"));
+        assertTrue(row.containsKey("other"));
+        assertFalse(row.containsKey("age"));
+        assertTrue(row.containsValue("michael"));
+        assertTrue(row.containsValue(1));
+
+        //值为 null 的列也是存在的列
+        row.put("age", null);
+        assertEquals(3, row.size());
+        assertTrue(row.containsKey("age"));
+
+        assertEquals("michael", row.remove("user_name"));
+        assertEquals(1, row.remove("other"));
+        assertFalse(row.containsKey("user_name"));
+        assertFalse(row.containsKey("other"));
+        assertEquals(1, row.size());
+
+        assertFalse(row.remove("age", 18));
+        assertTrue(row.remove("age", null));
+        assertTrue(row.isEmpty());
+    }
+
+
+    @Test
+    public void testModifyAttrs() {
+        SchemaRow row = schema.newRow(1, "michael", 18);
+        row.set("other", "x");
+
+        //主键不是修改的列，不在 schema 中的列排在最后
+        assertEquals(Arrays.asList("user_name", "age", "other"), new ArrayList<>(row.getModifyAttrs()));
+        assertArrayEquals(new Object[]{"michael", 18, "x"}, row.obtainModifyValues());
+
+        row.remove("user_name");
+        assertEquals(Arrays.asList("age", "other"), new ArrayList<>(row.getModifyAttrs()));
+        assertArrayEquals(new Object[]{18, "x"}, row.obtainModifyValues());
+
+        //put 和 HashMap 一样，不会标记为修改的列
+        row.put("user_name", "jack");
+        assertEquals(Arrays.asList("age", "other"), new ArrayList<>(row.getModifyAttrs()));
+
+        //有不在 schema 中的列时，不认为是相同的列
+        SchemaRow other = schema.newRow();
+        other.set("age", 20);
+        other.set("other", "y");
+        assertFalse(row.isSameModifyColumns(other));
+
+        row.remove("other");
+        other.remove("other");
+        assertTrue(row.isSameModifyColumns(other));
+        other.set("user_name", "tom");
+        assertFalse(row.isSameModifyColumns(other));
+        assertFalse(row.isSameModifyColumns(Row.of("age", 20)));
+    }
+
+
+    @Test
+    public void testViews() {
+        SchemaRow row = schema.newRow();
+        row.set("age", 18);
+        row.set("other", "x");
+        row.set("user_name", "michael");
+
+        //先按照 schema 中列的顺序，再是不在 schema 中的列
+        assertEquals(Arrays.asList("user_name", "age", "other"), new ArrayList<>(row.keySet()));
+        assertEquals(Arrays.asList("michael", 18, "x"), new ArrayList<>(row.values()));
+
+        List<String> keys = new ArrayList<>();
+        row.forEach((key, value) -> keys.add(key));
+        assertEquals(Arrays.asList("user_name", "age", "other"), keys);
+
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if ("age".equals(entry.getKey())) {
+                entry.setValue(20);
+            }
+        }
+        assertEquals(20, row.get("age"));
+
+        Iterator<String> iterator = row.keySet().iterator();
+        while (iterator.hasNext()) {
+            String key = iterator.next();
+            if (!"age".equals(key)) {
+                iterator.remove();
+            }
+        }
+        assertEquals(1, row.size());
+        assertEquals(Arrays.asList("age"), new ArrayList<>(row.keySet()));
+    }
+
+
+    @Test
+    public void testEqualsAndClone() {
+        SchemaRow row = schema.newRow(1, "michael", 18);
+        row.set("other", "x");
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", 1);
+        map.put("user_name", "michael");
+        map.put("age", 18);
+        map.put("other", "x");
+        assertEquals(map, row);
+        assertEquals(row, map);
+        assertEquals(map.hashCode(), row.hashCode());
+
+        SchemaRow copy = (SchemaRow) row.clone();
+        assertEquals(row, copy);
+        assertEquals(row.getModifyAttrs(), copy.getModifyAttrs());
+
+        copy.set("age", 20);
+        copy.remove("other");
+        assertEquals(18, row.get("age"));
+        assertEquals("x", row.get("other"));
+    }
+
+
+    @Test
+    public void testComputeAndMerge() {
+        SchemaRow row = schema.newRow();
+
+        assertNull(row.putIfAbsent("user_name", "michael"));
+        assertEquals("michael", row.putIfAbsent("user_name", "jack"));
+        assertEquals("michael", row.get("user_name"));
+
+        assertEquals(18, row.computeIfAbsent("age", key -> 18));
+        assertEquals(19, row.computeIfPresent("age", (key, value) -> (Integer) value + 1));
+        assertNull(row.computeIfPresent("other", (key, value) -> 1));
+        assertFalse(row.containsKey("other"));
+
+        assertEquals(20, row.merge("age", 1, (a, b) -> (Integer) a + (Integer) b));
+        assertEquals("x", row.merge("other", "x", (a, b) -> a + "" + b));
+        assertEquals("xy", row.merge("other", "y", (a, b) -> a + "" + b));
+
+        //返回 null 时移除该列
+        assertNull(row.compute("age", (key, value) -> null));
+        assertFalse(row.containsKey("age"));
+
+        assertTrue(row.replace("user_name", "michael", "jack"));
+        assertEquals("jack", row.replace("user_name", "tom"));
+        assertNull(row.replace("age", 18));
+        assertFalse(row.containsKey("age"));
+
+        row.clear();
+        assertTrue(row.isEmpty());
+        assertTrue(row.getModifyAttrs().isEmpty());
+        assertNull(row.get("user_name"));
+    }
+}
@@ -0,0 +1,6 @@
+package com.mybatisflex.test.model;
+
+import com.mybatisflex.core.BaseMapper;
+
+public interface TestAccountMapper extends BaseMapper<TestAccount> {
+}
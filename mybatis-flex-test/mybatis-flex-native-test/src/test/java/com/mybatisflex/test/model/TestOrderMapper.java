@@ -0,0 +1,6 @@
+package com.mybatisflex.test.model;
+
+import com.mybatisflex.core.BaseMapper;
+
+public interface TestOrderMapper extends BaseMapper<TestOrder> {
+}
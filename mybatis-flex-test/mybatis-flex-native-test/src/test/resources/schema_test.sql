@@ -0,0 +1,20 @@
+CREATE TABLE IF NOT EXISTS `tb_cache_account`
+(
+    `id`        INTEGER PRIMARY KEY auto_increment,
+    `user_name` VARCHAR(100),
+    `age`       Integer
+);
+
+CREATE TABLE IF NOT EXISTS `tb_test_account`
+(
+    `id`        INTEGER PRIMARY KEY auto_increment,
+    `user_name` VARCHAR(100),
+    `age`       Integer
+);
+
+CREATE TABLE IF NOT EXISTS `tb_test_order`
+(
+    `id`         INTEGER PRIMARY KEY auto_increment,
+    `account_id` Integer,
+    `amount`     Integer
+);